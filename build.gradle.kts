@@ -2,6 +2,7 @@ plugins {
     `java-library`
     `maven-publish`
     id("com.gradleup.shadow") version "8.3.5"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 java.toolchain.languageVersion.set(JavaLanguageVersion.of(21))
@@ -27,6 +28,10 @@ tasks.test {
     }
 }
 
+jmh {
+    profilers.add("gc")
+}
+
 tasks.jar {
     manifest {
         attributes("Implementation-Version" to project.version)
@@ -0,0 +1,114 @@
+package io.papermc.restamp.cli;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The restamp batch is the manifest of a batch of jobs run by a single CLI invocation.
+ * <p>
+ * The manifest is a json file of the form
+ * <pre>{@code
+ * {
+ *   "parallelism": 2,
+ *   "jobs": [
+ *     {
+ *       "name": "paper",
+ *       "sourcePath": "paper/src/main/java",
+ *       "accessTransformers": "paper/build-data/paper.at",
+ *       "classpath": ["libs/paper.jar", "libs/guava.jar"],
+ *       "inputs": [],
+ *       "compiledProject": "paper/build/libs/paper.jar",
+ *       "output": "out/paper.diff"
+ *     }
+ *   ]
+ * }
+ * }</pre>
+ * Relative paths are resolved against the directory of the manifest. The {@code name}, {@code classpath}, {@code inputs},
+ * {@code compiledProject} and {@code output} of a job are optional, jobs without an output print their diffs to the standard output.
+ *
+ * @param parallelism the amount of jobs run concurrently, or null if not defined by the manifest.
+ * @param jobs        the jobs of the batch.
+ */
+record RestampBatch(Integer parallelism, List<Job> jobs) {
+
+    /**
+     * A job as defined in the manifest.
+     *
+     * @param name               the name of the job.
+     * @param sourcePath         the root path of the inputs.
+     * @param accessTransformers the path to the access transformers.
+     * @param classpath          the classpath needed to fully parse the input sources.
+     * @param inputs             the source files to transform.
+     * @param compiledProject    the jar or directory of the compiled input sources.
+     * @param output             the path of the file the diffs of the job are written to.
+     */
+    record Job(String name, String sourcePath, String accessTransformers, List<String> classpath, List<String> inputs, String compiledProject,
+               String output) {
+
+    }
+
+    /**
+     * A job of the batch with all paths resolved.
+     *
+     * @param job    the job to run.
+     * @param output the path of the file the diffs of the job are written to, or null if they are printed to the standard output.
+     */
+    record ResolvedJob(RestampJob job, Path output) {
+
+    }
+
+    /**
+     * Reads the batch manifest at the passed path.
+     *
+     * @param manifest the path to the manifest.
+     *
+     * @return the read batch.
+     *
+     * @throws IOException if reading the manifest failed.
+     */
+    static RestampBatch read(final Path manifest) throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        final RestampBatch batch = mapper.readValue(manifest.toFile(), RestampBatch.class);
+        if (batch.jobs() == null || batch.jobs().isEmpty()) throw new IllegalArgumentException("Batch manifest " + manifest + " defines no jobs");
+        return batch;
+    }
+
+    /**
+     * Resolves the jobs of this batch against the directory of the manifest.
+     *
+     * @param manifest the path to the manifest this batch was read from.
+     *
+     * @return the resolved jobs.
+     *
+     * @throws IllegalArgumentException if a job does not define a source path or access transformers.
+     */
+    List<ResolvedJob> resolve(final Path manifest) {
+        final Path base = manifest.toAbsolutePath().getParent();
+        final List<ResolvedJob> resolvedJobs = new ArrayList<>(this.jobs.size());
+        for (int i = 0; i < this.jobs.size(); i++) {
+            final Job job = this.jobs.get(i);
+            final String name = job.name() != null ? job.name() : "job-" + i;
+            if (job.sourcePath() == null) throw new IllegalArgumentException("Batch job " + name + " defines no sourcePath");
+            if (job.accessTransformers() == null) throw new IllegalArgumentException("Batch job " + name + " defines no accessTransformers");
+
+            resolvedJobs.add(new ResolvedJob(
+                new RestampJob(
+                    name,
+                    base.resolve(job.sourcePath()),
+                    base.resolve(job.accessTransformers()),
+                    job.classpath() == null ? List.of() : job.classpath().stream().map(base::resolve).toList(),
+                    job.inputs() == null || job.inputs().isEmpty() ? null : job.inputs().stream().map(base::resolve).toList(),
+                    job.compiledProject() == null ? null : base.resolve(job.compiledProject())
+                ),
+                job.output() == null ? null : base.resolve(job.output())
+            ));
+        }
+        return resolvedJobs;
+    }
+
+}
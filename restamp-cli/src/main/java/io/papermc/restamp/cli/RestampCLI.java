@@ -3,16 +3,33 @@ package io.papermc.restamp.cli;
 import io.papermc.restamp.Restamp;
 import io.papermc.restamp.RestampContextConfiguration;
 import io.papermc.restamp.RestampInput;
-import org.openrewrite.Changeset;
+import io.papermc.restamp.RestampParserPool;
+import io.papermc.restamp.output.ResultDiffer;
+import io.papermc.restamp.output.ResultWriter;
+import org.cadixdev.at.io.AccessTransformFormats;
 import org.openrewrite.InMemoryExecutionContext;
 import org.openrewrite.Result;
 import picocli.CommandLine;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @CommandLine.Command(
     name = "restamp",
@@ -24,11 +41,36 @@ import java.util.concurrent.locks.ReentrantLock;
     showAtFileInUsageHelp = true,
     description = "Applies access transformers to java source files.",
     sortOptions = false,
-    usageHelpAutoWidth = true)
+    usageHelpAutoWidth = true,
+    subcommands = {RestampDaemon.class, RestampCompileAccessTransformers.class})
 public class RestampCLI implements Callable<Integer> {
 
     public static void main(final String[] args) {
-        System.exit(new CommandLine(new RestampCLI()).execute(args));
+        System.exit(new CommandLine(new RestampCLI()).setCaseInsensitiveEnumValuesAllowed(true).execute(args));
+    }
+
+    private final RestampParserPool parserPool;
+    private final PrintStream out;
+    private final PrintStream err;
+    private final boolean inDaemon;
+
+    public RestampCLI() {
+        this(new RestampParserPool(), System.out, System.err, false);
+    }
+
+    /**
+     * Constructs a new restamp CLI.
+     *
+     * @param parserPool the pool of parsers used by the runs of this CLI.
+     * @param out        the stream the standard output is printed to.
+     * @param err        the stream the standard error is printed to.
+     * @param inDaemon   whether the CLI is executed by the daemon, in which case runs are never forwarded to a daemon.
+     */
+    RestampCLI(final RestampParserPool parserPool, final PrintStream out, final PrintStream err, final boolean inDaemon) {
+        this.parserPool = parserPool;
+        this.out = out;
+        this.err = err;
+        this.inDaemon = inDaemon;
     }
 
     @CommandLine.Option(names = {"-cp", "--classpath"}, split = ";", description = "The classpath needed to fully parse the input sources.")
@@ -37,41 +79,353 @@ public class RestampCLI implements Callable<Integer> {
     @CommandLine.Parameters(paramLabel = "<inputs>", description = "The list of source files to transform")
     List<Path> inputs;
 
-    @CommandLine.Option(names = {"--source-path"}, description = "The root path of the inputs.", required = true)
+    @CommandLine.Option(names = {"--source-path"}, description = "The root path of the inputs. Required unless running a batch.")
     Path sourcePath;
 
-    @CommandLine.Option(names = {"-at"}, description = "The path to the access transformers", required = true)
+    @CommandLine.Option(
+        names = {"-at"},
+        description = "The path to the access transformers, either in text or compiled format. Required unless running a batch."
+    )
     Path accessTransforms;
 
+    @CommandLine.Option(
+        names = {"--compiled-at"},
+        description = "The path of a compiled access transformer file the text access transformers are loaded via, compiled again only when they change."
+    )
+    Path compiledAccessTransforms;
+
+    @CommandLine.Option(names = {"--parser-threads"}, description = "The amount of threads used to parse the input sources.", defaultValue = "1")
+    int parserThreads;
+
+    @CommandLine.Option(names = {"--recipe-threads"}, description = "The amount of threads used to transform the input sources.", defaultValue = "1")
+    int recipeThreads;
+
+    @CommandLine.Option(names = {"--cache-dir"}, description = "The directory of the cache used to skip parsing source files untouched by previous runs.")
+    Path cacheDirectory;
+
+    @CommandLine.Option(names = {"--prefilter"}, description = "Skips parsing input sources that cannot contain a target of the access transformers.")
+    boolean prefilter;
+
+    @CommandLine.Option(names = {"--prune-classpath"}, description = "Parses input sources against the part of the classpath they import.")
+    boolean pruneClasspath;
+
+    @CommandLine.Option(names = {"--fast-apply"}, description = "Applies access transformers to input sources that need no type attribution without parsing them.")
+    boolean fastApply;
+
+    @CommandLine.Option(
+        names = {"--compiled-project"},
+        description = "The jar or directory of the compiled input sources, used to resolve methods that cannot be resolved via the classpath."
+    )
+    Path compiledProject;
+
+    @CommandLine.Option(names = {"--state-file"}, description = "Runs incrementally, skipping input sources unchanged since the run recorded in this file.")
+    Path runStateFile;
+
+    @CommandLine.Option(
+        names = {"--chunk-size"},
+        description = "If set, input sources are parsed and transformed in chunks of this size, bounding the memory used by restamp."
+    )
+    Integer chunkSize;
+
+    @CommandLine.Option(
+        names = {"--apply"},
+        description = "Writes the transformed input sources back to disk instead of printing their diffs."
+    )
+    boolean apply;
+
+    @CommandLine.Option(
+        names = {"--format"},
+        description = "The format the results are printed in unless applied, one of ${COMPLETION-CANDIDATES}. Defaults to ${DEFAULT-VALUE}.",
+        defaultValue = "diff"
+    )
+    RestampOutputFormat format;
+
+    @CommandLine.Option(
+        names = {"--diff-threads"},
+        description = "The amount of threads computing the diffs of the transformed input sources unless applied.",
+        defaultValue = "4"
+    )
+    int diffThreads;
+
+    @CommandLine.Option(
+        names = {"--write-threads"},
+        description = "The amount of threads writing transformed input sources back to disk in apply mode.",
+        defaultValue = "4"
+    )
+    int writeThreads;
+
+    @CommandLine.Option(
+        names = {"--watch"},
+        description = "Keeps running, re-applying the access transformers to the input sources affected by changes to the source path or the access transformers."
+    )
+    boolean watch;
+
+    @CommandLine.Option(
+        names = {"--watch-debounce"},
+        description = "The time in milliseconds without further changes after which a batch of changes is re-applied in watch mode.",
+        defaultValue = "200"
+    )
+    long watchDebounce;
+
+    @CommandLine.Option(
+        names = {"--batch"},
+        description = "The path to a json manifest of jobs, each applying access transformers to a source path, run in a single invocation."
+    )
+    Path batchManifest;
+
+    @CommandLine.Option(names = {"--batch-parallelism"}, description = "The amount of batch jobs run concurrently, overriding the manifest.")
+    Integer batchParallelism;
+
+    @CommandLine.Option(
+        names = {"--use-daemon"},
+        description = "Runs in the restamp daemon if one is running, falling back to running in-process otherwise."
+    )
+    boolean useDaemon;
+
+    @CommandLine.Option(names = {"--daemon-socket"}, description = "The path of the socket of the restamp daemon. Defaults to a per user socket in the temp directory.")
+    Path daemonSocket;
+
+    @CommandLine.Spec
+    CommandLine.Model.CommandSpec spec;
+
     @Override
     public Integer call() throws Exception {
+        if (useDaemon && !this.inDaemon) {
+            final Path socket = daemonSocket != null ? daemonSocket : RestampDaemonProtocol.defaultSocket();
+            final Integer exitCode = RestampClient.tryRun(socket, spec.commandLine().getParseResult().originalArgs(), this.out, this.err);
+            if (exitCode != null) return exitCode;
+        }
+
+        if (batchManifest != null) return this.batch();
+        if (sourcePath == null || accessTransforms == null) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Missing required options: '--source-path' and '-at'");
+        }
+
+        if (watch) return this.watch();
+
+        this.run(this.job(), runStateFile, cacheDirectory, this.out);
+        return 0;
+    }
+
+    private RestampJob job() {
+        return new RestampJob("restamp", sourcePath, accessTransforms, classpath, inputs, compiledProject);
+    }
+
+    /**
+     * Runs restamp once for the passed job with the configured options.
+     *
+     * @param job            the job to run.
+     * @param runStateFile   the run state file to use, or null if the run should not be incremental.
+     * @param cacheDirectory the cache directory to use, or null if no cache should be used.
+     * @param output         the stream the results of the run are printed to in the configured format, unused in apply mode.
+     *
+     * @return the amount of changed source files.
+     *
+     * @throws IOException if reading the access transformers or, in apply mode, writing the changed source files failed. In apply mode, the
+     *                     source files written before the failure are reported on the standard error.
+     */
+    private int run(final RestampJob job, final Path runStateFile, final Path cacheDirectory, final PrintStream output) throws IOException {
         final List<Throwable> exceptions = new ArrayList<>();
         final ReentrantLock lock = new ReentrantLock();
 
-        final RestampContextConfiguration configuration = RestampContextConfiguration.builder()
-            .accessTransformers(accessTransforms)
+        final RestampContextConfiguration.Builder configurationBuilder = RestampContextConfiguration.builder()
             .executionContext(new InMemoryExecutionContext(t -> {
                 lock.lock();
                 exceptions.add(t);
                 lock.unlock();
             }))
-            .sourceRoot(sourcePath)
-            .sourceFiles(inputs)
-            .classpath(classpath)
-            .sourceFilesFromAccessTransformers()
-            .build();
+            .sourceRoot(job.sourcePath())
+            .sourceFiles(job.inputs())
+            .classpath(job.classpath())
+            .parserThreads(parserThreads)
+            .recipeThreads(recipeThreads)
+            .sourceFilesFromAccessTransformers();
+        if (compiledAccessTransforms != null) {
+            configurationBuilder.accessTransformers(job.accessTransformers(), AccessTransformFormats.FML, compiledAccessTransforms);
+        } else {
+            configurationBuilder.accessTransformers(job.accessTransformers());
+        }
+        if (cacheDirectory != null) configurationBuilder.cacheDirectory(cacheDirectory);
+        if (prefilter) configurationBuilder.prefilterSourceFiles();
+        if (pruneClasspath) configurationBuilder.pruneClasspath();
+        if (fastApply) configurationBuilder.fastApply();
+        if (job.compiledProject() != null) configurationBuilder.compiledProject(job.compiledProject());
+        if (runStateFile != null) configurationBuilder.incremental(runStateFile);
+        final RestampContextConfiguration configuration = configurationBuilder.build();
 
-        final RestampInput inputs = RestampInput.parseFrom(configuration);
-        final Changeset outputs = Restamp.run(inputs);
+        final ResultWriter writer = apply ? new ResultWriter(job.sourcePath(), writeThreads) : null;
+        try (
+            writer;
+            final ResultDiffer differ = apply ? null : new ResultDiffer(diffThreads, (result, diff) -> format.print(result, diff, output))
+        ) {
+            final Consumer<Result> resultConsumer = writer != null ? writer::submit : differ::submit;
 
-        for (final Throwable exception : exceptions) {
-            throw new RuntimeException("Failed to run restamp", exception);
+            final AtomicInteger changed = new AtomicInteger();
+            final Consumer<Result> countingConsumer = result -> {
+                // Results are streamed, do not pass on any further result once restamp reported a failure, e.g. a parse error.
+                throwReportedExceptions(exceptions, lock);
+                resultConsumer.accept(result);
+                changed.incrementAndGet();
+            };
+            if (chunkSize != null) {
+                Restamp.runChunked(configuration, chunkSize, this.parserPool, countingConsumer);
+            } else {
+                final RestampInput input = RestampInput.parseFrom(configuration, this.parserPool);
+                throwReportedExceptions(exceptions, lock);
+                if (writer != null) {
+                    // Only write once the entire run succeeded, so that a failing run leaves the source files untouched.
+                    Restamp.run(input).getAllResults().forEach(countingConsumer);
+                } else {
+                    Restamp.run(input, countingConsumer);
+                }
+            }
+            throwReportedExceptions(exceptions, lock);
+
+            if (differ != null) differ.await();
+            if (writer != null) {
+                final ResultWriter.Summary summary = writer.await();
+                this.err.printf(
+                    "[%s] Wrote %d changed source files, %d were already up to date%n", job.name(), summary.written(), summary.unchanged()
+                );
+            }
+            return changed.get();
+        } catch (final IOException | RuntimeException e) {
+            // Closing the writer waited for all submitted writes, report them so that the partially applied run can be inspected.
+            if (writer != null && !writer.written().isEmpty()) {
+                this.err.printf("[%s] Failed after writing %d changed source files:%n", job.name(), writer.written().size());
+                for (final Path written : writer.written()) this.err.println("  " + written);
+            }
+            throw e;
         }
+    }
 
-        for (final Result result : outputs.getAllResults()) {
-            System.out.println(result.diff());
+    /**
+     * Throws the first exception reported to the execution context of a run, if any.
+     *
+     * @param exceptions the exceptions reported so far.
+     * @param lock       the lock guarding the reported exceptions.
+     */
+    private static void throwReportedExceptions(final List<Throwable> exceptions, final ReentrantLock lock) {
+        lock.lock();
+        try {
+            if (!exceptions.isEmpty()) throw new RuntimeException("Failed to run restamp", exceptions.getFirst());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs restamp incrementally for every debounced batch of changes to the source path or the access transformers until interrupted.
+     * The parsers and the run state are kept between runs, so that each run only parses and transforms the affected input sources.
+     * If no run state file or cache directory is configured, a temporary one is used for the lifetime of the watch.
+     *
+     * @return the exit code.
+     *
+     * @throws IOException if setting up the watch failed.
+     */
+    private int watch() throws IOException {
+        final Path workDirectory = Files.createTempDirectory("restamp-watch");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteRecursively(workDirectory)));
+        final Path effectiveRunStateFile = runStateFile != null ? runStateFile : workDirectory.resolve("restamp.state");
+        final Path effectiveCacheDirectory = cacheDirectory != null ? cacheDirectory : workDirectory.resolve("cache");
+
+        try (final RestampWatcher watcher = new RestampWatcher(sourcePath, accessTransforms, Duration.ofMillis(watchDebounce))) {
+            this.runWatched(effectiveRunStateFile, effectiveCacheDirectory);
+            while (!Thread.currentThread().isInterrupted()) {
+                final RestampWatcher.Batch batch = watcher.next();
+                this.err.printf(
+                    "Detected %d changed paths%s, re-applying access transformers%n",
+                    batch.changedFiles().size(), batch.accessTransformersChanged() ? " and changed access transformers" : ""
+                );
+                this.runWatched(effectiveRunStateFile, effectiveCacheDirectory);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
         return 0;
     }
 
+    private void runWatched(final Path runStateFile, final Path cacheDirectory) {
+        try {
+            this.run(this.job(), runStateFile, cacheDirectory, this.out);
+        } catch (final Exception e) {
+            // Keep watching, the next change may fix the failure.
+            this.err.println("Failed to run restamp: " + e);
+        }
+    }
+
+    /**
+     * Runs all jobs of the batch manifest, sharing the parsers and classpath indexes of common classpaths between the jobs.
+     * The result of each job is reported on the standard error, failed jobs do not prevent the remaining jobs from running.
+     *
+     * @return the exit code, non-zero if any job failed.
+     *
+     * @throws IOException          if reading the manifest failed.
+     * @throws InterruptedException if interrupted while waiting for the jobs to complete.
+     */
+    private int batch() throws IOException, InterruptedException {
+        if (runStateFile != null) throw new CommandLine.ParameterException(spec.commandLine(), "Cannot use a single state file for a batch");
+        if (compiledAccessTransforms != null) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Cannot use a single compiled access transformer file for a batch");
+        }
+
+        final RestampBatch batch = RestampBatch.read(batchManifest);
+        final List<RestampBatch.ResolvedJob> jobs = batch.resolve(batchManifest);
+        final int parallelism = batchParallelism != null ? batchParallelism : batch.parallelism() != null ? batch.parallelism() : 1;
+        if (parallelism < 1) throw new CommandLine.ParameterException(spec.commandLine(), "Cannot run batch with parallelism " + parallelism);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, jobs.size()));
+        try {
+            final List<Future<?>> futures = new ArrayList<>(jobs.size());
+            for (final RestampBatch.ResolvedJob job : jobs) futures.add(executor.submit(() -> this.runBatchJob(job)));
+
+            int failed = 0;
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (final ExecutionException e) {
+                    failed++;
+                    this.err.println("[" + jobs.get(i).job().name() + "] FAILED: " + e.getCause());
+                }
+            }
+            this.err.printf("Completed %d of %d batch jobs%n", jobs.size() - failed, jobs.size());
+            return failed == 0 ? 0 : 1;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Void runBatchJob(final RestampBatch.ResolvedJob resolvedJob) throws IOException {
+        final RestampJob job = resolvedJob.job();
+        final long start = System.nanoTime();
+
+        final int changed;
+        if (resolvedJob.output() != null) {
+            if (resolvedJob.output().getParent() != null) Files.createDirectories(resolvedJob.output().getParent());
+            try (final PrintStream output = new PrintStream(Files.newOutputStream(resolvedJob.output()), false, StandardCharsets.UTF_8)) {
+                changed = this.run(job, null, cacheDirectory, output);
+            }
+        } else {
+            // Buffer the diffs, so that concurrently running jobs do not interleave their output.
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (final PrintStream output = new PrintStream(buffer, false, StandardCharsets.UTF_8)) {
+                changed = this.run(job, null, cacheDirectory, output);
+            }
+            synchronized (this.out) {
+                this.out.print(buffer.toString(StandardCharsets.UTF_8));
+            }
+        }
+
+        this.err.printf("[%s] OK, %d changed source files in %d ms%n", job.name(), changed, (System.nanoTime() - start) / 1_000_000);
+        return null;
+    }
+
+    private static void deleteRecursively(final Path root) {
+        try (final Stream<Path> files = Files.walk(root)) {
+            for (final Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.deleteIfExists(file);
+        } catch (final IOException ignored) {
+            // Best effort cleanup of a temporary directory.
+        }
+    }
+
 }
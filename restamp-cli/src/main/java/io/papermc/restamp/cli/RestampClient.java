@@ -0,0 +1,102 @@
+package io.papermc.restamp.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The restamp client is the thin client of the {@link RestampDaemon}, forwarding runs to a running daemon.
+ */
+final class RestampClient {
+
+    private RestampClient() {
+    }
+
+    /**
+     * Tries to execute a run with the passed arguments in the daemon listening on the passed socket.
+     *
+     * @param socket the path of the socket the daemon listens on.
+     * @param args   the command line arguments of the run.
+     * @param out    the stream the standard output of the run is printed to.
+     * @param err    the stream the standard error of the run is printed to.
+     *
+     * @return the exit code of the run or null if no daemon accepted the run, in which case nothing was printed.
+     */
+    static Integer tryRun(final Path socket, final List<String> args, final PrintStream out, final PrintStream err) {
+        final SocketChannel connection = connect(socket);
+        if (connection == null) return null;
+
+        try (
+            connection;
+            final BufferedReader reader = new BufferedReader(Channels.newReader(connection, StandardCharsets.UTF_8));
+            final Writer writer = Channels.newWriter(connection, StandardCharsets.UTF_8)
+        ) {
+            RestampDaemonProtocol.write(writer, new RestampDaemonProtocol.Request(
+                RestampDaemonProtocol.RUN, args, Path.of("").toAbsolutePath().toString()
+            ));
+            while (true) {
+                final RestampDaemonProtocol.Frame frame = RestampDaemonProtocol.read(reader, RestampDaemonProtocol.Frame.class);
+                switch (frame.type()) {
+                    case RestampDaemonProtocol.OUT -> out.print(frame.data());
+                    case RestampDaemonProtocol.ERR -> err.print(frame.data());
+                    case RestampDaemonProtocol.EXIT -> {
+                        return frame.code();
+                    }
+                    default -> throw new IOException("Unknown frame type " + frame.type());
+                }
+            }
+        } catch (final IOException e) {
+            err.println("Lost connection to restamp daemon: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Queries the health of the daemon listening on the passed socket.
+     *
+     * @param socket the path of the socket the daemon listens on.
+     *
+     * @return the health of the daemon or null if no daemon is listening on the socket.
+     */
+    static RestampDaemonProtocol.Health health(final Path socket) {
+        final SocketChannel connection = connect(socket);
+        if (connection == null) return null;
+
+        try (
+            connection;
+            final BufferedReader reader = new BufferedReader(Channels.newReader(connection, StandardCharsets.UTF_8));
+            final Writer writer = Channels.newWriter(connection, StandardCharsets.UTF_8)
+        ) {
+            RestampDaemonProtocol.write(writer, new RestampDaemonProtocol.Request(RestampDaemonProtocol.HEALTH, List.of(), null));
+            return RestampDaemonProtocol.read(reader, RestampDaemonProtocol.Health.class);
+        } catch (final IOException e) {
+            return null;
+        }
+    }
+
+    private static SocketChannel connect(final Path socket) {
+        if (!Files.exists(socket)) return null;
+        try {
+            final SocketChannel connection = SocketChannel.open(StandardProtocolFamily.UNIX);
+            try {
+                connection.connect(UnixDomainSocketAddress.of(socket));
+                return connection;
+            } catch (final IOException e) {
+                connection.close();
+                return null;
+            }
+        } catch (final IOException e) {
+            return null;
+        }
+    }
+
+}
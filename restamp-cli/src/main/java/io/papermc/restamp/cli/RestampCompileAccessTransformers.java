@@ -0,0 +1,38 @@
+package io.papermc.restamp.cli;
+
+import io.papermc.restamp.at.CompiledAccessTransformers;
+import org.cadixdev.at.io.AccessTransformFormats;
+import picocli.CommandLine;
+
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+
+/**
+ * The compile access transformers command compiles an access transformer file into the binary format of {@link CompiledAccessTransformers},
+ * which restamp loads without parsing when passed via {@code -at}.
+ * <p>
+ * The compiled file records the hash of the access transformer file it was compiled from, an unchanged access transformer file is hence not
+ * compiled again.
+ */
+@CommandLine.Command(
+    name = "compile-at",
+    mixinStandardHelpOptions = true,
+    description = "Compiles an access transformer file into the binary format restamp loads without parsing.",
+    usageHelpAutoWidth = true)
+public class RestampCompileAccessTransformers implements Callable<Integer> {
+
+    @CommandLine.Parameters(index = "0", paramLabel = "<at>", description = "The path to the access transformer file to compile.")
+    Path accessTransforms;
+
+    @CommandLine.Option(names = {"-o", "--output"}, description = "The path of the compiled file. Defaults to the access transformer path with a .atc extension.")
+    Path output;
+
+    @Override
+    public Integer call() throws Exception {
+        final Path effectiveOutput = output != null ? output : accessTransforms.resolveSibling(accessTransforms.getFileName() + "c");
+        final boolean compiled = CompiledAccessTransformers.compile(accessTransforms, AccessTransformFormats.FML, effectiveOutput);
+        System.err.println((compiled ? "Compiled " : "Reused unchanged ") + effectiveOutput);
+        return 0;
+    }
+
+}
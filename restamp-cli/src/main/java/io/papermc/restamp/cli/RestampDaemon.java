@@ -0,0 +1,145 @@
+package io.papermc.restamp.cli;
+
+import io.papermc.restamp.RestampParserPool;
+import picocli.CommandLine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The restamp daemon keeps a JVM with warm parsers and classpath indexes running and executes CLI runs requested over a local Unix domain
+ * socket, saving clients the startup of the JVM and the rewrite and javac stack.
+ * <p>
+ * Each connection carries a single request. Runs are executed concurrently, each with its own output streamed back to the requesting client.
+ */
+@CommandLine.Command(
+    name = "daemon",
+    mixinStandardHelpOptions = true,
+    description = "Runs restamp as a daemon, executing runs requested by clients over a local socket.",
+    usageHelpAutoWidth = true)
+public class RestampDaemon implements Callable<Integer> {
+
+    @CommandLine.Option(names = {"--socket"}, description = "The path of the socket the daemon listens on. Defaults to a per user socket in the temp directory.")
+    Path socket;
+
+    @CommandLine.Option(names = {"--health"}, description = "Prints the health and throughput counters of the running daemon instead of starting one.")
+    boolean health;
+
+    private final RestampParserPool parserPool = new RestampParserPool();
+    private final long startTime = System.currentTimeMillis();
+    private final AtomicLong activeRequests = new AtomicLong();
+    private final AtomicLong completedRequests = new AtomicLong();
+    private final AtomicLong failedRequests = new AtomicLong();
+    private final AtomicLong totalRunMillis = new AtomicLong();
+
+    @Override
+    public Integer call() throws Exception {
+        final Path effectiveSocket = socket != null ? socket : RestampDaemonProtocol.defaultSocket();
+        if (health) {
+            final RestampDaemonProtocol.Health daemonHealth = RestampClient.health(effectiveSocket);
+            if (daemonHealth == null) {
+                System.err.println("No restamp daemon is listening on " + effectiveSocket);
+                return 1;
+            }
+            System.out.println(daemonHealth);
+            return 0;
+        }
+
+        // A socket file left behind by a daemon that did not shut down cleanly prevents binding.
+        if (RestampClient.health(effectiveSocket) != null) {
+            System.err.println("A restamp daemon is already listening on " + effectiveSocket);
+            return 1;
+        }
+        Files.deleteIfExists(effectiveSocket);
+
+        try (
+            final ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()
+        ) {
+            server.bind(UnixDomainSocketAddress.of(effectiveSocket));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    Files.deleteIfExists(effectiveSocket);
+                } catch (final IOException ignored) {
+                    // Best effort cleanup, a stale socket is replaced by the next daemon.
+                }
+            }));
+            System.err.println("Restamp daemon listening on " + effectiveSocket);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                final SocketChannel connection = server.accept();
+                executor.submit(() -> this.handle(connection));
+            }
+        } finally {
+            Files.deleteIfExists(effectiveSocket);
+        }
+        return 0;
+    }
+
+    private Void handle(final SocketChannel connection) throws IOException {
+        try (
+            connection;
+            final BufferedReader reader = new BufferedReader(Channels.newReader(connection, StandardCharsets.UTF_8));
+            final Writer writer = Channels.newWriter(connection, StandardCharsets.UTF_8)
+        ) {
+            final RestampDaemonProtocol.Request request = RestampDaemonProtocol.read(reader, RestampDaemonProtocol.Request.class);
+            if (RestampDaemonProtocol.HEALTH.equals(request.type())) {
+                RestampDaemonProtocol.write(writer, this.health());
+                return null;
+            }
+            if (!RestampDaemonProtocol.RUN.equals(request.type())) throw new IOException("Unknown request type " + request.type());
+
+            this.activeRequests.incrementAndGet();
+            final long start = System.currentTimeMillis();
+            int exitCode = 1;
+            try (
+                final PrintStream out = new PrintStream(new RestampDaemonProtocol.FrameOutputStream(writer, RestampDaemonProtocol.OUT), true, StandardCharsets.UTF_8);
+                final PrintStream err = new PrintStream(new RestampDaemonProtocol.FrameOutputStream(writer, RestampDaemonProtocol.ERR), true, StandardCharsets.UTF_8)
+            ) {
+                final Path workingDirectory = Path.of(request.workingDirectory());
+                final CommandLine commandLine = new CommandLine(new RestampCLI(this.parserPool, out, err, true))
+                    .registerConverter(Path.class, workingDirectory::resolve)
+                    .setCaseInsensitiveEnumValuesAllowed(true)
+                    .setOut(new PrintWriter(out, true))
+                    .setErr(new PrintWriter(err, true));
+                exitCode = commandLine.execute(request.args().toArray(String[]::new));
+            } finally {
+                this.activeRequests.decrementAndGet();
+                this.completedRequests.incrementAndGet();
+                if (exitCode != 0) this.failedRequests.incrementAndGet();
+                this.totalRunMillis.addAndGet(System.currentTimeMillis() - start);
+            }
+            RestampDaemonProtocol.write(writer, new RestampDaemonProtocol.Frame(RestampDaemonProtocol.EXIT, null, exitCode));
+        }
+        return null;
+    }
+
+    private RestampDaemonProtocol.Health health() {
+        final long uptimeMillis = System.currentTimeMillis() - this.startTime;
+        final long completed = this.completedRequests.get();
+        return new RestampDaemonProtocol.Health(
+            uptimeMillis,
+            this.activeRequests.get(),
+            completed,
+            this.failedRequests.get(),
+            this.totalRunMillis.get(),
+            completed * 60_000d / Math.max(1, uptimeMillis)
+        );
+    }
+
+}
@@ -0,0 +1,128 @@
+package io.papermc.restamp.cli;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The restamp daemon protocol defines the messages exchanged between the restamp daemon and its clients over a local socket.
+ * <p>
+ * Each message is a single line of json. A client sends a single {@link Request} per connection, to which the daemon answers with a stream
+ * of {@link Frame}s, e.g. the standard output and error of the run, terminated by an {@link #EXIT} frame holding the exit code of the run.
+ * A {@link #HEALTH} request is answered by a single {@link Health} message instead.
+ */
+final class RestampDaemonProtocol {
+
+    static final String RUN = "run";
+    static final String HEALTH = "health";
+    static final String OUT = "out";
+    static final String ERR = "err";
+    static final String EXIT = "exit";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private RestampDaemonProtocol() {
+    }
+
+    /**
+     * A request of a client.
+     *
+     * @param type             the type of the request, either {@link #RUN} or {@link #HEALTH}.
+     * @param args             the command line arguments of the run.
+     * @param workingDirectory the working directory of the client, against which relative paths in the arguments are resolved.
+     */
+    record Request(String type, List<String> args, String workingDirectory) {
+
+    }
+
+    /**
+     * A frame of the response to a run request.
+     *
+     * @param type the type of the frame, either {@link #OUT}, {@link #ERR} or {@link #EXIT}.
+     * @param data the printed text of output frames.
+     * @param code the exit code of exit frames.
+     */
+    record Frame(String type, String data, Integer code) {
+
+    }
+
+    /**
+     * The response to a health request.
+     *
+     * @param uptimeMillis        the time in milliseconds since the daemon started.
+     * @param activeRequests      the amount of runs currently executing.
+     * @param completedRequests   the amount of runs completed since the daemon started.
+     * @param failedRequests      the amount of completed runs that exited with a non-zero exit code.
+     * @param totalRunMillis      the total time in milliseconds spent executing completed runs.
+     * @param requestsPerMinute   the amount of completed runs per minute of uptime.
+     */
+    record Health(long uptimeMillis, long activeRequests, long completedRequests, long failedRequests, long totalRunMillis, double requestsPerMinute) {
+
+    }
+
+    /**
+     * Resolves the default path of the socket the daemon listens on, unique per user.
+     *
+     * @return the default socket path.
+     */
+    static Path defaultSocket() {
+        return Path.of(System.getProperty("java.io.tmpdir"), "restamp-" + System.getProperty("user.name") + ".sock");
+    }
+
+    static void write(final Writer writer, final Object message) throws IOException {
+        synchronized (writer) {
+            writer.write(MAPPER.writeValueAsString(message));
+            writer.write('\n');
+            writer.flush();
+        }
+    }
+
+    static <T> T read(final BufferedReader reader, final Class<T> type) throws IOException {
+        final String line = reader.readLine();
+        if (line == null) throw new IOException("Connection closed before a " + type.getSimpleName() + " was received");
+        return MAPPER.readValue(line, type);
+    }
+
+    /**
+     * An output stream sending everything written to it as frames of the passed type.
+     * Frames are sent on every line break and flush, so that the client receives output as it is printed.
+     */
+    static final class FrameOutputStream extends OutputStream {
+
+        private final Writer writer;
+        private final String type;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        FrameOutputStream(final Writer writer, final String type) {
+            this.writer = writer;
+            this.type = type;
+        }
+
+        @Override
+        public synchronized void write(final int b) throws IOException {
+            this.buffer.write(b);
+            if (b == '\n') this.flush();
+        }
+
+        @Override
+        public synchronized void flush() throws IOException {
+            if (this.buffer.size() == 0) return;
+            final String data = this.buffer.toString(StandardCharsets.UTF_8);
+            this.buffer.reset();
+            write(this.writer, new Frame(this.type, data, null));
+        }
+
+    }
+
+}
@@ -0,0 +1,18 @@
+package io.papermc.restamp.cli;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A single job of the CLI, applying one set of access transformers to one source root.
+ *
+ * @param name               the name of the job, used when reporting its results.
+ * @param sourcePath         the root path of the inputs.
+ * @param accessTransformers the path to the access transformers.
+ * @param classpath          the classpath needed to fully parse the input sources, or null if none is needed.
+ * @param inputs             the source files to transform, or null if they should be computed from the access transformers.
+ * @param compiledProject    the jar or directory of the compiled input sources, or null if methods are resolved via the classpath only.
+ */
+record RestampJob(String name, Path sourcePath, Path accessTransformers, List<Path> classpath, List<Path> inputs, Path compiledProject) {
+
+}
@@ -0,0 +1,66 @@
+package io.papermc.restamp.cli;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+
+/**
+ * The formats the results of a run are printed in by the CLI.
+ * Each result is printed as soon as restamp passes it on, so that consumers of the output can process the results of a run while it is
+ * still transforming the remaining source files.
+ */
+enum RestampOutputFormat {
+
+    /**
+     * Prints the unified diff of every changed source file.
+     */
+    DIFF {
+        @Override
+        void print(final Result result, final String diff, final PrintStream output) {
+            output.println(diff);
+        }
+    },
+
+    /**
+     * Prints a single line of json per changed source file, holding its source path and unified diff.
+     */
+    JSONL {
+        @Override
+        void print(final Result result, final String diff, final PrintStream output) {
+            final SourceFile sourceFile = result.getAfter() != null ? result.getAfter() : result.getBefore();
+            try {
+                output.println(MAPPER.writeValueAsString(new Record(sourceFile.getSourcePath().toString(), diff)));
+            } catch (final JsonProcessingException e) {
+                throw new UncheckedIOException("Failed to serialize result of " + sourceFile.getSourcePath(), e);
+            }
+            // Downstream tools may process the record right away.
+            output.flush();
+        }
+    };
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Prints the passed result in this format.
+     *
+     * @param result the result of a changed source file.
+     * @param diff   the unified diff of the result.
+     * @param output the stream to print the result to.
+     */
+    abstract void print(Result result, String diff, PrintStream output);
+
+    /**
+     * A single record of the {@link #JSONL} format.
+     *
+     * @param path the source path of the changed source file, relative to the source root.
+     * @param diff the unified diff of the changed source file.
+     */
+    record Record(String path, String diff) {
+
+    }
+
+}
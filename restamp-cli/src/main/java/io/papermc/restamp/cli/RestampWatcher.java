@@ -0,0 +1,110 @@
+package io.papermc.restamp.cli;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The restamp watcher watches the source root and the access transformer file for changes and reports them in debounced batches.
+ * <p>
+ * A batch is reported once no further change was observed for the debounce duration, so that saving many files at once, e.g. via a
+ * save-all in an IDE, results in a single batch. The batch only describes what triggered it; the incremental run started for a batch finds
+ * the affected source files by their content, so that events lost by the watch service do not lead to stale results.
+ */
+final class RestampWatcher implements AutoCloseable {
+
+    private final Path sourceRoot;
+    private final Path accessTransformerFile;
+    private final Duration debounce;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+
+    /**
+     * A debounced batch of changes.
+     *
+     * @param changedFiles              the changed files and directories below the source root.
+     * @param accessTransformersChanged whether the access transformer file changed.
+     */
+    record Batch(Set<Path> changedFiles, boolean accessTransformersChanged) {
+
+    }
+
+    RestampWatcher(final Path sourceRoot, final Path accessTransformerFile, final Duration debounce) throws IOException {
+        this.sourceRoot = sourceRoot.toAbsolutePath().normalize();
+        this.accessTransformerFile = accessTransformerFile.toAbsolutePath().normalize();
+        this.debounce = debounce;
+        this.watchService = FileSystems.getDefault().newWatchService();
+
+        this.registerRecursively(this.sourceRoot);
+        final Path accessTransformerDirectory = this.accessTransformerFile.getParent();
+        if (!this.watchedDirectories.containsValue(accessTransformerDirectory)) this.register(accessTransformerDirectory);
+    }
+
+    /**
+     * Blocks until the next debounced batch of changes is observed.
+     *
+     * @return the batch of changes.
+     *
+     * @throws IOException          if registering a newly created directory failed.
+     * @throws InterruptedException if the thread was interrupted while waiting for changes.
+     */
+    Batch next() throws IOException, InterruptedException {
+        final Set<Path> changedFiles = new LinkedHashSet<>();
+        boolean accessTransformersChanged = false;
+
+        WatchKey key = this.watchService.take();
+        while (key != null) {
+            final Path directory = this.watchedDirectories.get(key);
+            for (final WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) continue;
+
+                final Path changed = directory.resolve((Path) event.context());
+                if (changed.equals(this.accessTransformerFile)) {
+                    accessTransformersChanged = true;
+                } else if (changed.startsWith(this.sourceRoot)) {
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(changed)) this.registerRecursively(changed);
+                    changedFiles.add(changed);
+                }
+            }
+            if (!key.reset()) this.watchedDirectories.remove(key);
+
+            // Keep collecting until no change was observed for the debounce duration.
+            key = this.watchService.poll(this.debounce.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        return new Batch(changedFiles, accessTransformersChanged);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.watchService.close();
+    }
+
+    private void registerRecursively(final Path root) throws IOException {
+        try (final Stream<Path> directories = Files.walk(root)) {
+            for (final Path directory : (Iterable<Path>) directories.filter(Files::isDirectory)::iterator) this.register(directory);
+        }
+    }
+
+    private void register(final Path directory) throws IOException {
+        this.watchedDirectories.put(directory.register(
+            this.watchService,
+            StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY,
+            StandardWatchEventKinds.ENTRY_DELETE
+        ), directory);
+    }
+
+}
@@ -0,0 +1,82 @@
+package io.papermc.restamp.cli;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class RestampBatchTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testReadAndResolve() throws IOException {
+        final Path manifest = this.writeManifest("""
+            {
+              "parallelism": 2,
+              "unknown": true,
+              "jobs": [
+                {
+                  "name": "paper",
+                  "sourcePath": "paper/src/main/java",
+                  "accessTransformers": "paper/paper.at",
+                  "classpath": ["libs/paper.jar"],
+                  "inputs": ["paper/src/main/java/Test.java"],
+                  "compiledProject": "paper/build/libs/paper.jar",
+                  "output": "out/paper.diff"
+                },
+                {
+                  "sourcePath": "api/src/main/java",
+                  "accessTransformers": "api/api.at",
+                  "inputs": []
+                }
+              ]
+            }
+            """);
+
+        final RestampBatch batch = RestampBatch.read(manifest);
+        Assertions.assertEquals(2, batch.parallelism());
+
+        final List<RestampBatch.ResolvedJob> jobs = batch.resolve(manifest);
+        Assertions.assertEquals(2, jobs.size());
+        Assertions.assertEquals(new RestampBatch.ResolvedJob(
+            new RestampJob(
+                "paper",
+                this.directory.resolve("paper/src/main/java"),
+                this.directory.resolve("paper/paper.at"),
+                List.of(this.directory.resolve("libs/paper.jar")),
+                List.of(this.directory.resolve("paper/src/main/java/Test.java")),
+                this.directory.resolve("paper/build/libs/paper.jar")
+            ),
+            this.directory.resolve("out/paper.diff")
+        ), jobs.get(0));
+
+        // Optional values default to a generated name, an empty classpath and inputs computed from the access transformers.
+        Assertions.assertEquals(new RestampBatch.ResolvedJob(
+            new RestampJob("job-1", this.directory.resolve("api/src/main/java"), this.directory.resolve("api/api.at"), List.of(), null, null),
+            null
+        ), jobs.get(1));
+    }
+
+    @Test
+    public void testRejectsIncompleteManifests() throws IOException {
+        final Path empty = this.writeManifest("{ \"jobs\": [] }");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RestampBatch.read(empty));
+
+        final Path missingAccessTransformers = this.writeManifest("{ \"jobs\": [ { \"sourcePath\": \"src\" } ] }");
+        final RestampBatch batch = RestampBatch.read(missingAccessTransformers);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> batch.resolve(missingAccessTransformers));
+    }
+
+    private Path writeManifest(final String content) throws IOException {
+        final Path manifest = Files.createTempFile(this.directory, "batch", ".json");
+        Files.writeString(manifest, content);
+        return manifest;
+    }
+
+}
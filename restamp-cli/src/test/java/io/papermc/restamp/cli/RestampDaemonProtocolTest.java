@@ -0,0 +1,59 @@
+package io.papermc.restamp.cli;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+class RestampDaemonProtocolTest {
+
+    @Test
+    public void testMessagesRoundTrip() throws IOException {
+        final RestampDaemonProtocol.Request request = new RestampDaemonProtocol.Request(
+            RestampDaemonProtocol.RUN, List.of("--input", "src/main/java", "--output-format", "jsonl"), "/home/user/project"
+        );
+        final RestampDaemonProtocol.Frame outFrame = new RestampDaemonProtocol.Frame(RestampDaemonProtocol.OUT, "line\n", null);
+        final RestampDaemonProtocol.Frame exitFrame = new RestampDaemonProtocol.Frame(RestampDaemonProtocol.EXIT, null, 2);
+
+        final StringWriter writer = new StringWriter();
+        RestampDaemonProtocol.write(writer, request);
+        RestampDaemonProtocol.write(writer, outFrame);
+        RestampDaemonProtocol.write(writer, exitFrame);
+
+        // Every message is a single line, even if it holds line breaks.
+        Assertions.assertEquals(3, writer.toString().lines().count());
+
+        final BufferedReader reader = new BufferedReader(new StringReader(writer.toString()));
+        Assertions.assertEquals(request, RestampDaemonProtocol.read(reader, RestampDaemonProtocol.Request.class));
+        Assertions.assertEquals(outFrame, RestampDaemonProtocol.read(reader, RestampDaemonProtocol.Frame.class));
+        Assertions.assertEquals(exitFrame, RestampDaemonProtocol.read(reader, RestampDaemonProtocol.Frame.class));
+        Assertions.assertThrows(IOException.class, () -> RestampDaemonProtocol.read(reader, RestampDaemonProtocol.Frame.class));
+    }
+
+    @Test
+    public void testFrameOutputStreamFramesLinesAndFlushes() throws IOException {
+        final StringWriter writer = new StringWriter();
+        final RestampDaemonProtocol.FrameOutputStream outputStream = new RestampDaemonProtocol.FrameOutputStream(writer, RestampDaemonProtocol.ERR);
+
+        outputStream.write("first\nsecond".getBytes(StandardCharsets.UTF_8));
+        outputStream.flush();
+        outputStream.flush(); // Nothing buffered, no frame is sent.
+
+        final BufferedReader reader = new BufferedReader(new StringReader(writer.toString()));
+        Assertions.assertEquals(
+            new RestampDaemonProtocol.Frame(RestampDaemonProtocol.ERR, "first\n", null),
+            RestampDaemonProtocol.read(reader, RestampDaemonProtocol.Frame.class)
+        );
+        Assertions.assertEquals(
+            new RestampDaemonProtocol.Frame(RestampDaemonProtocol.ERR, "second", null),
+            RestampDaemonProtocol.read(reader, RestampDaemonProtocol.Frame.class)
+        );
+        Assertions.assertNull(reader.readLine());
+    }
+
+}
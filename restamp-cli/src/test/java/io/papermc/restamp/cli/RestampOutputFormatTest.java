@@ -0,0 +1,36 @@
+package io.papermc.restamp.cli;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.Result;
+import org.openrewrite.text.PlainText;
+import org.openrewrite.text.PlainTextParser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+class RestampOutputFormatTest {
+
+    @Test
+    public void testJsonlRecord() throws IOException {
+        final PlainText before = (PlainText) PlainTextParser.builder().build().parse("private int field;").findFirst().orElseThrow();
+        final Result result = new Result(before, before.withText("public int field;"), List.of());
+        final String diff = "-private int field;\n+public int field;\n";
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        RestampOutputFormat.JSONL.print(result, diff, new PrintStream(output, false, StandardCharsets.UTF_8));
+
+        // A single line per result, holding the source path and the diff.
+        final List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        Assertions.assertEquals(1, lines.size());
+        Assertions.assertEquals(
+            new RestampOutputFormat.Record(before.getSourcePath().toString(), diff),
+            new ObjectMapper().readValue(lines.getFirst(), RestampOutputFormat.Record.class)
+        );
+    }
+
+}
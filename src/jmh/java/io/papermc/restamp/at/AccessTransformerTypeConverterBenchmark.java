@@ -0,0 +1,88 @@
+package io.papermc.restamp.at;
+
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.jspecify.annotations.NullMarked;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the conversion of the method types of a parsed class to method signatures, as done for every method declaration visited by the
+ * {@link io.papermc.restamp.recipe.ATMutator}.
+ * <p>
+ * Run with {@code ./gradlew jmh}, the gc profiler reports the allocation rate per operation with and without memoization.
+ */
+@NullMarked
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccessTransformerTypeConverterBenchmark {
+
+    private static final String SOURCE = """
+        package io.papermc.bench;
+
+        import java.util.List;
+        import java.util.Map;
+        import java.util.Set;
+
+        public class Bench<T> {
+            public Bench(int value, String name) {}
+            public String name() { return ""; }
+            public int size(List<String> values) { return 0; }
+            public void put(Map<String, Integer> map, String key, int value) {}
+            public boolean contains(Set<T> set, T value) { return false; }
+            public String[] split(String value, char separator) { return null; }
+            public long sum(int[][] values, long start) { return 0; }
+            public void accept(Object value, double weight, float scale) {}
+            public List<String> copy(List<String> values, boolean deep) { return values; }
+        }
+        """;
+
+    @Param({"4096", "0"})
+    public int cacheSize;
+
+    private List<JavaType.Method> methodTypes = List.of();
+    private AccessTransformerTypeConverter converter = new AccessTransformerTypeConverter();
+
+    @Setup
+    public void setup() {
+        final J.CompilationUnit compilationUnit = JavaParser.fromJavaVersion().build().parse(SOURCE)
+            .map(J.CompilationUnit.class::cast)
+            .findFirst()
+            .orElseThrow();
+        this.methodTypes = compilationUnit.getClasses().getFirst().getBody().getStatements().stream()
+            .filter(J.MethodDeclaration.class::isInstance)
+            .map(s -> ((J.MethodDeclaration) s).getMethodType())
+            .filter(Objects::nonNull)
+            .toList();
+        this.converter = new AccessTransformerTypeConverter(this.cacheSize);
+    }
+
+    @Benchmark
+    public void convertSignatures(final Blackhole blackhole) {
+        for (final JavaType.Method methodType : this.methodTypes) {
+            final MethodSignature signature = this.converter.convert(methodType);
+            blackhole.consume(signature);
+        }
+    }
+
+}
@@ -1,21 +1,45 @@
 package io.papermc.restamp;
 
 import io.papermc.restamp.at.AccessTransformerTypeConverter;
+import io.papermc.restamp.at.ConsumptionLedger;
+import io.papermc.restamp.at.IndexedAccessTransformSet;
 import io.papermc.restamp.at.ModifierTransformer;
-import io.papermc.restamp.recipe.ClassATMutator;
-import io.papermc.restamp.recipe.FieldATMutator;
-import io.papermc.restamp.recipe.MethodATMutator;
-import org.cadixdev.at.AccessTransform;
-import org.cadixdev.at.AccessTransformSet;
-import org.cadixdev.bombe.type.signature.MethodSignature;
+import io.papermc.restamp.bytecode.BytecodeIndex;
+import io.papermc.restamp.incremental.RunState;
+import io.papermc.restamp.parser.ClasspathIndex;
+import io.papermc.restamp.parser.SourceFileCache;
+import io.papermc.restamp.parser.SourceParser;
+import io.papermc.restamp.recipe.ATMutator;
+import io.papermc.restamp.recipe.FastATMutator;
+import io.papermc.restamp.utils.TypeHelper;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 import org.openrewrite.Changeset;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
 import org.openrewrite.config.CompositeRecipe;
 import org.openrewrite.internal.InMemoryLargeSourceSet;
+import org.openrewrite.java.tree.J;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * The main executor of restamp.
@@ -23,6 +47,12 @@ import java.util.stream.Collectors;
 @NullMarked
 public class Restamp {
 
+    /**
+     * The maximum amount of source files transformed by a single recipe run, bounding the delay until the results of a partition are passed
+     * on.
+     */
+    private static final int PARTITION_SIZE = 32;
+
     /**
      * Executes restamp given the provided restamp input.
      *
@@ -31,39 +61,368 @@ public class Restamp {
      * @return the computed changeset.
      */
     public static Changeset run(final RestampInput input) {
+        final List<Result> results = new ArrayList<>();
+        run(input, results::add);
+        return new ResultChangeset(results);
+    }
+
+    /**
+     * Executes restamp given the provided restamp input, passing the result of each changed source file to the result consumer as soon as
+     * the partition of source files it belongs to is transformed instead of computing the changeset of all source files first.
+     * <p>
+     * The result consumer is only called on the calling thread, with the results ordered like the sources of the input independent of the
+     * amount of recipe threads. Restamp holds no reference to a result after passing it to the consumer, so that consumers writing the
+     * results elsewhere run with a bounded amount of results held in memory.
+     * <p>
+     * As results are passed on while the run is still in progress, a failing run, e.g. one that could not apply all access transformers or
+     * whose execution context reported errors, may already have passed on some of its results. Consumers that must not act on the results
+     * of a failing run, e.g. by writing them to disk, have to buffer them until this method returns, which {@link #run(RestampInput)} does.
+     *
+     * @param input          the input to restamp.
+     * @param resultConsumer the consumer of the result of each changed source file.
+     *
+     * @throws IllegalStateException if the input requires all access transformers to be applied and some could not be.
+     */
+    public static void run(final RestampInput input, final Consumer<Result> resultConsumer) {
+        final ConsumptionLedger ledger = new ConsumptionLedger(input.indexedAccessTransformers());
+        final Recipe recipe = createRecipe(ledger, input.bytecodeIndex());
+
+        final Set<Path> changedSources;
+        try (final @Nullable ExecutorService executor = createRecipeExecutor(input.recipeThreads())) {
+            changedSources = runChunk(recipe, input.sources(), input.executionContext(), executor, input.recipeThreads(), resultConsumer);
+        }
+
+        final SourceFileCache.@Nullable Session cacheSession = input.cacheSession();
+        if (cacheSession != null) {
+            recordUntouchedSources(cacheSession, input.sources(), input.indexedAccessTransformers(), changedSources);
+            closeCacheSession(cacheSession);
+        }
+
+        final RunState.@Nullable Session runStateSession = input.runStateSession();
+        if (runStateSession != null) {
+            recordRunState(runStateSession, input.sources(), ledger, changedSources);
+            completeRunState(runStateSession, ledger);
+        }
+
+        verifyAccessTransformersConsumed(ledger, input.failWithNotApplicableAccessTransformers());
+    }
+
+    /**
+     * Executes restamp on the source files defined by the passed context configuration in chunks of a bounded size.
+     * <p>
+     * Each chunk of source files is parsed, transformed and its results are passed to the result consumer before the next chunk is parsed.
+     * Restamp holds no reference to the source files of a chunk after its results were consumed, so that the memory needed by a run depends on
+     * the chunk size instead of the size of the entire source set.
+     * <p>
+     * All chunks are transformed by the same recipe instance, so that access transformers consumed by one chunk are tracked across the entire
+     * run and inherited access transformers are found independent of the chunk their owning type was processed in.
+     * As each chunk is parsed in isolation, types declared by source files of other chunks are resolved through the classpath.
+     * <p>
+     * The results of earlier chunks are passed on before later chunks are parsed, so a failing run may already have passed on some of its
+     * results, see {@link #run(RestampInput, Consumer)}.
+     *
+     * @param contextConfiguration the context configuration of restamp, defining the source files to transform.
+     * @param chunkSize            the maximum amount of source files parsed and transformed at once.
+     * @param resultConsumer       the consumer of the results of each chunk.
+     *
+     * @throws IllegalStateException if the configuration requires all access transformers to be applied and some could not be.
+     */
+    public static void runChunked(final RestampContextConfiguration contextConfiguration,
+                                  final int chunkSize,
+                                  final Consumer<Result> resultConsumer) {
+        runChunked(contextConfiguration, chunkSize, new RestampParserPool(), resultConsumer);
+    }
+
+    /**
+     * Executes restamp on the source files defined by the passed context configuration in chunks of a bounded size, parsing the source files
+     * with the parsers of the passed pool.
+     *
+     * @param contextConfiguration the context configuration of restamp, defining the source files to transform.
+     * @param chunkSize            the maximum amount of source files parsed and transformed at once.
+     * @param parserPool           the pool of parsers to parse the source files with.
+     * @param resultConsumer       the consumer of the results of each chunk.
+     *
+     * @throws IllegalStateException if the configuration requires all access transformers to be applied and some could not be.
+     * @see #runChunked(RestampContextConfiguration, int, Consumer)
+     */
+    public static void runChunked(final RestampContextConfiguration contextConfiguration,
+                                  final int chunkSize,
+                                  final RestampParserPool parserPool,
+                                  final Consumer<Result> resultConsumer) {
+        if (chunkSize < 1) throw new IllegalArgumentException("Cannot run with chunks of less than one source file: " + chunkSize);
+
+        final IndexedAccessTransformSet accessTransformers = contextConfiguration.indexedAccessTransformers();
+        final ConsumptionLedger ledger = new ConsumptionLedger(accessTransformers);
+        final Recipe recipe = createRecipe(ledger, RestampInput.loadBytecodeIndex(contextConfiguration, parserPool));
+        final ExecutionContext executionContext = contextConfiguration.executionContext();
+        final int recipeThreads = contextConfiguration.recipeThreads();
+
+        final @Nullable ClasspathIndex classpathIndex = RestampInput.loadClasspathIndex(contextConfiguration, parserPool);
+        final SourceFileCache.@Nullable Session cacheSession = RestampInput.openCacheSession(contextConfiguration, classpathIndex);
+        final RunState.@Nullable Session runStateSession = RestampInput.openRunStateSession(contextConfiguration, classpathIndex);
+        final RestampInput.SourceFileSplit sourceFileSplit = RestampInput.splitFastAppliedSourceFiles(
+            contextConfiguration,
+            RestampInput.selectSourceFilesToParse(contextConfiguration, cacheSession, runStateSession)
+        );
+        final SourceParser parser = RestampInput.createParser(contextConfiguration, classpathIndex, parserPool);
+
+        try (final @Nullable ExecutorService executor = createRecipeExecutor(recipeThreads)) {
+            final List<Path> sourceFilesToParse = sourceFileSplit.parsedSourceFiles();
+            for (int chunkStart = 0; chunkStart < sourceFilesToParse.size(); chunkStart += chunkSize) {
+                final List<Path> chunk = sourceFilesToParse.subList(chunkStart, Math.min(sourceFilesToParse.size(), chunkStart + chunkSize));
+
+                final List<SourceFile> sources = parser.parse(chunk, contextConfiguration.sourceRoot(), executionContext);
+                RestampInput.logParseErrors(sources);
+
+                final Set<Path> changedSources = runChunk(recipe, sources, executionContext, executor, recipeThreads, resultConsumer);
+                if (cacheSession != null) recordUntouchedSources(cacheSession, sources, accessTransformers, changedSources);
+                if (runStateSession != null) recordRunState(runStateSession, sources, ledger, changedSources);
+            }
+
+            // Fast applied source files are not recorded in the run state, they are always processed again, see RunState.Session#record.
+            final List<Path> fastAppliedSourceFiles = sourceFileSplit.fastAppliedSourceFiles();
+            for (int chunkStart = 0; chunkStart < fastAppliedSourceFiles.size(); chunkStart += chunkSize) {
+                final List<Path> chunk = fastAppliedSourceFiles.subList(chunkStart, Math.min(fastAppliedSourceFiles.size(), chunkStart + chunkSize));
+
+                final List<SourceFile> sources = RestampInput.parsePlainText(
+                    chunk, sourceFileSplit.applications(), contextConfiguration.sourceRoot(), executionContext
+                );
+                runChunk(recipe, sources, executionContext, executor, recipeThreads, resultConsumer);
+            }
+        }
+        if (cacheSession != null) closeCacheSession(cacheSession);
+        if (runStateSession != null) completeRunState(runStateSession, ledger);
+
+        verifyAccessTransformersConsumed(ledger, contextConfiguration.failWithNotApplicableAccessTransformers());
+    }
+
+    /**
+     * Creates the recipe applying the access transformers tracked by the passed ledger.
+     * The returned recipe records the access transformers it applies in the ledger, so that it can transform multiple source files
+     * concurrently.
+     *
+     * @param ledger        the ledger recording the consumed access transformers.
+     * @param bytecodeIndex the index of the compiled classes of the sources, or null if none is available.
+     *
+     * @return the recipe.
+     */
+    private static Recipe createRecipe(final ConsumptionLedger ledger, final @Nullable BytecodeIndex bytecodeIndex) {
+        final IndexedAccessTransformSet accessTransformers = ledger.accessTransformers();
         final ModifierTransformer modifierTransformer = new ModifierTransformer();
         final AccessTransformerTypeConverter accessTransformerTypeConverter = new AccessTransformerTypeConverter();
-        final AccessTransformSet accessTransformSet = input.accessTransformers();
 
-        final CompositeRecipe compositeRecipe = new CompositeRecipe(List.of(
-            new FieldATMutator(accessTransformSet, modifierTransformer),
-            new MethodATMutator(accessTransformSet, modifierTransformer, accessTransformerTypeConverter),
-            new ClassATMutator(accessTransformSet, modifierTransformer)
+        return new CompositeRecipe(List.of(
+            new ATMutator(accessTransformers, ledger, modifierTransformer, accessTransformerTypeConverter, bytecodeIndex),
+            new FastATMutator(accessTransformers, ledger, modifierTransformer)
         ));
+    }
+
+    /**
+     * Creates the executor running the recipe on multiple threads.
+     *
+     * @param recipeThreads the amount of threads to run the recipe on.
+     *
+     * @return the executor, or null if the recipe runs on the calling thread only.
+     */
+    private static @Nullable ExecutorService createRecipeExecutor(final int recipeThreads) {
+        if (recipeThreads <= 1) return null;
+        return Executors.newFixedThreadPool(recipeThreads);
+    }
 
-        final InMemoryLargeSourceSet inMemoryLargeSourceSet = new InMemoryLargeSourceSet(input.sources());
+    /**
+     * Runs the recipe on the passed source files, passing the result of each changed source file to the result consumer.
+     * The source files are split into contiguous partitions of at most {@link #PARTITION_SIZE} source files, each transformed in its own recipe
+     * run, so that the results of a partition are passed on as soon as the partition is transformed. If an executor is passed, the partitions
+     * are transformed concurrently, at most twice as many ahead of the partition consumed next as the executor has threads, which bounds the
+     * amount of results held at once.
+     * The results are passed to the consumer on the calling thread in the order of the partitions, so that they are ordered like the passed
+     * source files independent of the amount of threads.
+     * Concurrently transformed partitions each run in a new execution context holding the error handler and a copy of the messages of the
+     * passed execution context. Messages put by the recipe into these contexts are not carried back into the passed execution context.
+     *
+     * @param recipe           the recipe to run.
+     * @param sources          the source files to run the recipe on.
+     * @param executionContext the execution context to run the recipe in.
+     * @param executor         the executor running the partitions, or null if the recipe runs on the calling thread.
+     * @param recipeThreads    the amount of threads of the executor.
+     * @param resultConsumer   the consumer of the results of the partitions.
+     *
+     * @return the source paths of the changed source files.
+     */
+    private static Set<Path> runChunk(final Recipe recipe,
+                                      final List<SourceFile> sources,
+                                      final ExecutionContext executionContext,
+                                      final @Nullable ExecutorService executor,
+                                      final int recipeThreads,
+                                      final Consumer<Result> resultConsumer) {
+        final Set<Path> changedSources = new HashSet<>();
+        final Consumer<Changeset> changesetConsumer = changeset -> {
+            for (final Result result : changeset.getAllResults()) {
+                if (result.getBefore() != null) changedSources.add(result.getBefore().getSourcePath());
+                resultConsumer.accept(result);
+            }
+        };
+        if (sources.isEmpty()) return changedSources;
 
-        final Changeset changeset = compositeRecipe.run(inMemoryLargeSourceSet, input.executionContext()).getChangeset();
+        final int partitions = Math.max(Math.ceilDiv(sources.size(), PARTITION_SIZE), executor == null ? 1 : Math.min(recipeThreads, sources.size()));
+        if (executor == null) {
+            for (int partition = 0; partition < partitions; partition++) {
+                final List<SourceFile> partitionSources = partition(sources, partition, partitions);
+                changesetConsumer.accept(recipe.run(new InMemoryLargeSourceSet(partitionSources), executionContext).getChangeset());
+            }
+            return changedSources;
+        }
 
-        // Delete all classes that have no access transformers left to apply.
-        final List<AccessTransformSet.Class> atClassSet = new ArrayList<>(accessTransformSet.getClasses().values());
-        atClassSet.removeIf(c ->
-            c.get().isEmpty()
-                && c.getFields().values().stream().allMatch(AccessTransform::isEmpty)
-                && c.getMethods().values().stream().allMatch(AccessTransform::isEmpty)
+        // Snapshot of the messages of the caller, e.g. configuration of the recipe run, carried over into each partition context.
+        final Map<String, @Nullable Object> messages = new HashMap<>(executionContext.getMessages());
+        final Deque<Future<Changeset>> pending = new ArrayDeque<>();
+        try {
+            int nextPartition = 0;
+            while (nextPartition < partitions || !pending.isEmpty()) {
+                for (; nextPartition < partitions && pending.size() < recipeThreads * 2; nextPartition++) {
+                    final List<SourceFile> partitionSources = partition(sources, nextPartition, partitions);
+                    // Recipe runs store their state in the execution context, hence every partition runs in its own context.
+                    final ExecutionContext partitionContext = new InMemoryExecutionContext(executionContext.getOnError());
+                    messages.forEach(partitionContext::putMessage);
+                    pending.addLast(executor.submit(() -> recipe.run(new InMemoryLargeSourceSet(partitionSources), partitionContext).getChangeset()));
+                }
+                changesetConsumer.accept(pending.removeFirst().get());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running restamp", e);
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException("Failed to run restamp on source file partition", e.getCause());
+        } finally {
+            // Only non-empty if the run failed, the remaining partitions are not needed anymore.
+            for (final Future<Changeset> future : pending) future.cancel(true);
+        }
+        return changedSources;
+    }
+
+    private static List<SourceFile> partition(final List<SourceFile> sources, final int partition, final int partitions) {
+        return sources.subList(
+            (int) ((long) sources.size() * partition / partitions),
+            (int) ((long) sources.size() * (partition + 1) / partitions)
         );
-        if (atClassSet.isEmpty() || !input.failWithNotApplicableAccessTransformers()) return changeset;
+    }
+
+    /**
+     * Verifies that all access transformers tracked by the passed ledger were consumed.
+     *
+     * @param ledger                                  the ledger of the run.
+     * @param failWithNotApplicableAccessTransformers whether not consumed access transformers should fail the run.
+     *
+     * @throws IllegalStateException if not all access transformers were consumed and the run is configured to fail in that case.
+     */
+    private static void verifyAccessTransformersConsumed(final ConsumptionLedger ledger, final boolean failWithNotApplicableAccessTransformers) {
+        if (!failWithNotApplicableAccessTransformers) return;
+
+        final List<String> notAppliedAccessTransformers = ledger.describeNotConsumed();
+        if (notAppliedAccessTransformers.isEmpty()) return;
 
         // Not all ats applied, error if configured to do so.
-        final String notAppliedAccessTransformers = atClassSet.stream().map(c ->
-            "%s: [%s] {%s}".formatted(
-                c.getName(),
-                String.join(", ", c.getFields().keySet()),
-                c.getMethods().keySet().stream().map(MethodSignature::toJvmsIdentifier).collect(Collectors.joining(", "))
-            )
-        ).collect(Collectors.joining(",\n"));
-
-        throw new IllegalStateException("Could not apply access transformers: " + notAppliedAccessTransformers);
+        throw new IllegalStateException("Could not apply access transformers: " + String.join(",\n", notAppliedAccessTransformers));
+    }
+
+    /**
+     * Records all passed sources that were left untouched by the run in the source file cache.
+     * A source is untouched if it was not changed and does not declare a type that is targeted by an access transformer, as restamp
+     * would otherwise consume the access transformers of the type when processing the source.
+     * The supertypes of the types declared by a source are recorded alongside it, as changes to them may affect the source in later runs.
+     *
+     * @param cacheSession       the session on the source file cache to record the untouched sources in.
+     * @param sources            the sources processed by the run.
+     * @param accessTransformers the access transformers applied by the run.
+     * @param changedSources     the source paths of the passed sources changed by the run.
+     */
+    private static void recordUntouchedSources(final SourceFileCache.Session cacheSession,
+                                               final List<SourceFile> sources,
+                                               final IndexedAccessTransformSet accessTransformers,
+                                               final Set<Path> changedSources) {
+        final Set<String> targetedTopLevelTypes = new HashSet<>();
+        for (final IndexedAccessTransformSet.ClassEntry transformerClass : accessTransformers.classes()) {
+            final String className = transformerClass.name();
+            final int firstDollarSign = className.indexOf('$');
+            targetedTopLevelTypes.add(firstDollarSign >= 0 ? className.substring(0, firstDollarSign) : className);
+        }
+
+        try {
+            for (final SourceFile source : sources) {
+                if (!(source instanceof final J.CompilationUnit compilationUnit)) continue;
+                if (changedSources.contains(source.getSourcePath())) continue;
+
+                final Set<String> declaredTypes = new HashSet<>();
+                final Set<String> supertypes = new HashSet<>();
+                if (!TypeHelper.collectTypes(compilationUnit, declaredTypes, supertypes)) continue;
+
+                final boolean declaresTargetedType = declaredTypes.stream().anyMatch(type -> {
+                    final int firstDollarSign = type.indexOf('$');
+                    return targetedTopLevelTypes.contains(firstDollarSign >= 0 ? type.substring(0, firstDollarSign) : type);
+                });
+                if (declaresTargetedType) continue;
+
+                supertypes.removeAll(declaredTypes);
+                cacheSession.recordUntouched(source.getSourcePath(), supertypes);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to record untouched sources in cache", e);
+        }
+    }
+
+    private static void recordRunState(final RunState.Session runStateSession,
+                                       final List<SourceFile> sources,
+                                       final ConsumptionLedger ledger,
+                                       final Set<Path> changedSources) {
+        try {
+            runStateSession.record(sources, ledger, changedSources);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to record run state", e);
+        }
+    }
+
+    /**
+     * Completes the run state session of an incremental run.
+     * The access transformers consumed by source files skipped as unchanged are recorded in the passed ledger, so that the following
+     * verification of consumed access transformers is exact, and the new run state is saved.
+     *
+     * @param runStateSession the session on the run state.
+     * @param ledger          the ledger of the run.
+     */
+    private static void completeRunState(final RunState.Session runStateSession, final ConsumptionLedger ledger) {
+        runStateSession.consumeSkipped(ledger);
+        try {
+            runStateSession.save();
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to save run state", e);
+        }
+    }
+
+    private static void closeCacheSession(final SourceFileCache.Session cacheSession) {
+        try {
+            cacheSession.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to close source file cache session", e);
+        }
+    }
+
+    /**
+     * A changeset holding the concatenated results of multiple recipe runs.
+     *
+     * @param results the results.
+     */
+    private record ResultChangeset(List<Result> results) implements Changeset {
+
+        @Override
+        public int size() {
+            return this.results.size();
+        }
+
+        @Override
+        public List<Result> getPage(final int start, final int count) {
+            return this.results.subList(start, Math.min(this.results.size(), start + count));
+        }
+
     }
 
 }
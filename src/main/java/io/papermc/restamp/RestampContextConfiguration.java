@@ -1,5 +1,13 @@
 package io.papermc.restamp;
 
+import io.papermc.restamp.at.CompiledAccessTransformers;
+import io.papermc.restamp.at.IndexedAccessTransformSet;
+import io.papermc.restamp.bytecode.BytecodeIndex;
+import io.papermc.restamp.fast.FastAccessTransformApplier;
+import io.papermc.restamp.incremental.RunState;
+import io.papermc.restamp.parser.ClasspathPruningParser;
+import io.papermc.restamp.parser.SourceFileCache;
+import io.papermc.restamp.parser.SourceFilePrefilter;
 import org.cadixdev.at.AccessTransformSet;
 import org.cadixdev.at.io.AccessTransformFormat;
 import org.cadixdev.at.io.AccessTransformFormats;
@@ -14,6 +22,7 @@ import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * The restamp input configuration record holds unparsed data that can be parsed into {@link RestampInput} to be then consumed by
@@ -23,23 +32,72 @@ import java.util.List;
  * This is hence the main configuration entry point for third-party consumers of restamp.
  *
  * @param executionContext                        the execution context used for both parsing and running restamp.
- * @param accessTransformSet                      the set of access transformers to apply to the source files.
+ * @param accessTransformSet                      the set of access transformers to apply to the source files, or null if the access
+ *                                                transformers were loaded from a {@link CompiledAccessTransformers compiled access transformer
+ *                                                file} and are hence only available as {@code indexedAccessTransformers}.
  * @param sourceRoot                              the path to a common root folder of all source files in {@code sourceFiles}.
  * @param sourceFiles                             the list of paths pointing to the source files restamp should apply access transformers to.
  * @param classpath                               a list of paths pointing to jars that makeup the classpath for the to be parsed source files.
  * @param failWithNotApplicableAccessTransformers whether restamp should fail if not all access transformers defined in {@code accessTransformers}
  *                                                were consumed by restamp.
+ * @param parserThreads                           the amount of threads used to parse the source files.
+ * @param cacheDirectory                          the directory of the source file cache, or null if no cache should be used.
+ * @param cacheMaxSize                            the maximum size in bytes of the source file cache.
+ * @param prefilterSourceFiles                    whether source files that cannot contain a target of an access transformer should be skipped
+ *                                                before parsing.
+ * @param pruneClasspath                          whether source files should be parsed against the part of the classpath they reference.
+ * @param runStateFile                            the file holding the state of the previous run for incremental runs, or null if runs are not
+ *                                                incremental.
+ * @param fastApply                               whether access transformers should be applied to the text of source files that do not need
+ *                                                to be parsed to apply them.
+ * @param compiledProject                         the jar or directory holding the compiled classes of the source files, used to resolve method
+ *                                                access transformers without a full classpath, or null if methods are only resolved via type
+ *                                                attribution.
+ * @param recipeThreads                           the amount of threads used to transform the parsed source files.
+ * @param indexedAccessTransformers               the immutable index of the access transformers, built once and shared by everything
+ *                                                reading the access transformers during a run.
  */
 @NullMarked
 public record RestampContextConfiguration(
     ExecutionContext executionContext,
-    AccessTransformSet accessTransformSet,
+    @Nullable AccessTransformSet accessTransformSet,
     Path sourceRoot,
     List<Path> sourceFiles,
     List<Path> classpath,
-    boolean failWithNotApplicableAccessTransformers
+    boolean failWithNotApplicableAccessTransformers,
+    int parserThreads,
+    @Nullable Path cacheDirectory,
+    long cacheMaxSize,
+    boolean prefilterSourceFiles,
+    boolean pruneClasspath,
+    @Nullable Path runStateFile,
+    boolean fastApply,
+    @Nullable Path compiledProject,
+    int recipeThreads,
+    IndexedAccessTransformSet indexedAccessTransformers
 ) {
 
+    /**
+     * Yields the set of access transformers to apply to the source files.
+     * If the access transformers were loaded from a {@link CompiledAccessTransformers compiled access transformer file}, a new set is decoded
+     * from the {@link #indexedAccessTransformers()} on every call, as restamp itself only reads the index.
+     *
+     * @return the access transform set.
+     */
+    @Override
+    public AccessTransformSet accessTransformSet() {
+        return this.accessTransformSet != null ? this.accessTransformSet : this.indexedAccessTransformers.toAccessTransformSet();
+    }
+
+    /**
+     * Yields the set of access transformers passed to the builder without decoding the index.
+     *
+     * @return the access transform set or null if the access transformers were loaded from a compiled access transformer file.
+     */
+    @Nullable AccessTransformSet providedAccessTransformSet() {
+        return this.accessTransformSet;
+    }
+
     /**
      * Constructs a new builder for the input configurations.
      *
@@ -58,10 +116,20 @@ public record RestampContextConfiguration(
 
         private @Nullable ExecutionContext executionContext;
         private @Nullable AccessTransformSet accessTransformSet;
+        private @Nullable IndexedAccessTransformSet indexedAccessTransformers;
         private @Nullable Path sourceRoot;
         private @Nullable List<Path> sourceFiles;
         private SourceFileMode sourceFileMode = SourceFileMode.MANUAL;
         private boolean failWithNotApplicableAccessTransformers = false;
+        private int parserThreads = 1;
+        private @Nullable Path cacheDirectory;
+        private long cacheMaxSize = SourceFileCache.DEFAULT_MAX_SIZE;
+        private boolean prefilterSourceFiles = false;
+        private boolean pruneClasspath = false;
+        private @Nullable Path runStateFile;
+        private boolean fastApply = false;
+        private @Nullable Path compiledProject;
+        private int recipeThreads = 1;
 
         private List<Path> classpath = Collections.emptyList();
 
@@ -81,7 +149,8 @@ public record RestampContextConfiguration(
 
         /**
          * Sets the path pointing to the file holding the access transformers.
-         * This method will assume the access transformers in the provided path are in the forge mod loader format.
+         * This method will assume the access transformers in the provided path are in the forge mod loader format, unless the file is a
+         * {@link CompiledAccessTransformers compiled access transformer file}.
          *
          * @param accessTransformerPath the path to the access transformers.
          *
@@ -91,6 +160,11 @@ public record RestampContextConfiguration(
          */
         @Contract(value = "_ -> this", mutates = "this")
         public Builder accessTransformers(final Path accessTransformerPath) throws IOException {
+            if (CompiledAccessTransformers.isCompiled(accessTransformerPath)) {
+                this.accessTransformSet = null;
+                this.indexedAccessTransformers = CompiledAccessTransformers.load(accessTransformerPath);
+                return this;
+            }
             return this.accessTransformers(accessTransformerPath, AccessTransformFormats.FML);
         }
 
@@ -107,6 +181,31 @@ public record RestampContextConfiguration(
         @Contract(value = "_,_ -> this", mutates = "this")
         public Builder accessTransformers(final Path accessTransformerPath, final AccessTransformFormat accessTransformerFormat) throws IOException {
             this.accessTransformSet = accessTransformerFormat.read(accessTransformerPath);
+            this.indexedAccessTransformers = null;
+            return this;
+        }
+
+        /**
+         * Sets the path pointing to the file holding the access transformers, which are loaded via the passed compiled access transformer file.
+         * The compiled file is memory-mapped and reused as long as the hash of the access transformer file matches the hash it was compiled
+         * from, otherwise the access transformers are parsed and compiled into it first.
+         *
+         * @param accessTransformerPath   the path to the access transformers.
+         * @param accessTransformerFormat the format of the access transformers defined in the file at the provided path.
+         * @param compiledPath            the path of the compiled access transformer file.
+         *
+         * @return this builder.
+         *
+         * @throws IOException when something goes wrong loading or compiling the access transformers.
+         *
+         * @see CompiledAccessTransformers
+         */
+        @Contract(value = "_,_,_ -> this", mutates = "this")
+        public Builder accessTransformers(final Path accessTransformerPath,
+                                          final AccessTransformFormat accessTransformerFormat,
+                                          final Path compiledPath) throws IOException {
+            this.accessTransformSet = null;
+            this.indexedAccessTransformers = CompiledAccessTransformers.loadOrCompile(accessTransformerPath, accessTransformerFormat, compiledPath);
             return this;
         }
 
@@ -119,8 +218,8 @@ public record RestampContextConfiguration(
          */
         @Contract(value = "_,_ -> this", mutates = "this")
         public Builder accessTransformSet(final AccessTransformSet accessTransformSet) {
-            this.accessTransformSet = AccessTransformSet.create();
-            this.accessTransformSet.merge(accessTransformSet);
+            this.accessTransformSet = accessTransformSet;
+            this.indexedAccessTransformers = null;
             return this;
         }
 
@@ -205,6 +304,151 @@ public record RestampContextConfiguration(
             return this;
         }
 
+        /**
+         * Sets the amount of threads used to parse the source files.
+         * If more than one thread is configured, the source files are split into shards that are parsed concurrently by separate parser
+         * instances sharing the same classpath.
+         *
+         * @param parserThreads the amount of parser threads, at least one.
+         *
+         * @return this builder.
+         */
+        @Contract(value = "_ -> this", mutates = "this")
+        public Builder parserThreads(final int parserThreads) {
+            if (parserThreads < 1) throw new IllegalArgumentException("Cannot parse with less than one thread: " + parserThreads);
+            this.parserThreads = parserThreads;
+            return this;
+        }
+
+        /**
+         * Sets the amount of threads used to transform the source files.
+         * If more than one thread is configured, the source files are split into partitions that are transformed concurrently. The results
+         * are still ordered like the source files.
+         *
+         * @param recipeThreads the amount of recipe threads, at least one.
+         *
+         * @return this builder.
+         */
+        @Contract(value = "_ -> this", mutates = "this")
+        public Builder recipeThreads(final int recipeThreads) {
+            if (recipeThreads < 1) throw new IllegalArgumentException("Cannot transform with less than one thread: " + recipeThreads);
+            this.recipeThreads = recipeThreads;
+            return this;
+        }
+
+        /**
+         * Configures restamp to use a source file cache in the passed directory, bounded by {@link SourceFileCache#DEFAULT_MAX_SIZE}.
+         *
+         * @param cacheDirectory the path to the cache directory.
+         *
+         * @return this builder.
+         *
+         * @see SourceFileCache
+         */
+        @Contract(value = "_ -> this", mutates = "this")
+        public Builder cacheDirectory(final Path cacheDirectory) {
+            return this.cacheDirectory(cacheDirectory, SourceFileCache.DEFAULT_MAX_SIZE);
+        }
+
+        /**
+         * Configures restamp to use a source file cache in the passed directory.
+         * The source file cache allows restamp to skip parsing source files that were left untouched by a previous run with the same classpath
+         * and access transformers.
+         *
+         * @param cacheDirectory the path to the cache directory.
+         * @param cacheMaxSize   the maximum size in bytes the cache may grow to before its least recently used entries are evicted.
+         *
+         * @return this builder.
+         *
+         * @see SourceFileCache
+         */
+        @Contract(value = "_,_ -> this", mutates = "this")
+        public Builder cacheDirectory(final Path cacheDirectory, final long cacheMaxSize) {
+            this.cacheDirectory = cacheDirectory;
+            this.cacheMaxSize = cacheMaxSize;
+            return this;
+        }
+
+        /**
+         * Configures restamp to skip parsing source files that do not contain the simple name of any class or method targeted by the
+         * access transformers.
+         * This is mostly useful for manually configured {@link #sourceFiles(List)}, as source files computed from the access transformers
+         * always contain a target.
+         *
+         * @return this builder.
+         *
+         * @see SourceFilePrefilter
+         */
+        @Contract(value = "-> this", mutates = "this")
+        public Builder prefilterSourceFiles() {
+            this.prefilterSourceFiles = true;
+            return this;
+        }
+
+        /**
+         * Configures restamp to parse source files against the part of the classpath that provides the packages they declare or import.
+         * Source files that end up with unresolved types relevant to restamp are re-parsed against the full classpath.
+         *
+         * @return this builder.
+         *
+         * @see ClasspathPruningParser
+         */
+        @Contract(value = "-> this", mutates = "this")
+        public Builder pruneClasspath() {
+            this.pruneClasspath = true;
+            return this;
+        }
+
+        /**
+         * Configures restamp to run incrementally, recording the state of each run in the passed file.
+         * Source files that did not change since the recorded run are neither parsed nor transformed, while the access transformers they
+         * consumed in the recorded run are still considered consumed. Source files transformed via {@link #fastApply()} are not recorded and
+         * hence always processed again.
+         *
+         * @param runStateFile the path to the run state file.
+         *
+         * @return this builder.
+         *
+         * @see RunState
+         */
+        @Contract(value = "_ -> this", mutates = "this")
+        public Builder incremental(final Path runStateFile) {
+            this.runStateFile = runStateFile;
+            return this;
+        }
+
+        /**
+         * Configures restamp to apply access transformers to the text of source files without parsing them, as long as the access
+         * transformers can be matched without type attribution.
+         * Source files the access transformers cannot be applied to this way, e.g. due to overloaded or inherited methods, are still parsed.
+         *
+         * @return this builder.
+         *
+         * @see FastAccessTransformApplier
+         */
+        @Contract(value = "-> this", mutates = "this")
+        public Builder fastApply() {
+            this.fastApply = true;
+            return this;
+        }
+
+        /**
+         * Sets the jar or directory holding the compiled classes of the source files.
+         * Methods whose types cannot be attributed, e.g. because the classpath is incomplete, are then resolved against the descriptors of
+         * the compiled classes, allowing restamp to parse source files with no or a minimal classpath.
+         *
+         * @param compiledProject the path to the compiled classes.
+         *
+         * @return this builder.
+         *
+         * @see BytecodeIndex
+         */
+        @Contract(value = "_ -> this", mutates = "this")
+        public Builder compiledProject(final Path compiledProject) {
+            this.compiledProject = compiledProject;
+            return this;
+        }
+
         /**
          * Builds the {@link RestampContextConfiguration} record from the builder.
          *
@@ -216,16 +460,24 @@ public record RestampContextConfiguration(
         @Contract(value = "-> new", pure = true)
         public RestampContextConfiguration build() throws IllegalStateException {
             if (this.executionContext == null) throw new IllegalStateException("Cannot build without an execution context");
-            if (this.accessTransformSet == null) throw new IllegalStateException("Cannot build without access transformers!");
+            if (this.accessTransformSet == null && this.indexedAccessTransformers == null) {
+                throw new IllegalStateException("Cannot build without access transformers!");
+            }
             if (this.sourceRoot == null) throw new IllegalStateException("Cannot build without a source root path!");
 
+            // Compiled access transformers are not decoded into a mutable set, everything reading them during a run reads the index.
+            final IndexedAccessTransformSet effectiveIndexedAccessTransformers = this.indexedAccessTransformers != null
+                ? this.indexedAccessTransformers
+                : IndexedAccessTransformSet.of(Objects.requireNonNull(this.accessTransformSet));
+
             List<Path> effectiveSourceFiles = this.sourceFiles;
             final boolean sourceFilesEmpty = effectiveSourceFiles == null || effectiveSourceFiles.isEmpty();
 
             if (sourceFilesEmpty) {
                 if (this.sourceFileMode == SourceFileMode.MANUAL) throw new IllegalStateException("Cannot build without source files!");
 
-                effectiveSourceFiles = this.accessTransformSet.getClasses().keySet().stream() // Compute source files from parsed access transformers.
+                effectiveSourceFiles = effectiveIndexedAccessTransformers.classes().stream() // Compute source files from the access transformers.
+                    .map(IndexedAccessTransformSet.ClassEntry::name)
                     .map(s -> s.replace('.', '/'))
                     .map(s -> {
                         final int firstDollarSign = s.indexOf("$");
@@ -248,11 +500,21 @@ public record RestampContextConfiguration(
 
             return new RestampContextConfiguration(
                 executionContext,
-                this.accessTransformSet,
+                accessTransformSet,
                 sourceRoot,
                 effectiveSourceFiles,
                 classpath,
-                failWithNotApplicableAccessTransformers
+                failWithNotApplicableAccessTransformers,
+                parserThreads,
+                cacheDirectory,
+                cacheMaxSize,
+                prefilterSourceFiles,
+                pruneClasspath,
+                runStateFile,
+                fastApply,
+                compiledProject,
+                recipeThreads,
+                effectiveIndexedAccessTransformers
             );
         }
 
@@ -1,63 +1,489 @@
 package io.papermc.restamp;
 
-import io.papermc.restamp.recipe.MethodATMutator;
+import io.papermc.restamp.at.IndexedAccessTransformSet;
+import io.papermc.restamp.at.ModifierTransformer;
+import io.papermc.restamp.bytecode.BytecodeIndex;
+import io.papermc.restamp.fast.FastAccessTransformApplier;
+import io.papermc.restamp.fast.FastApplied;
+import io.papermc.restamp.incremental.RunState;
+import io.papermc.restamp.parser.ClasspathIndex;
+import io.papermc.restamp.parser.ClasspathPruningParser;
+import io.papermc.restamp.parser.SourceFileCache;
+import io.papermc.restamp.parser.SourceFilePrefilter;
+import io.papermc.restamp.parser.SourceParser;
 import org.cadixdev.at.AccessTransformSet;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.SourceFile;
-import org.openrewrite.java.Java21Parser;
+import org.openrewrite.Tree;
+import org.openrewrite.text.PlainText;
+import org.openrewrite.text.PlainTextParser;
 import org.openrewrite.tree.ParseError;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * The restamp input record type holds all values needed to run restamp.
  *
  * @param executionContext                        the execution context used for running restamp.
  * @param sources                                 a list of source files that restamp should iterate over.
- * @param accessTransformers                      the set of access transformers that restamp should apply to the provided source files.
+ * @param accessTransformers                      the set of access transformers that restamp should apply to the provided source files, or null
+ *                                                if they are only available as {@code indexedAccessTransformers}.
  * @param failWithNotApplicableAccessTransformers whether restamp should fail if not all access transformers defined in {@code accessTransformers}
  *                                                were consumed by restamp.
+ * @param cacheSession                            the session on the source file cache the sources were parsed with, or null if no cache is used.
+ * @param runStateSession                         the session on the run state the sources were selected with, or null if the run is not
+ *                                                incremental.
+ * @param bytecodeIndex                           the index of the compiled classes of the sources, used to resolve the signatures of methods that
+ *                                                could not be type attributed, or null if no compiled classes are available.
+ * @param recipeThreads                           the amount of threads the sources are transformed on.
+ * @param indexedAccessTransformers               the immutable index of the {@code accessTransformers}.
  */
 @NullMarked
 public record RestampInput(
     ExecutionContext executionContext,
     List<SourceFile> sources,
-    AccessTransformSet accessTransformers,
-    boolean failWithNotApplicableAccessTransformers
+    @Nullable AccessTransformSet accessTransformers,
+    boolean failWithNotApplicableAccessTransformers,
+    SourceFileCache.@Nullable Session cacheSession,
+    RunState.@Nullable Session runStateSession,
+    @Nullable BytecodeIndex bytecodeIndex,
+    int recipeThreads,
+    IndexedAccessTransformSet indexedAccessTransformers
 ) {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RestampInput.class);
+    private static final String CLASSPATH_INDEX_DIRECTORY = "classpath";
+    private static final Pattern IDENTIFIER_PATTERN = Pattern.compile("[\\p{javaJavaIdentifierStart}][\\p{javaJavaIdentifierPart}]*");
+
+    /**
+     * The source files of a run, split by whether they are parsed or transformed by the {@link FastAccessTransformApplier}.
+     *
+     * @param parsedSourceFiles      the source files that have to be parsed.
+     * @param fastAppliedSourceFiles the source files read as plain text and transformed by the fast applier.
+     * @param applications           the applications of the access transformers computed for the fast applied source files.
+     */
+    record SourceFileSplit(List<Path> parsedSourceFiles,
+                           List<Path> fastAppliedSourceFiles,
+                           Map<Path, FastAccessTransformApplier.Application> applications) {
+
+    }
+
+    /**
+     * Constructs a new restamp input from already parsed sources that neither uses a source file cache nor runs incrementally.
+     *
+     * @param executionContext                        the execution context used for running restamp.
+     * @param sources                                 a list of source files that restamp should iterate over.
+     * @param accessTransformers                      the set of access transformers that restamp should apply to the provided source files.
+     * @param failWithNotApplicableAccessTransformers whether restamp should fail if not all access transformers defined in
+     *                                                {@code accessTransformers} were consumed by restamp.
+     */
+    public RestampInput(final ExecutionContext executionContext,
+                        final List<SourceFile> sources,
+                        final AccessTransformSet accessTransformers,
+                        final boolean failWithNotApplicableAccessTransformers) {
+        this(
+            executionContext,
+            sources,
+            accessTransformers,
+            failWithNotApplicableAccessTransformers,
+            null,
+            null,
+            null,
+            1,
+            IndexedAccessTransformSet.of(accessTransformers)
+        );
+    }
+
+    /**
+     * Yields the set of access transformers that restamp should apply to the provided source files.
+     * If this input only holds the {@link #indexedAccessTransformers()}, e.g. because they were loaded from a compiled access transformer file,
+     * a new set is decoded from the index on every call. Restamp itself only reads the index.
+     *
+     * @return the access transform set.
+     */
+    @Override
+    public AccessTransformSet accessTransformers() {
+        return this.accessTransformers != null ? this.accessTransformers : this.indexedAccessTransformers.toAccessTransformSet();
+    }
 
     /**
      * Parses a ready-to-use restamp input type from the passed context configuration.
      * This process is not cheap as the entire source set is parsed.
+     * <p>
+     * If the context configuration enables the source file prefilter, source files that cannot contain a target of an access transformer
+     * are not parsed. Similarly, if the context configuration defines a cache directory, source files known to be left untouched by restamp
+     * are not parsed and the classpath is indexed in the cache directory, so that duplicate or class-less jars are not read by the parser.
+     * If the context configuration is incremental, source files that did not change since the recorded run are not parsed either.
+     * If the context configuration enables the fast applier, source files it can transform are read as plain text instead of being parsed.
      *
      * @param contextConfiguration the context configuration of restamp, used to parse the inputs.
      *
      * @return the parsed restamp input, ready for consumption via {@link Restamp#run(RestampInput)}.
      */
     public static RestampInput parseFrom(final RestampContextConfiguration contextConfiguration) {
-        final Java21Parser parser = Java21Parser.builder().classpath(contextConfiguration.classpath()).build();
+        return parseFrom(contextConfiguration, new RestampParserPool());
+    }
+
+    /**
+     * Parses a ready-to-use restamp input type from the passed context configuration using the parsers of the passed pool.
+     * Sharing a pool between multiple calls, e.g. for multiple source roots, avoids reading the same classpath for every call.
+     *
+     * @param contextConfiguration the context configuration of restamp, used to parse the inputs.
+     * @param parserPool           the pool of parsers to parse the inputs with.
+     *
+     * @return the parsed restamp input, ready for consumption via {@link Restamp#run(RestampInput)}.
+     *
+     * @see #parseFrom(RestampContextConfiguration)
+     */
+    public static RestampInput parseFrom(final RestampContextConfiguration contextConfiguration, final RestampParserPool parserPool) {
+        final @Nullable ClasspathIndex classpathIndex = loadClasspathIndex(contextConfiguration, parserPool);
+        final SourceFileCache.@Nullable Session cacheSession = openCacheSession(contextConfiguration, classpathIndex);
+        final RunState.@Nullable Session runStateSession = openRunStateSession(contextConfiguration, classpathIndex);
+        final SourceFileSplit sourceFileSplit = splitFastAppliedSourceFiles(
+            contextConfiguration,
+            selectSourceFilesToParse(contextConfiguration, cacheSession, runStateSession)
+        );
 
-        final List<SourceFile> sourceFiles = parser.parse(
-            contextConfiguration.sourceFiles(),
+        final List<SourceFile> sourceFiles = new ArrayList<>(createParser(contextConfiguration, classpathIndex, parserPool).parse(
+            sourceFileSplit.parsedSourceFiles(),
             contextConfiguration.sourceRoot(),
             contextConfiguration.executionContext()
-        ).toList();
-
-        final List<String> parseErrors = sourceFiles.stream().filter((s) -> s instanceof ParseError).map((s) -> s.getSourcePath().toString()).toList();
-        LOGGER.warn("Encountered parse errors ({}): {}", parseErrors.size(), parseErrors);
+        ));
+        logParseErrors(sourceFiles);
+        sourceFiles.addAll(parsePlainText(
+            sourceFileSplit.fastAppliedSourceFiles(),
+            sourceFileSplit.applications(),
+            contextConfiguration.sourceRoot(),
+            contextConfiguration.executionContext()
+        ));
 
         return new RestampInput(
             contextConfiguration.executionContext(),
             sourceFiles,
-            contextConfiguration.accessTransformSet(),
-            contextConfiguration.failWithNotApplicableAccessTransformers()
+            contextConfiguration.providedAccessTransformSet(),
+            contextConfiguration.failWithNotApplicableAccessTransformers(),
+            cacheSession,
+            runStateSession,
+            loadBytecodeIndex(contextConfiguration, parserPool),
+            contextConfiguration.recipeThreads(),
+            contextConfiguration.indexedAccessTransformers()
+        );
+    }
+
+    /**
+     * Loads the bytecode index of the compiled project defined by the passed context configuration and keeps it in the passed pool.
+     *
+     * @param contextConfiguration the context configuration of restamp.
+     * @param parserPool           the pool keeping the index between calls.
+     *
+     * @return the loaded bytecode index or null if the context configuration does not define a compiled project.
+     */
+    static @Nullable BytecodeIndex loadBytecodeIndex(final RestampContextConfiguration contextConfiguration,
+                                                     final RestampParserPool parserPool) {
+        final @Nullable Path compiledProject = contextConfiguration.compiledProject();
+        if (compiledProject == null) return null;
+
+        try {
+            final BytecodeIndex bytecodeIndex = parserPool.bytecodeIndex(compiledProject);
+            LOGGER.info("Indexed {} compiled classes of {}", bytecodeIndex.size(), compiledProject);
+            return bytecodeIndex;
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to load bytecode index of " + compiledProject, e);
+        }
+    }
+
+    /**
+     * Loads the classpath index of the classpath defined by the passed context configuration.
+     * The index is persisted in the cache directory of the context configuration if one is defined and kept in the passed pool.
+     *
+     * @param contextConfiguration the context configuration of restamp.
+     * @param parserPool           the pool keeping the index between calls.
+     *
+     * @return the loaded classpath index or null if the context configuration neither defines a cache directory, prunes the classpath nor
+     *     runs incrementally.
+     */
+    static @Nullable ClasspathIndex loadClasspathIndex(final RestampContextConfiguration contextConfiguration,
+                                                       final RestampParserPool parserPool) {
+        final @Nullable Path cacheDirectory = contextConfiguration.cacheDirectory();
+        if (cacheDirectory == null && !contextConfiguration.pruneClasspath() && contextConfiguration.runStateFile() == null) return null;
+
+        try {
+            return parserPool.classpathIndex(
+                contextConfiguration.classpath(),
+                cacheDirectory == null ? null : cacheDirectory.resolve(CLASSPATH_INDEX_DIRECTORY)
+            );
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to load classpath index", e);
+        }
+    }
+
+    /**
+     * Opens a session on the source file cache configured by the passed context configuration.
+     *
+     * @param contextConfiguration the context configuration of restamp.
+     * @param classpathIndex       the index of the classpath of the context configuration.
+     *
+     * @return the opened session or null if the context configuration does not define a cache directory.
+     */
+    static SourceFileCache.@Nullable Session openCacheSession(final RestampContextConfiguration contextConfiguration,
+                                                             final @Nullable ClasspathIndex classpathIndex) {
+        final @Nullable Path cacheDirectory = contextConfiguration.cacheDirectory();
+        if (cacheDirectory == null || classpathIndex == null) return null;
+
+        return new SourceFileCache(cacheDirectory, contextConfiguration.cacheMaxSize())
+            .openSession(classpathIndex, contextConfiguration.indexedAccessTransformers(), contextConfiguration.sourceRoot());
+    }
+
+    /**
+     * Opens a session on the run state file configured by the passed context configuration.
+     *
+     * @param contextConfiguration the context configuration of restamp.
+     * @param classpathIndex       the index of the classpath of the context configuration.
+     *
+     * @return the opened session or null if the context configuration is not incremental.
+     */
+    static RunState.@Nullable Session openRunStateSession(final RestampContextConfiguration contextConfiguration,
+                                                          final @Nullable ClasspathIndex classpathIndex) {
+        final @Nullable Path runStateFile = contextConfiguration.runStateFile();
+        if (runStateFile == null || classpathIndex == null) return null;
+
+        try {
+            return RunState.load(runStateFile, classpathIndex.fingerprint())
+                .openSession(contextConfiguration.indexedAccessTransformers(), contextConfiguration.sourceRoot());
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to load run state from " + runStateFile, e);
+        }
+    }
+
+    /**
+     * Selects the source files of the passed context configuration that have to be parsed.
+     * Source files are skipped if they are dropped by the source file prefilter, unchanged since the recorded run or known to be untouched by
+     * the source file cache.
+     *
+     * @param contextConfiguration the context configuration of restamp.
+     * @param cacheSession         the session on the source file cache, or null if no cache is used.
+     * @param runStateSession      the session on the run state, or null if the run is not incremental.
+     *
+     * @return the source files to parse.
+     */
+    static List<Path> selectSourceFilesToParse(final RestampContextConfiguration contextConfiguration,
+                                               final SourceFileCache.@Nullable Session cacheSession,
+                                               final RunState.@Nullable Session runStateSession) {
+        List<Path> sourceFilesToParse = contextConfiguration.sourceFiles();
+
+        if (contextConfiguration.prefilterSourceFiles()) {
+            final SourceFilePrefilter.Result prefilterResult = new SourceFilePrefilter(contextConfiguration.indexedAccessTransformers())
+                .filter(sourceFilesToParse);
+            LOGGER.info(
+                "Prefilter skipped {} of {} source files without access transformer targets",
+                prefilterResult.skipped(), sourceFilesToParse.size()
+            );
+            sourceFilesToParse = prefilterResult.sourceFiles();
+        }
+
+        if (runStateSession != null) {
+            final List<Path> changedSourceFiles = new ArrayList<>(sourceFilesToParse.size());
+            try {
+                for (final Path sourceFile : sourceFilesToParse) {
+                    if (runStateSession.isUnchanged(sourceFile, contextConfiguration.sourceRoot().relativize(sourceFile))) continue;
+                    changedSourceFiles.add(sourceFile);
+                }
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Failed to look up source files in run state", e);
+            }
+            LOGGER.info("Skipping {} source files unchanged since the recorded run", sourceFilesToParse.size() - changedSourceFiles.size());
+            sourceFilesToParse = changedSourceFiles;
+        }
+
+        if (cacheSession != null) {
+            final List<Path> uncachedSourceFiles = new ArrayList<>(sourceFilesToParse.size());
+            try {
+                for (final Path sourceFile : sourceFilesToParse) {
+                    if (cacheSession.isUntouched(sourceFile, contextConfiguration.sourceRoot().relativize(sourceFile))) continue;
+                    uncachedSourceFiles.add(sourceFile);
+                }
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Failed to look up source files in cache", e);
+            }
+            final List<Path> cachedSourceFiles = new ArrayList<>(sourceFilesToParse);
+            cachedSourceFiles.removeAll(uncachedSourceFiles);
+            includeReferencedSourceFiles(uncachedSourceFiles, cachedSourceFiles);
+            LOGGER.info("Skipping {} source files found untouched in cache", sourceFilesToParse.size() - uncachedSourceFiles.size());
+            sourceFilesToParse = uncachedSourceFiles;
+        }
+
+        return sourceFilesToParse;
+    }
+
+    /**
+     * Moves the skipped source files that may declare types referenced by the source files to parse into the source files to parse, so that
+     * javac can attribute the references. A skipped source file may declare such a type if its name equals any identifier found in a source
+     * file to parse, which in turn may reference further skipped source files.
+     *
+     * @param sourceFilesToParse the source files to parse, extended by the referenced skipped source files.
+     * @param skippedSourceFiles the skipped source files, reduced by the referenced skipped source files.
+     */
+    static void includeReferencedSourceFiles(final List<Path> sourceFilesToParse, final List<Path> skippedSourceFiles) {
+        final Map<String, List<Path>> skippedSourceFilesByTypeName = new HashMap<>();
+        for (final Path sourceFile : skippedSourceFiles) {
+            final String fileName = sourceFile.getFileName().toString();
+            final String typeName = fileName.endsWith(".java") ? fileName.substring(0, fileName.length() - ".java".length()) : fileName;
+            skippedSourceFilesByTypeName.computeIfAbsent(typeName, name -> new ArrayList<>()).add(sourceFile);
+        }
+
+        final Set<Path> included = new LinkedHashSet<>();
+        final Deque<Path> pending = new ArrayDeque<>(sourceFilesToParse);
+        while (!pending.isEmpty() && !skippedSourceFilesByTypeName.isEmpty()) {
+            final String content;
+            final Path sourceFile = pending.poll();
+            try {
+                content = Files.readString(sourceFile, StandardCharsets.ISO_8859_1); // Identifiers of interest are ascii, any charset does.
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Failed to read source file " + sourceFile, e);
+            }
+
+            final Matcher identifiers = IDENTIFIER_PATTERN.matcher(content);
+            while (identifiers.find()) {
+                final @Nullable List<Path> referenced = skippedSourceFilesByTypeName.remove(identifiers.group());
+                if (referenced == null) continue;
+                included.addAll(referenced);
+                pending.addAll(referenced);
+            }
+        }
+
+        if (included.isEmpty()) return;
+        LOGGER.info("Parsing {} source files found untouched in cache as they are referenced by changed source files", included.size());
+        skippedSourceFiles.removeAll(included);
+        sourceFilesToParse.addAll(included);
+    }
+
+    /**
+     * Splits the passed source files into the ones that have to be parsed and the ones that the {@link FastAccessTransformApplier} can transform
+     * without parsing them.
+     * Source files the fast applier can transform but that do not consume any access transformer are dropped entirely.
+     *
+     * @param contextConfiguration the context configuration of restamp.
+     * @param sourceFiles          the selected source files of the run.
+     *
+     * @return the split source files. If the context configuration does not enable the fast applier, all source files are parsed.
+     */
+    static SourceFileSplit splitFastAppliedSourceFiles(final RestampContextConfiguration contextConfiguration, final List<Path> sourceFiles) {
+        if (!contextConfiguration.fastApply()) return new SourceFileSplit(sourceFiles, List.of(), Map.of());
+
+        final FastAccessTransformApplier applier = new FastAccessTransformApplier(
+            contextConfiguration.indexedAccessTransformers(),
+            new ModifierTransformer()
+        );
+        final List<Path> parsedSourceFiles = new ArrayList<>();
+        final List<Path> fastAppliedSourceFiles = new ArrayList<>();
+        final Map<Path, FastAccessTransformApplier.Application> applications = new HashMap<>();
+        for (final Path sourceFile : sourceFiles) {
+            final FastAccessTransformApplier.@Nullable Application application;
+            try {
+                final String source = Files.readString(sourceFile);
+                // The plain text parser strips the byte order mark, which the application hence has to be computed without.
+                application = applier.apply(source.startsWith("\uFEFF") ? source.substring(1) : source);
+            } catch (final CharacterCodingException e) {
+                parsedSourceFiles.add(sourceFile); // Leave non UTF-8 sources to the parser, which detects their charset.
+                continue;
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Failed to read source file " + sourceFile, e);
+            }
+
+            if (application == null) {
+                parsedSourceFiles.add(sourceFile);
+            } else if (!application.consumptions().isEmpty()) {
+                fastAppliedSourceFiles.add(sourceFile);
+                applications.put(sourceFile, application);
+            }
+        }
+
+        LOGGER.info(
+            "Fast applier handles {} of {} source files, {} have to be parsed",
+            sourceFiles.size() - parsedSourceFiles.size(), sourceFiles.size(), parsedSourceFiles.size()
+        );
+        return new SourceFileSplit(parsedSourceFiles, fastAppliedSourceFiles, applications);
+    }
+
+    /**
+     * Reads the passed source files as plain text, to be transformed by the {@link FastAccessTransformApplier}.
+     * The applications computed for the source files while splitting them are attached to the plain text source files as {@link FastApplied}
+     * markers, so that the recipe does not transform them again.
+     *
+     * @param sourceFiles      the source files to read.
+     * @param applications     the applications of the access transformers computed for the source files.
+     * @param sourceRoot       the source root the source paths are relative to.
+     * @param executionContext the execution context.
+     *
+     * @return the plain text source files.
+     */
+    static List<SourceFile> parsePlainText(final List<Path> sourceFiles,
+                                           final Map<Path, FastAccessTransformApplier.Application> applications,
+                                           final Path sourceRoot,
+                                           final ExecutionContext executionContext) {
+        if (sourceFiles.isEmpty()) return List.of();
+
+        // The parser yields a source file for each input, in the order of the inputs.
+        final List<SourceFile> plainTexts = new ArrayList<>(
+            PlainTextParser.builder().build().parse(sourceFiles, sourceRoot, executionContext).toList()
         );
+        for (int i = 0; i < plainTexts.size(); i++) {
+            final FastAccessTransformApplier.@Nullable Application application = applications.get(sourceFiles.get(i));
+            if (application == null || !(plainTexts.get(i) instanceof final PlainText plainText)) continue;
+            plainTexts.set(i, plainText.withMarkers(plainText.getMarkers().add(new FastApplied(Tree.randomId(), application))));
+        }
+        return plainTexts;
+    }
+
+    /**
+     * Creates the parser for the source files of the passed context configuration.
+     * If a classpath index is passed, the parser only reads the deduplicated classpath computed by the index, which is further pruned to the
+     * referenced part of the classpath if the context configuration enables classpath pruning.
+     *
+     * @param contextConfiguration the context configuration of restamp.
+     * @param classpathIndex       the index of the classpath of the context configuration, or null if the classpath was not indexed.
+     * @param parserPool           the pool providing the parser for each classpath.
+     *
+     * @return the parser.
+     */
+    static SourceParser createParser(final RestampContextConfiguration contextConfiguration,
+                                     final @Nullable ClasspathIndex classpathIndex,
+                                     final RestampParserPool parserPool) {
+        final int parserThreads = contextConfiguration.parserThreads();
+        if (classpathIndex == null) return parserPool.parser(contextConfiguration.classpath(), parserThreads);
+        if (contextConfiguration.pruneClasspath()) {
+            return new ClasspathPruningParser(classpathIndex, classpath -> parserPool.parser(classpath, parserThreads));
+        }
+        return parserPool.parser(classpathIndex.deduplicatedClasspath(), parserThreads);
+    }
+
+    /**
+     * Logs the source files that could not be parsed.
+     *
+     * @param sourceFiles the parsed source files.
+     */
+    static void logParseErrors(final List<SourceFile> sourceFiles) {
+        final List<String> parseErrors = sourceFiles.stream().filter((s) -> s instanceof ParseError).map((s) -> s.getSourcePath().toString()).toList();
+        LOGGER.warn("Encountered parse errors ({}): {}", parseErrors.size(), parseErrors);
     }
 
 }
@@ -0,0 +1,241 @@
+package io.papermc.restamp;
+
+import io.papermc.restamp.bytecode.BytecodeIndex;
+import io.papermc.restamp.parser.ClasspathIndex;
+import io.papermc.restamp.parser.SharedTypeCache;
+import io.papermc.restamp.parser.ShardedSourceParser;
+import io.papermc.restamp.parser.SourceParser;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.Java21Parser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The restamp parser pool keeps parsers and their type caches alive across multiple calls to
+ * {@link RestampInput#parseFrom(RestampContextConfiguration, RestampParserPool)}.
+ * <p>
+ * Parsing several source roots, e.g. main, generated and test fixture sources, against the same classpath with a shared pool only reads the
+ * classpath once, as both the file managers of the pooled parsers and the cached types of the classpath are reused. Types derived from the
+ * parsed source files are evicted from the shared type cache after each parse, so that one parse does not see the source symbols of another.
+ * <p>
+ * Parsers are pooled per classpath and amount of parser threads. Only the most recently used parsers are kept, bounding the memory held by
+ * the pool if many different classpaths are used, e.g. when pruning the classpath.
+ * <p>
+ * A pooled parser is replaced by a new one once a jar of its classpath changed on disk, e.g. because it was rebuilt, as its file manager and
+ * type cache would otherwise keep resolving the types of the previous jar. Classpaths holding directories are not checked for changes.
+ * <p>
+ * The pool also keeps the {@link ClasspathIndex} of each classpath, which is reloaded once an entry of the classpath changed on disk.
+ */
+@NullMarked
+public class RestampParserPool {
+
+    /**
+     * The default maximum amount of distinct classpaths the pool keeps parsers for.
+     */
+    public static final int DEFAULT_MAX_CLASSPATHS = 4;
+
+    private record Key(List<Path> classpath, int threads) {
+
+    }
+
+    private record IndexKey(List<Path> classpath, @Nullable Path indexDirectory) {
+
+    }
+
+    private record PooledIndex(@Nullable String stamp, ClasspathIndex index) {
+
+    }
+
+    private record PooledBytecodeIndex(@Nullable String stamp, BytecodeIndex index) {
+
+    }
+
+    private record StampedParser(@Nullable String stamp, PooledParser parser) {
+
+    }
+
+    private final Map<Key, StampedParser> parsers;
+    private final Map<IndexKey, PooledIndex> indexes;
+    private final Map<Path, PooledBytecodeIndex> bytecodeIndexes;
+
+    /**
+     * Constructs a new parser pool keeping parsers for at most {@link #DEFAULT_MAX_CLASSPATHS} classpaths.
+     */
+    public RestampParserPool() {
+        this(DEFAULT_MAX_CLASSPATHS);
+    }
+
+    /**
+     * Constructs a new parser pool.
+     *
+     * @param maxClasspaths the maximum amount of distinct classpaths the pool keeps parsers for.
+     */
+    public RestampParserPool(final int maxClasspaths) {
+        if (maxClasspaths < 1) throw new IllegalArgumentException("Cannot pool parsers for less than one classpath: " + maxClasspaths);
+        this.parsers = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, StampedParser> eldest) {
+                return this.size() > maxClasspaths;
+            }
+        };
+        this.indexes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<IndexKey, PooledIndex> eldest) {
+                return this.size() > maxClasspaths;
+            }
+        };
+        this.bytecodeIndexes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Path, PooledBytecodeIndex> eldest) {
+                return this.size() > maxClasspaths;
+            }
+        };
+    }
+
+    /**
+     * Yields the pooled index of the passed classpath, loading it if the pool does not hold one yet or an entry of the classpath changed since
+     * it was loaded.
+     *
+     * @param classpath      the classpath to index.
+     * @param indexDirectory the directory in which the index is persisted, or null if the index should not be persisted.
+     *
+     * @return the classpath index.
+     *
+     * @throws IOException if loading the index failed.
+     * @see ClasspathIndex#load(List, Path)
+     */
+    public synchronized ClasspathIndex classpathIndex(final List<Path> classpath, final @Nullable Path indexDirectory) throws IOException {
+        final IndexKey key = new IndexKey(List.copyOf(classpath), indexDirectory);
+        final @Nullable String stamp = stamp(classpath);
+
+        final @Nullable PooledIndex pooledIndex = this.indexes.get(key);
+        if (pooledIndex != null && stamp != null && stamp.equals(pooledIndex.stamp())) return pooledIndex.index();
+
+        final ClasspathIndex index = ClasspathIndex.load(classpath, indexDirectory);
+        this.indexes.put(key, new PooledIndex(stamp, index));
+        return index;
+    }
+
+    /**
+     * Yields the pooled bytecode index of the passed compiled classes, loading it if the pool does not hold one yet or the compiled classes
+     * changed since they were loaded.
+     *
+     * @param compiledProject the jar or directory holding the compiled classes.
+     *
+     * @return the bytecode index.
+     *
+     * @throws IOException if loading the index failed.
+     * @see BytecodeIndex#load(Path)
+     */
+    public synchronized BytecodeIndex bytecodeIndex(final Path compiledProject) throws IOException {
+        final @Nullable String stamp = stamp(List.of(compiledProject));
+
+        final @Nullable PooledBytecodeIndex pooledIndex = this.bytecodeIndexes.get(compiledProject);
+        if (pooledIndex != null && stamp != null && stamp.equals(pooledIndex.stamp())) return pooledIndex.index();
+
+        final BytecodeIndex index = BytecodeIndex.load(compiledProject);
+        this.bytecodeIndexes.put(compiledProject, new PooledBytecodeIndex(stamp, index));
+        return index;
+    }
+
+    /**
+     * Yields the pooled parser for the passed classpath, creating it if the pool does not hold one yet or a jar of the classpath changed since
+     * it was created.
+     *
+     * @param classpath the classpath to parse against.
+     * @param threads   the amount of threads used to parse.
+     *
+     * @return the pooled parser.
+     */
+    public synchronized SourceParser parser(final List<Path> classpath, final int threads) {
+        final Key key = new Key(List.copyOf(classpath), threads);
+        final @Nullable String stamp;
+        try {
+            stamp = stamp(key.classpath());
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to stamp classpath", e);
+        }
+
+        final @Nullable StampedParser stampedParser = this.parsers.get(key);
+        if (stampedParser != null && Objects.equals(stamp, stampedParser.stamp())) return stampedParser.parser();
+
+        final PooledParser parser = new PooledParser(key.classpath(), threads);
+        this.parsers.put(key, new StampedParser(stamp, parser));
+        return parser;
+    }
+
+    /**
+     * Drops all pooled parsers, their cached types and the pooled classpath and bytecode indexes.
+     */
+    public synchronized void clear() {
+        this.parsers.clear();
+        this.indexes.clear();
+        this.bytecodeIndexes.clear();
+    }
+
+    /**
+     * Computes a stamp of the size and modification time of each entry of the passed classpath.
+     *
+     * @param classpath the classpath.
+     *
+     * @return the stamp, or null if the classpath contains directories, whose content cannot be stamped cheaply.
+     *
+     * @throws IOException if reading the attributes of an entry failed.
+     */
+    private static @Nullable String stamp(final List<Path> classpath) throws IOException {
+        final StringBuilder stamp = new StringBuilder();
+        for (final Path entry : classpath) {
+            if (Files.isDirectory(entry)) return null;
+            if (!Files.exists(entry)) {
+                stamp.append(entry).append(" -\n");
+                continue;
+            }
+            stamp.append(entry).append(' ').append(Files.size(entry)).append(' ').append(Files.getLastModifiedTime(entry).toMillis()).append('\n');
+        }
+        return stamp.toString();
+    }
+
+    /**
+     * A parser of the pool, evicting the source types of each parse from its type cache.
+     * Parse calls on the same pooled parser are serialized, as the type cache tracks the types added by the current parse.
+     */
+    private static final class PooledParser implements SourceParser {
+
+        private final SharedTypeCache typeCache = new SharedTypeCache();
+        private final ShardedSourceParser parser;
+
+        private PooledParser(final List<Path> classpath, final int threads) {
+            this.parser = new ShardedSourceParser(
+                () -> Java21Parser.builder().classpath(classpath).typeCache(this.typeCache.parserView()).build(),
+                threads
+            );
+        }
+
+        @Override
+        public synchronized List<SourceFile> parse(final List<Path> sourceFiles, final Path sourceRoot, final ExecutionContext executionContext) {
+            final List<SourceFile> parsed;
+            try {
+                parsed = this.parser.parse(sourceFiles, sourceRoot, executionContext);
+            } catch (final RuntimeException e) {
+                // The source types of a failed parse are unknown, hence the type cache is dropped entirely.
+                this.typeCache.clear();
+                throw e;
+            }
+
+            this.typeCache.evictSourceTypes(parsed);
+            return parsed;
+        }
+
+    }
+
+}
@@ -0,0 +1,149 @@
+package io.papermc.restamp.at;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.java.tree.Flag;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.Statement;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The access transformer index answers whether a compilation unit can be affected by the access transformers of a set without visiting it.
+ * <p>
+ * A compilation unit is relevant if one of its top-level types, including all types nested in it, has a class, field or method
+ * access transformer. As method access transformers also apply to overriding methods, a compilation unit is relevant as well if it uses a type
+ * whose ancestors, as yielded by the {@link TypeHierarchyIndex}, include a type with method access transformers.
+ * <p>
+ * Declarations in method bodies, initializers and lambdas, i.e. those of local and anonymous classes, can only be affected if the access
+ * transformers target such a class by its binary name, e.g. {@code Outer$1}, or if the class may override a method with a method
+ * access transformer. For all other compilation units, visitors may skip these trees via {@link #requiresLocalTraversal(J.CompilationUnit)}.
+ * <p>
+ * The index is safe for concurrent use.
+ */
+@NullMarked
+public class AccessTransformerIndex {
+
+    private final Set<String> topLevelTypesWithTransforms = new HashSet<>();
+    private final Set<String> topLevelTypesWithLocalTransforms = new HashSet<>();
+    private final TypeHierarchyIndex typeHierarchyIndex;
+
+    /**
+     * Constructs a new index of the passed access transformers.
+     *
+     * @param accessTransformers the access transformers.
+     * @param typeHierarchyIndex the hierarchy index of the same access transformers.
+     */
+    public AccessTransformerIndex(final IndexedAccessTransformSet accessTransformers, final TypeHierarchyIndex typeHierarchyIndex) {
+        this.typeHierarchyIndex = typeHierarchyIndex;
+        for (final IndexedAccessTransformSet.ClassEntry entry : accessTransformers.classes()) {
+            final String className = entry.name();
+            final int firstDollarSign = className.indexOf('$');
+            final String topLevelName = firstDollarSign >= 0 ? className.substring(0, firstDollarSign) : className;
+            this.topLevelTypesWithTransforms.add(topLevelName);
+            if (isLocalOrAnonymous(className)) this.topLevelTypesWithLocalTransforms.add(topLevelName);
+        }
+    }
+
+    /**
+     * Computes whether the access transformers of this index may affect the passed compilation unit.
+     *
+     * @param compilationUnit the compilation unit.
+     *
+     * @return true if the compilation unit has to be visited, false if it is known to be left untouched.
+     */
+    public boolean isRelevant(final J.CompilationUnit compilationUnit) {
+        for (final J.ClassDeclaration classDeclaration : compilationUnit.getClasses()) {
+            final JavaType.@Nullable FullyQualified type = classDeclaration.getType();
+            if (type == null || this.topLevelTypesWithTransforms.contains(type.getFullyQualifiedName())) return true;
+        }
+        if (!this.typeHierarchyIndex.hasMethodTransforms()) return false;
+
+        // Overriding methods are transformed too, their declaring types can only extend types the compilation unit uses.
+        for (final JavaType typeInUse : compilationUnit.getTypesInUse().getTypesInUse()) {
+            if (typeInUse instanceof final JavaType.FullyQualified fullyQualified && this.inheritsMethodTransforms(fullyQualified)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Computes whether the access transformers of this index may affect declarations of local or anonymous classes in the passed compilation
+     * unit, in which case the method bodies, initializers and lambdas of the compilation unit have to be visited.
+     * <p>
+     * This is the case if the access transformers target a local or anonymous class nested in one of the top-level types of the compilation
+     * unit, or if a type declared or used by the compilation unit has method access transformers that a local or anonymous subclass
+     * may override.
+     *
+     * @param compilationUnit the compilation unit.
+     *
+     * @return true if the declarations of local and anonymous classes have to be visited.
+     */
+    public boolean requiresLocalTraversal(final J.CompilationUnit compilationUnit) {
+        for (final J.ClassDeclaration classDeclaration : compilationUnit.getClasses()) {
+            final JavaType.@Nullable FullyQualified type = classDeclaration.getType();
+            if (type == null || this.topLevelTypesWithLocalTransforms.contains(type.getFullyQualifiedName())) return true;
+        }
+        if (!this.typeHierarchyIndex.hasMethodTransforms()) return false;
+
+        final List<JavaType.FullyQualified> types = new ArrayList<>();
+        collectDeclaredTypes(compilationUnit.getClasses(), types);
+        for (final JavaType typeInUse : compilationUnit.getTypesInUse().getTypesInUse()) {
+            if (typeInUse instanceof final JavaType.FullyQualified fullyQualified) types.add(fullyQualified);
+        }
+        for (final JavaType.FullyQualified type : types) {
+            if (type.getFlags().contains(Flag.Final)) continue; // Cannot be subclassed.
+            if (this.inheritsMethodTransforms(type)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Collects the types of the passed class declarations and all member classes nested in them.
+     *
+     * @param classDeclarations the class declarations.
+     * @param types             the list to add the types to.
+     */
+    private static void collectDeclaredTypes(final List<J.ClassDeclaration> classDeclarations, final List<JavaType.FullyQualified> types) {
+        for (final J.ClassDeclaration classDeclaration : classDeclarations) {
+            final JavaType.@Nullable FullyQualified type = classDeclaration.getType();
+            if (type != null) types.add(type);
+
+            final List<J.ClassDeclaration> memberClasses = new ArrayList<>();
+            for (final Statement statement : classDeclaration.getBody().getStatements()) {
+                if (statement instanceof final J.ClassDeclaration memberClass) memberClasses.add(memberClass);
+            }
+            collectDeclaredTypes(memberClasses, types);
+        }
+    }
+
+    /**
+     * Computes whether the passed binary class name names a local or anonymous class, i.e. whether one of its nested names starts with a
+     * digit, like {@code Outer$1} or {@code Outer$1Local}.
+     *
+     * @param className the binary class name.
+     *
+     * @return the computed flag.
+     */
+    private static boolean isLocalOrAnonymous(final String className) {
+        for (int i = className.indexOf('$'); i >= 0 && i + 1 < className.length(); i = className.indexOf('$', i + 1)) {
+            if (Character.isDigit(className.charAt(i + 1))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Computes whether the passed type or one of its ancestors has method access transformers.
+     *
+     * @param type the type.
+     *
+     * @return the computed flag.
+     */
+    private boolean inheritsMethodTransforms(final JavaType.FullyQualified type) {
+        return !this.typeHierarchyIndex.transformedAncestors(type).isEmpty();
+    }
+
+}
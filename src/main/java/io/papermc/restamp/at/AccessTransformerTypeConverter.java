@@ -3,21 +3,74 @@ package io.papermc.restamp.at;
 import org.cadixdev.bombe.type.ArrayType;
 import org.cadixdev.bombe.type.BaseType;
 import org.cadixdev.bombe.type.FieldType;
+import org.cadixdev.bombe.type.MethodDescriptor;
 import org.cadixdev.bombe.type.ObjectType;
 import org.cadixdev.bombe.type.Type;
 import org.cadixdev.bombe.type.VoidType;
+import org.cadixdev.bombe.type.signature.MethodSignature;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 import org.openrewrite.java.tree.JavaType;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Supplier;
 
 /**
  * The access transformer type converter is responsible for converting between types from {@link Type} and rewrites {@link JavaType}.
+ * <p>
+ * Conversions are memoized by the identity of the converted {@link JavaType}, which the parser shares between all uses of the same type.
+ * Object types are additionally interned by their name, so that repeated conversions of common types, e.g. {@code String} or {@code List},
+ * neither allocate a new type nor a new method signature. The converter is safe for concurrent use.
  */
 @NullMarked
 public class AccessTransformerTypeConverter {
 
     private static final FieldType OBJECT = FieldType.of(Object.class);
+    private static final int DEFAULT_CACHE_SIZE = 1 << 12;
+
+    /**
+     * A memoized conversion.
+     *
+     * @param key   the converted java type.
+     * @param value the result of the conversion.
+     * @param <T>   the type of the result.
+     */
+    private record CacheEntry<T>(JavaType key, T value) {
+
+    }
+
+    private final int cacheMask;
+    private final @Nullable AtomicReferenceArray<@Nullable CacheEntry<Type>> typeCache;
+    private final @Nullable AtomicReferenceArray<@Nullable CacheEntry<MethodSignature>> signatureCache;
+    private final Map<String, ObjectType> objectTypes = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new type converter with the default cache size.
+     */
+    public AccessTransformerTypeConverter() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructs a new type converter.
+     * The conversions are memoized in direct mapped caches of the passed size, a conversion evicting a previous one with the same slot.
+     *
+     * @param cacheSize the amount of memoized types and method signatures each, a power of two or zero to disable memoization.
+     *
+     * @throws IllegalArgumentException if the cache size is neither a power of two nor zero.
+     */
+    public AccessTransformerTypeConverter(final int cacheSize) {
+        if (cacheSize < 0 || Integer.bitCount(cacheSize) > 1) {
+            throw new IllegalArgumentException("Cache size " + cacheSize + " is neither a power of two nor zero");
+        }
+        this.cacheMask = cacheSize - 1;
+        this.typeCache = cacheSize == 0 ? null : new AtomicReferenceArray<>(cacheSize);
+        this.signatureCache = cacheSize == 0 ? null : new AtomicReferenceArray<>(cacheSize);
+    }
 
     /**
      * Converts the passed {@link JavaType} to a {@link Type} if possible.
@@ -31,6 +84,54 @@ public class AccessTransformerTypeConverter {
      * @throws IllegalArgumentException if the passed java type could not be converted.
      */
     public Type convert(final JavaType javaType, final Supplier<String> debugContext) throws IllegalArgumentException {
+        final @Nullable Type cached = lookup(this.typeCache, javaType);
+        if (cached != null) return cached;
+
+        final Type type = this.convertUncached(javaType, debugContext);
+        store(this.typeCache, javaType, type);
+        return type;
+    }
+
+    /**
+     * Converts the passed {@link JavaType.Method} to the {@link MethodSignature} identifying it in access transformers.
+     * Constructors, which rewrite names {@code <constructor>} and types as returning the declaring type, are mapped to {@code <init>} methods
+     * returning {@code void}.
+     *
+     * @param methodType the rewrite method type to convert.
+     *
+     * @return the converted signature.
+     *
+     * @throws IllegalArgumentException if the parameter or return types of the method could not be converted.
+     */
+    public MethodSignature convert(final JavaType.Method methodType) throws IllegalArgumentException {
+        final @Nullable MethodSignature cached = lookup(this.signatureCache, methodType);
+        if (cached != null) return cached;
+
+        final boolean constructor = methodType.isConstructor();
+        final Type returnType = constructor
+            ? VoidType.INSTANCE
+            : this.convert(methodType.getReturnType(), () -> "Parsing return type of method " + describe(methodType));
+
+        final List<JavaType> javaParameterTypes = methodType.getParameterTypes();
+        final List<FieldType> parameterTypes = new ArrayList<>(javaParameterTypes.size());
+        for (int i = 0; i < javaParameterTypes.size(); i++) {
+            final int parameterIndex = i;
+            final Supplier<String> debugContext = () -> "Parsing parameter " + parameterIndex + " of method " + describe(methodType);
+            if (!(this.convert(javaParameterTypes.get(i), debugContext) instanceof final FieldType fieldType)) {
+                throw new IllegalArgumentException("Unexpected non-field parameter type. " + debugContext.get());
+            }
+            parameterTypes.add(fieldType);
+        }
+
+        final MethodSignature signature = new MethodSignature(
+            constructor ? "<init>" : methodType.getName(),
+            new MethodDescriptor(parameterTypes, returnType)
+        );
+        store(this.signatureCache, methodType, signature);
+        return signature;
+    }
+
+    private Type convertUncached(final JavaType javaType, final Supplier<String> debugContext) throws IllegalArgumentException {
         if (javaType instanceof final JavaType.Primitive primitive) {
             return switch (primitive) {
                 case Boolean -> BaseType.BOOLEAN;
@@ -47,11 +148,11 @@ public class AccessTransformerTypeConverter {
         }
 
         if (javaType instanceof final JavaType.Class knownType) {
-            return new ObjectType(knownType.getFullyQualifiedName());
+            return this.objectType(knownType.getFullyQualifiedName());
         }
 
         if (javaType instanceof final JavaType.Parameterized parameterized) {
-            return new ObjectType(parameterized.getFullyQualifiedName());
+            return this.objectType(parameterized.getFullyQualifiedName());
         }
 
         if (javaType instanceof JavaType.GenericTypeVariable) {
@@ -80,4 +181,26 @@ public class AccessTransformerTypeConverter {
         throw new IllegalArgumentException("Cannot map unexpected type: " + javaType + ". " + debugContext.get());
     }
 
+    private ObjectType objectType(final String fullyQualifiedName) {
+        final @Nullable ObjectType cached = this.objectTypes.get(fullyQualifiedName);
+        if (cached != null) return cached;
+        return this.objectTypes.computeIfAbsent(fullyQualifiedName, ObjectType::new);
+    }
+
+    private <T> @Nullable T lookup(final @Nullable AtomicReferenceArray<@Nullable CacheEntry<T>> cache, final JavaType key) {
+        if (cache == null) return null;
+        final @Nullable CacheEntry<T> entry = cache.get(System.identityHashCode(key) & this.cacheMask);
+        return entry != null && entry.key() == key ? entry.value() : null;
+    }
+
+    private <T> void store(final @Nullable AtomicReferenceArray<@Nullable CacheEntry<T>> cache, final JavaType key, final T value) {
+        if (cache == null) return;
+        cache.set(System.identityHashCode(key) & this.cacheMask, new CacheEntry<>(key, value));
+    }
+
+    private static String describe(final JavaType.Method methodType) {
+        final JavaType.@Nullable FullyQualified declaringType = methodType.getDeclaringType();
+        return (declaringType == null ? "?" : declaringType.getFullyQualifiedName()) + "#" + methodType.getName();
+    }
+
 }
@@ -0,0 +1,388 @@
+package io.papermc.restamp.at;
+
+import io.papermc.restamp.utils.FileHelper;
+import io.papermc.restamp.utils.FingerprintHelper;
+import org.cadixdev.at.AccessChange;
+import org.cadixdev.at.AccessTransform;
+import org.cadixdev.at.AccessTransformSet;
+import org.cadixdev.at.ModifierChange;
+import org.cadixdev.at.io.AccessTransformFormat;
+import org.cadixdev.bombe.type.MethodDescriptor;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The compiled access transformers type holds static methods for reading and writing the compiled binary access transformer format.
+ * <p>
+ * A compiled file holds the {@link IndexedAccessTransformSet} of an access transformer file, so that it can be loaded without parsing the text
+ * format. Its layout, in big endian, is
+ * <ol>
+ *     <li>a header, holding the {@link #MAGIC}, the {@link #VERSION}, the hash of the compiled source file and the amount of access transformers,
+ *     strings, classes and members,</li>
+ *     <li>the string table, holding the end offset of each string followed by all deduplicated names and descriptors encoded in UTF-8,</li>
+ *     <li>the class records, ordered by class name, each holding the string of its name, its transform and index, the offset and amount of
+ *     its fields and methods in the member records, as well as the transforms and indices of its field and method wildcards and</li>
+ *     <li>the member records, each holding the strings of its name and descriptor as well as its transform and index.</li>
+ * </ol>
+ * Compiled files are memory-mapped when loaded, the access transformers of a class are decoded from the mapped file on first lookup.
+ */
+@NullMarked
+public class CompiledAccessTransformers {
+
+    /**
+     * The magic number every compiled file starts with, {@code RSAT} in ASCII.
+     */
+    public static final int MAGIC = 0x52534154;
+
+    /**
+     * The version of the compiled format written by this type, files of other versions are not read.
+     */
+    public static final int VERSION = 2;
+
+    private static final int CLASS_RECORD_SIZE = 34;
+    private static final int MEMBER_RECORD_SIZE = 14;
+    private static final AccessChange[] ACCESS_CHANGES = AccessChange.values();
+    private static final ModifierChange[] MODIFIER_CHANGES = ModifierChange.values();
+
+    /**
+     * Looks up if the file at the passed path is a compiled access transformer file, i.e. starts with the {@link #MAGIC}.
+     *
+     * @param file the path to the file.
+     *
+     * @return {@code true} if the file is a compiled access transformer file.
+     *
+     * @throws IOException if reading the file failed.
+     */
+    public static boolean isCompiled(final Path file) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            return readFully(channel, magic) && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Compiles the passed access transformers.
+     *
+     * @param accessTransformers the access transformers to compile.
+     * @param sourceHash         the hash of the file the access transformers were read from, or an empty string if they were not read from a file.
+     *
+     * @return the compiled bytes.
+     */
+    public static byte[] compile(final IndexedAccessTransformSet accessTransformers, final String sourceHash) {
+        final Map<String, Integer> stringIds = new HashMap<>();
+        final List<byte[]> strings = new ArrayList<>();
+        final List<IndexedAccessTransformSet.MemberEntry> members = new ArrayList<>();
+        for (final IndexedAccessTransformSet.ClassEntry entry : accessTransformers.classes()) {
+            intern(stringIds, strings, entry.name());
+            for (final IndexedAccessTransformSet.MemberEntry member : entry.fields().values()) members.add(member);
+            for (final IndexedAccessTransformSet.MemberEntry member : entry.methods().values()) members.add(member);
+        }
+        for (final IndexedAccessTransformSet.MemberEntry member : members) {
+            intern(stringIds, strings, member.name());
+            intern(stringIds, strings, member.descriptor());
+        }
+
+        final byte[] hash = sourceHash.getBytes(StandardCharsets.UTF_8);
+        int stringBytes = 0;
+        for (final byte[] string : strings) stringBytes += string.length;
+        final int classCount = accessTransformers.classes().size();
+        final ByteBuffer buffer = ByteBuffer.allocate(
+            headerSize(hash.length) + strings.size() * Integer.BYTES + stringBytes + classCount * CLASS_RECORD_SIZE + members.size() * MEMBER_RECORD_SIZE
+        );
+
+        buffer.putInt(MAGIC).putInt(VERSION).putShort((short) hash.length).put(hash);
+        buffer.putInt(accessTransformers.size()).putInt(strings.size()).putInt(classCount).putInt(members.size());
+
+        int stringEnd = 0;
+        for (final byte[] string : strings) buffer.putInt(stringEnd += string.length);
+        for (final byte[] string : strings) buffer.put(string);
+
+        int memberOffset = 0;
+        for (final IndexedAccessTransformSet.ClassEntry entry : accessTransformers.classes()) {
+            buffer.putInt(stringIds.get(entry.name()));
+            putTransform(buffer, entry.transform());
+            buffer.putInt(entry.index()).putInt(memberOffset).putInt(entry.fields().size()).putInt(entry.methods().size());
+            putWildcard(buffer, entry.allFields());
+            putWildcard(buffer, entry.allMethods());
+            memberOffset += entry.fields().size() + entry.methods().size();
+        }
+        for (final IndexedAccessTransformSet.MemberEntry member : members) {
+            buffer.putInt(stringIds.get(member.name())).putInt(stringIds.get(member.descriptor()));
+            putTransform(buffer, member.transform());
+            buffer.putInt(member.index());
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Compiles the access transformer file at the passed source path into the compiled file at the passed target path.
+     * If the target already holds the compilation of a source file with the same hash, it is reused as is.
+     *
+     * @param source the path to the access transformer file to compile.
+     * @param format the format of the access transformer file.
+     * @param target the path to write the compiled file to.
+     *
+     * @return {@code true} if the source was compiled, {@code false} if the existing compiled file was reused.
+     *
+     * @throws IOException if reading the source or writing the compiled file failed.
+     */
+    public static boolean compile(final Path source, final AccessTransformFormat format, final Path target) throws IOException {
+        final String sourceHash = FingerprintHelper.hashFile(source);
+        if (sourceHash.equals(readSourceHash(target))) return false;
+
+        final AccessTransformSet accessTransformSet = format.read(source);
+        FileHelper.writeAtomically(target, compile(IndexedAccessTransformSet.of(accessTransformSet), sourceHash));
+        return true;
+    }
+
+    /**
+     * Loads the access transformer file at the passed source path via the compiled file at the passed path, compiling the source first if the
+     * compiled file does not exist or was compiled from a source file with a different hash.
+     *
+     * @param source   the path to the access transformer file.
+     * @param format   the format of the access transformer file.
+     * @param compiled the path of the compiled file.
+     *
+     * @return the loaded access transformers.
+     *
+     * @throws IOException if reading or compiling the access transformers failed.
+     */
+    public static IndexedAccessTransformSet loadOrCompile(final Path source, final AccessTransformFormat format, final Path compiled) throws IOException {
+        compile(source, format, compiled);
+        return load(compiled);
+    }
+
+    /**
+     * Loads the compiled file at the passed path by memory-mapping it.
+     * The returned access transformers decode the access transformers of each class from the mapped file on first lookup, so the compiled
+     * file must not be modified in place while they are in use. Files written by this type are always replaced atomically.
+     *
+     * @param compiled the path of the compiled file.
+     *
+     * @return the loaded access transformers.
+     *
+     * @throws IOException if mapping the file failed or the file is not a compiled file of the current {@link #VERSION}.
+     */
+    public static IndexedAccessTransformSet load(final Path compiled) throws IOException {
+        final ByteBuffer buffer;
+        try (final FileChannel channel = FileChannel.open(compiled, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return read(buffer, compiled.toString());
+    }
+
+    /**
+     * Reads the compiled access transformers from the passed buffer.
+     * The buffer is retained by the returned access transformers and must hence not be modified.
+     *
+     * @param buffer      the buffer holding the compiled access transformers.
+     * @param description the description of the buffer used in error messages.
+     *
+     * @return the read access transformers.
+     *
+     * @throws IOException if the buffer does not hold a compiled file of the current {@link #VERSION}.
+     */
+    public static IndexedAccessTransformSet read(final ByteBuffer buffer, final String description) throws IOException {
+        if (buffer.limit() < headerSize(0) || buffer.getInt(0) != MAGIC) {
+            throw new IOException(description + " is not a compiled access transformer file");
+        }
+        if (buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException(description + " was compiled with format version " + buffer.getInt(Integer.BYTES) + " instead of " + VERSION);
+        }
+
+        final Reader reader = new Reader(buffer.duplicate().asReadOnlyBuffer(), Short.toUnsignedInt(buffer.getShort(2 * Integer.BYTES)));
+        return new IndexedAccessTransformSet(reader, reader.size);
+    }
+
+    /**
+     * Reads the hash of the source file the compiled file at the passed path was compiled from.
+     *
+     * @param compiled the path to the compiled file.
+     *
+     * @return the hash or null if no compiled file of the current {@link #VERSION} exists at the path.
+     *
+     * @throws IOException if reading the compiled file failed.
+     */
+    public static @Nullable String readSourceHash(final Path compiled) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(2 * Integer.BYTES + Short.BYTES);
+        try (final FileChannel channel = FileChannel.open(compiled, StandardOpenOption.READ)) {
+            if (!readFully(channel, header) || header.getInt(0) != MAGIC || header.getInt(Integer.BYTES) != VERSION) return null;
+
+            final ByteBuffer hash = ByteBuffer.allocate(Short.toUnsignedInt(header.getShort(2 * Integer.BYTES)));
+            return readFully(channel, hash) ? new String(hash.array(), StandardCharsets.UTF_8) : null;
+        } catch (final NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static boolean readFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) return false;
+        }
+        return true;
+    }
+
+    private static int headerSize(final int hashLength) {
+        return 2 * Integer.BYTES + Short.BYTES + hashLength + 4 * Integer.BYTES;
+    }
+
+    private static void intern(final Map<String, Integer> stringIds, final List<byte[]> strings, final String string) {
+        if (stringIds.containsKey(string)) return;
+        stringIds.put(string, strings.size());
+        strings.add(string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void putWildcard(final ByteBuffer buffer, final IndexedAccessTransformSet.@Nullable MemberEntry wildcard) {
+        putTransform(buffer, wildcard == null ? AccessTransform.EMPTY : wildcard.transform());
+        buffer.putInt(wildcard == null ? IndexedAccessTransformSet.NO_INDEX : wildcard.index());
+    }
+
+    private static void putTransform(final ByteBuffer buffer, final AccessTransform transform) {
+        buffer.put((byte) transform.getAccess().ordinal()).put((byte) transform.getFinal().ordinal());
+    }
+
+    /**
+     * The reader decodes the class entries of a compiled file on demand.
+     */
+    private static final class Reader implements IndexedAccessTransformSet.ClassSource {
+
+        private final ByteBuffer buffer;
+        private final int size;
+        private final int classCount;
+        private final int stringOffsets;
+        private final int stringData;
+        private final int classRecords;
+        private final int memberRecords;
+        private final @Nullable String[] strings;
+
+        private Reader(final ByteBuffer buffer, final int hashLength) throws IOException {
+            this.buffer = buffer;
+            if (buffer.limit() < headerSize(hashLength)) throw new IOException("Compiled access transformer file is truncated");
+            final int counts = headerSize(hashLength) - 4 * Integer.BYTES;
+            this.size = buffer.getInt(counts);
+            final int stringCount = buffer.getInt(counts + Integer.BYTES);
+            this.classCount = buffer.getInt(counts + 2 * Integer.BYTES);
+            final int memberCount = buffer.getInt(counts + 3 * Integer.BYTES);
+
+            this.stringOffsets = headerSize(hashLength);
+            this.stringData = this.stringOffsets + stringCount * Integer.BYTES;
+            this.classRecords = this.stringData + (stringCount == 0 ? 0 : buffer.getInt(this.stringData - Integer.BYTES));
+            this.memberRecords = this.classRecords + this.classCount * CLASS_RECORD_SIZE;
+            if (this.memberRecords + (long) memberCount * MEMBER_RECORD_SIZE != buffer.limit()) {
+                throw new IOException("Compiled access transformer file is truncated or corrupt");
+            }
+            this.strings = new String[stringCount];
+        }
+
+        @Override
+        public int classCount() {
+            return this.classCount;
+        }
+
+        @Override
+        public int positionOf(final String className) {
+            int low = 0;
+            int high = this.classCount - 1;
+            while (low <= high) {
+                final int middle = (low + high) >>> 1;
+                final int comparison = this.string(this.buffer.getInt(this.classRecords + middle * CLASS_RECORD_SIZE)).compareTo(className);
+                if (comparison < 0) low = middle + 1;
+                else if (comparison > 0) high = middle - 1;
+                else return middle;
+            }
+            return -1;
+        }
+
+        @Override
+        public IndexedAccessTransformSet.ClassEntry classAt(final int position) {
+            final int record = this.classRecords + position * CLASS_RECORD_SIZE;
+            final String className = this.string(this.buffer.getInt(record));
+            final AccessTransform classTransform = this.transform(record + Integer.BYTES);
+            final int classIndex = this.buffer.getInt(record + Integer.BYTES + 2);
+            final int memberOffset = this.buffer.getInt(record + 2 * Integer.BYTES + 2);
+            final int fieldCount = this.buffer.getInt(record + 3 * Integer.BYTES + 2);
+            final int methodCount = this.buffer.getInt(record + 4 * Integer.BYTES + 2);
+
+            final Map<String, IndexedAccessTransformSet.MemberEntry> fields = new LinkedHashMap<>();
+            for (int i = 0; i < fieldCount; i++) {
+                final IndexedAccessTransformSet.MemberEntry field = this.member(className, memberOffset + i, false);
+                fields.put(field.name(), field);
+            }
+
+            final Map<MethodSignature, IndexedAccessTransformSet.MemberEntry> methods = new LinkedHashMap<>();
+            final Map<String, List<IndexedAccessTransformSet.MemberEntry>> methodsByName = new LinkedHashMap<>();
+            for (int i = 0; i < methodCount; i++) {
+                final IndexedAccessTransformSet.MemberEntry method = this.member(className, memberOffset + fieldCount + i, true);
+                methods.put(Objects.requireNonNull(method.signature()), method);
+                methodsByName.computeIfAbsent(method.name(), n -> new ArrayList<>(1)).add(method);
+            }
+            methodsByName.replaceAll((n, entries) -> List.copyOf(entries));
+
+            return new IndexedAccessTransformSet.ClassEntry(
+                className,
+                classTransform,
+                classIndex,
+                IndexedAccessTransformSet.immutable(fields),
+                IndexedAccessTransformSet.immutable(methods),
+                IndexedAccessTransformSet.immutable(methodsByName),
+                this.wildcard(className, record + 5 * Integer.BYTES + 2, ""),
+                this.wildcard(className, record + 6 * Integer.BYTES + 4, IndexedAccessTransformSet.WILDCARD_METHOD_DESCRIPTOR)
+            );
+        }
+
+        private IndexedAccessTransformSet.@Nullable MemberEntry wildcard(final String className, final int offset, final String descriptor) {
+            final int index = this.buffer.getInt(offset + 2);
+            if (index == IndexedAccessTransformSet.NO_INDEX) return null;
+            return new IndexedAccessTransformSet.MemberEntry(
+                className, IndexedAccessTransformSet.WILDCARD, descriptor, null, this.transform(offset), index
+            );
+        }
+
+        private IndexedAccessTransformSet.MemberEntry member(final String className, final int position, final boolean method) {
+            final int record = this.memberRecords + position * MEMBER_RECORD_SIZE;
+            final String name = this.string(this.buffer.getInt(record));
+            final String descriptor = this.string(this.buffer.getInt(record + Integer.BYTES));
+            return new IndexedAccessTransformSet.MemberEntry(
+                className,
+                name,
+                descriptor,
+                method ? new MethodSignature(name, MethodDescriptor.of(descriptor)) : null,
+                this.transform(record + 2 * Integer.BYTES),
+                this.buffer.getInt(record + 2 * Integer.BYTES + 2)
+            );
+        }
+
+        private AccessTransform transform(final int offset) {
+            return AccessTransform.of(ACCESS_CHANGES[this.buffer.get(offset)], MODIFIER_CHANGES[this.buffer.get(offset + 1)]);
+        }
+
+        // Strings are immutable, hence racing threads may publish either of two equal decoded strings.
+        private String string(final int id) {
+            final @Nullable String cached = this.strings[id];
+            if (cached != null) return cached;
+
+            final int start = id == 0 ? 0 : this.buffer.getInt(this.stringOffsets + (id - 1) * Integer.BYTES);
+            final int end = this.buffer.getInt(this.stringOffsets + id * Integer.BYTES);
+            final byte[] bytes = new byte[end - start];
+            this.buffer.get(this.stringData + start, bytes);
+            return this.strings[id] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+    }
+
+}
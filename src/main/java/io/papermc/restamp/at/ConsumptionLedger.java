@@ -0,0 +1,195 @@
+package io.papermc.restamp.at;
+
+import org.cadixdev.at.AccessTransformSet;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The consumption ledger tracks which access transformers of an {@link IndexedAccessTransformSet} were consumed by a restamp run.
+ * <p>
+ * Consuming an access transformer sets the bit of its index in a lock-free bitset, so that source files can be transformed concurrently
+ * without mutating any shared state besides the ledger. The access transformers themselves are never modified.
+ */
+@NullMarked
+public class ConsumptionLedger {
+
+    private final IndexedAccessTransformSet accessTransformers;
+    private final AtomicLongArray consumed;
+
+    /**
+     * Constructs a new ledger tracking the passed access transformers.
+     *
+     * @param accessTransformers the access transformers to track.
+     */
+    public ConsumptionLedger(final IndexedAccessTransformSet accessTransformers) {
+        this.accessTransformers = accessTransformers;
+        this.consumed = new AtomicLongArray((accessTransformers.size() + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    /**
+     * Constructs a new ledger tracking the non-empty access transformers of the passed set.
+     *
+     * @param accessTransformSet the access transformers to track.
+     */
+    public ConsumptionLedger(final AccessTransformSet accessTransformSet) {
+        this(IndexedAccessTransformSet.of(accessTransformSet));
+    }
+
+    /**
+     * Yields the access transformers tracked by this ledger.
+     *
+     * @return the access transformers.
+     */
+    public IndexedAccessTransformSet accessTransformers() {
+        return this.accessTransformers;
+    }
+
+    /**
+     * Consumes the access transformer of the passed index.
+     *
+     * @param index the index of the access transformer, {@link IndexedAccessTransformSet#NO_INDEX} is ignored.
+     */
+    public void consume(final int index) {
+        if (index == IndexedAccessTransformSet.NO_INDEX) return;
+        final long mask = 1L << index; // Shifts are taken modulo the word size.
+        this.consumed.getAndAccumulate(index / Long.SIZE, mask, (word, bit) -> word | bit);
+    }
+
+    /**
+     * Looks up if the access transformer of the passed index was consumed.
+     *
+     * @param index the index of the access transformer.
+     *
+     * @return {@code true} if it was consumed or the index is {@link IndexedAccessTransformSet#NO_INDEX}.
+     */
+    public boolean isConsumed(final int index) {
+        if (index == IndexedAccessTransformSet.NO_INDEX) return true;
+        return (this.consumed.get(index / Long.SIZE) & (1L << index)) != 0;
+    }
+
+    /**
+     * Consumes the class access transformer of the passed class.
+     *
+     * @param className the binary name of the class.
+     */
+    public void consumeClass(final String className) {
+        final IndexedAccessTransformSet.@Nullable ClassEntry entry = this.accessTransformers.get(className);
+        if (entry != null) this.consume(entry.index());
+    }
+
+    /**
+     * Consumes the access transformer of the passed field.
+     *
+     * @param className the binary name of the class declaring the field.
+     * @param fieldName the name of the field, or {@link IndexedAccessTransformSet#WILDCARD} for the wildcard access transformer of all fields.
+     */
+    public void consumeField(final String className, final String fieldName) {
+        this.consume(memberIndex(this.fieldEntry(className, fieldName)));
+    }
+
+    /**
+     * Consumes the access transformer of the passed method.
+     *
+     * @param className       the binary name of the class declaring the method.
+     * @param methodSignature the signature of the method.
+     */
+    public void consumeMethod(final String className, final MethodSignature methodSignature) {
+        this.consume(memberIndex(this.methodEntry(className, methodSignature)));
+    }
+
+    /**
+     * Consumes the wildcard access transformer of all methods of the passed class.
+     *
+     * @param className the binary name of the class.
+     */
+    public void consumeAllMethods(final String className) {
+        final IndexedAccessTransformSet.@Nullable ClassEntry entry = this.accessTransformers.get(className);
+        if (entry != null) this.consume(memberIndex(entry.allMethods()));
+    }
+
+    /**
+     * Looks up if the class access transformer of the passed class was consumed.
+     *
+     * @param className the binary name of the class.
+     *
+     * @return {@code true} if it was consumed or the ledger does not track it.
+     */
+    boolean isClassConsumed(final String className) {
+        final IndexedAccessTransformSet.@Nullable ClassEntry entry = this.accessTransformers.get(className);
+        return entry == null || this.isConsumed(entry.index());
+    }
+
+    /**
+     * Looks up if the access transformer of the passed field was consumed.
+     *
+     * @param className the binary name of the class declaring the field.
+     * @param fieldName the name of the field, or {@link IndexedAccessTransformSet#WILDCARD} for the wildcard access transformer of all fields.
+     *
+     * @return {@code true} if it was consumed or the ledger does not track it.
+     */
+    boolean isFieldConsumed(final String className, final String fieldName) {
+        return this.isConsumed(memberIndex(this.fieldEntry(className, fieldName)));
+    }
+
+    /**
+     * Looks up if the access transformer of the passed method was consumed.
+     *
+     * @param className       the binary name of the class declaring the method.
+     * @param methodSignature the signature of the method.
+     *
+     * @return {@code true} if it was consumed or the ledger does not track it.
+     */
+    boolean isMethodConsumed(final String className, final MethodSignature methodSignature) {
+        return this.isConsumed(memberIndex(this.methodEntry(className, methodSignature)));
+    }
+
+    /**
+     * Describes the access transformers that were not consumed, one line per class in the order of the class names.
+     *
+     * @return the descriptions, empty if all access transformers were consumed.
+     */
+    public List<String> describeNotConsumed() {
+        final List<String> descriptions = new ArrayList<>();
+        for (final IndexedAccessTransformSet.ClassEntry entry : this.accessTransformers.classes()) {
+            final boolean classNotConsumed = !this.isConsumed(entry.index());
+            final List<String> fields = this.describeNotConsumed(entry.allFields(), entry.fields().values());
+            final List<String> methods = this.describeNotConsumed(entry.allMethods(), entry.methods().values());
+            if (!classNotConsumed && fields.isEmpty() && methods.isEmpty()) continue;
+
+            descriptions.add("%s: [%s] {%s}".formatted(entry.name(), String.join(", ", fields), String.join(", ", methods)));
+        }
+        return descriptions;
+    }
+
+    private List<String> describeNotConsumed(final IndexedAccessTransformSet.@Nullable MemberEntry wildcard,
+                                             final Collection<IndexedAccessTransformSet.MemberEntry> members) {
+        final List<String> descriptions = new ArrayList<>();
+        if (wildcard != null && !this.isConsumed(wildcard.index())) descriptions.add(wildcard.identifier());
+        for (final IndexedAccessTransformSet.MemberEntry member : members) {
+            if (!this.isConsumed(member.index())) descriptions.add(member.identifier());
+        }
+        return descriptions;
+    }
+
+    private IndexedAccessTransformSet.@Nullable MemberEntry fieldEntry(final String className, final String fieldName) {
+        final IndexedAccessTransformSet.@Nullable ClassEntry entry = this.accessTransformers.get(className);
+        if (entry == null) return null;
+        return fieldName.equals(IndexedAccessTransformSet.WILDCARD) ? entry.allFields() : entry.fields().get(fieldName);
+    }
+
+    private IndexedAccessTransformSet.@Nullable MemberEntry methodEntry(final String className, final MethodSignature methodSignature) {
+        final IndexedAccessTransformSet.@Nullable ClassEntry entry = this.accessTransformers.get(className);
+        return entry == null ? null : entry.methods().get(methodSignature);
+    }
+
+    private static int memberIndex(final IndexedAccessTransformSet.@Nullable MemberEntry entry) {
+        return entry == null ? IndexedAccessTransformSet.NO_INDEX : entry.index();
+    }
+
+}
@@ -0,0 +1,309 @@
+package io.papermc.restamp.at;
+
+import org.cadixdev.at.AccessTransform;
+import org.cadixdev.at.AccessTransformSet;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * The indexed access transform set is an immutable, read-optimized view of the non-empty access transformers of an {@link AccessTransformSet}.
+ * <p>
+ * The index is built once per run and shared by everything reading the access transformers, so that neither the set has to be copied to
+ * preserve its original state nor its maps have to be mutated to track the consumption of access transformers. Instead, every class, field
+ * and method access transformer is assigned a fixed, dense index, by which a {@link ConsumptionLedger} tracks its consumption.
+ * <p>
+ * Names are shared between all entries of the index, and the descriptors of methods are computed once when the index is built. Classes,
+ * fields and methods are indexed in the order of their names and descriptors, so that everything iterating the index is deterministic.
+ * <p>
+ * An index may also be backed by a {@link CompiledAccessTransformers compiled access transformer file}, in which case the access transformers
+ * of a class are only decoded once they are first looked up.
+ */
+@NullMarked
+public final class IndexedAccessTransformSet {
+
+    /**
+     * The index of an entry that holds no access transformer, e.g. a class that only declares member access transformers.
+     */
+    public static final int NO_INDEX = -1;
+
+    /**
+     * The name of the wildcard entries targeting all fields or all methods of a class.
+     */
+    public static final String WILDCARD = "*";
+
+    /**
+     * The descriptor of the wildcard entry targeting all methods of a class, which is hence identified as {@code *()}.
+     */
+    public static final String WILDCARD_METHOD_DESCRIPTOR = "()";
+
+    /**
+     * The indexed access transformers of a single class.
+     *
+     * @param name          the binary name of the class.
+     * @param transform     the class access transformer, {@link AccessTransform#EMPTY} if there is none.
+     * @param index         the index of the class access transformer, or {@link #NO_INDEX} if there is none.
+     * @param fields        the field access transformers by the name of the field.
+     * @param methods       the method access transformers by the signature of the method.
+     * @param methodsByName the method access transformers by the name of the method, each list ordered by descriptor.
+     * @param allFields     the wildcard access transformer applying to every field declared by the class, or null if there is none.
+     * @param allMethods    the wildcard access transformer applying to every method and constructor declared by the class, or null if there
+     *                      is none. Unlike access transformers of specific methods, it does not apply to overriding methods of subclasses.
+     */
+    public record ClassEntry(String name,
+                             AccessTransform transform,
+                             int index,
+                             Map<String, MemberEntry> fields,
+                             Map<MethodSignature, MemberEntry> methods,
+                             Map<String, List<MemberEntry>> methodsByName,
+                             @Nullable MemberEntry allFields,
+                             @Nullable MemberEntry allMethods) {
+
+        /**
+         * Yields whether the class has method access transformers.
+         *
+         * @return the computed flag.
+         */
+        public boolean hasMethods() {
+            return !this.methods.isEmpty();
+        }
+
+    }
+
+    /**
+     * A field or method access transformer, or a wildcard access transformer named {@link #WILDCARD}.
+     *
+     * @param owner      the binary name of the class declaring the member.
+     * @param name       the name of the member.
+     * @param descriptor the descriptor of the method, or an empty string for fields.
+     * @param signature  the signature of the method, or null for fields and wildcards.
+     * @param transform  the access transformer.
+     * @param index      the index of the access transformer.
+     */
+    public record MemberEntry(String owner, String name, String descriptor, @Nullable MethodSignature signature, AccessTransform transform, int index) {
+
+        /**
+         * Yields the identifier of the member as used in reports, the name for fields and the name followed by the descriptor for methods.
+         *
+         * @return the identifier.
+         */
+        public String identifier() {
+            return this.name + this.descriptor;
+        }
+
+    }
+
+    /**
+     * The source of the class entries of an index, which either holds all entries in memory or decodes them on demand.
+     */
+    interface ClassSource {
+
+        /**
+         * Yields the amount of classes.
+         *
+         * @return the amount.
+         */
+        int classCount();
+
+        /**
+         * Yields the position of the passed class in the order of the class names.
+         *
+         * @param className the binary name of the class.
+         *
+         * @return the position or a negative value if the class has no access transformers.
+         */
+        int positionOf(String className);
+
+        /**
+         * Yields the class entry at the passed position.
+         *
+         * @param position the position of the class.
+         *
+         * @return the class entry.
+         */
+        ClassEntry classAt(int position);
+
+    }
+
+    private final ClassSource source;
+    private final @Nullable ClassEntry[] decodedClasses;
+    private final int size;
+    private volatile @Nullable List<ClassEntry> sortedClasses;
+
+    IndexedAccessTransformSet(final ClassSource source, final int size) {
+        this.source = source;
+        this.decodedClasses = new ClassEntry[source.classCount()];
+        this.size = size;
+    }
+
+    /**
+     * Indexes the non-empty access transformers of the passed set.
+     * The set is only read, later changes to it are not reflected by the index.
+     *
+     * @param accessTransformSet the access transformers to index.
+     *
+     * @return the built index.
+     */
+    public static IndexedAccessTransformSet of(final AccessTransformSet accessTransformSet) {
+        final Map<String, String> names = new HashMap<>();
+        final Map<String, Integer> positions = new HashMap<>();
+        final List<ClassEntry> sortedClasses = new ArrayList<>();
+
+        int size = 0;
+        for (final AccessTransformSet.Class transformerClass : new TreeMap<>(accessTransformSet.getClasses()).values()) {
+            final String className = names.computeIfAbsent(transformerClass.getName(), n -> n);
+            final AccessTransform classTransform = transformerClass.get();
+            final int classIndex = classTransform.isEmpty() ? NO_INDEX : size++;
+
+            final @Nullable MemberEntry allFields = transformerClass.allFields().isEmpty()
+                ? null
+                : new MemberEntry(className, WILDCARD, "", null, transformerClass.allFields(), size++);
+            final Map<String, MemberEntry> fields = new LinkedHashMap<>();
+            for (final Map.Entry<String, AccessTransform> field : new TreeMap<>(transformerClass.getFields()).entrySet()) {
+                if (field.getValue().isEmpty()) continue;
+                final String fieldName = names.computeIfAbsent(field.getKey(), n -> n);
+                fields.put(fieldName, new MemberEntry(className, fieldName, "", null, field.getValue(), size++));
+            }
+
+            final @Nullable MemberEntry allMethods = transformerClass.allMethods().isEmpty()
+                ? null
+                : new MemberEntry(className, WILDCARD, WILDCARD_METHOD_DESCRIPTOR, null, transformerClass.allMethods(), size++);
+            final List<Map.Entry<MethodSignature, AccessTransform>> sortedMethods = new ArrayList<>(transformerClass.getMethods().entrySet());
+            sortedMethods.sort(Comparator.comparing(e -> e.getKey().toJvmsIdentifier()));
+            final Map<MethodSignature, MemberEntry> methods = new LinkedHashMap<>();
+            final Map<String, List<MemberEntry>> methodsByName = new LinkedHashMap<>();
+            for (final Map.Entry<MethodSignature, AccessTransform> method : sortedMethods) {
+                if (method.getValue().isEmpty()) continue;
+                final String methodName = names.computeIfAbsent(method.getKey().getName(), n -> n);
+                final String identifier = method.getKey().toJvmsIdentifier();
+                final MemberEntry entry = new MemberEntry(
+                    className, methodName, identifier.substring(identifier.indexOf('(')), method.getKey(), method.getValue(), size++
+                );
+                methods.put(method.getKey(), entry);
+                methodsByName.computeIfAbsent(methodName, n -> new ArrayList<>(1)).add(entry);
+            }
+
+            if (classIndex == NO_INDEX && allFields == null && fields.isEmpty() && allMethods == null && methods.isEmpty()) continue;
+
+            methodsByName.replaceAll((n, entries) -> List.copyOf(entries));
+            final ClassEntry classEntry = new ClassEntry(
+                className,
+                classTransform,
+                classIndex,
+                immutable(fields),
+                immutable(methods),
+                immutable(methodsByName),
+                allFields,
+                allMethods
+            );
+            positions.put(className, sortedClasses.size());
+            sortedClasses.add(classEntry);
+        }
+
+        final List<ClassEntry> classes = List.copyOf(sortedClasses);
+        return new IndexedAccessTransformSet(new ClassSource() {
+            @Override
+            public int classCount() {
+                return classes.size();
+            }
+
+            @Override
+            public int positionOf(final String className) {
+                return positions.getOrDefault(className, -1);
+            }
+
+            @Override
+            public ClassEntry classAt(final int position) {
+                return classes.get(position);
+            }
+        }, size);
+    }
+
+    /**
+     * Yields the indexed access transformers of the passed class.
+     *
+     * @param className the binary name of the class.
+     *
+     * @return the access transformers or null if the class has none.
+     */
+    public @Nullable ClassEntry get(final String className) {
+        final int position = this.source.positionOf(className);
+        return position < 0 ? null : this.classAt(position);
+    }
+
+    /**
+     * Yields the indexed access transformers of all classes, in the order of the class names.
+     *
+     * @return the classes.
+     */
+    public List<ClassEntry> classes() {
+        @Nullable List<ClassEntry> sortedClasses = this.sortedClasses;
+        if (sortedClasses == null) {
+            final List<ClassEntry> classes = new ArrayList<>(this.decodedClasses.length);
+            for (int i = 0; i < this.decodedClasses.length; i++) classes.add(this.classAt(i));
+            this.sortedClasses = sortedClasses = List.copyOf(classes);
+        }
+        return sortedClasses;
+    }
+
+    /**
+     * Yields the amount of indexed access transformers, i.e. the upper bound of their indices.
+     *
+     * @return the amount.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Yields whether the index holds no access transformers.
+     *
+     * @return the computed flag.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Creates a mutable access transform set holding the indexed access transformers.
+     *
+     * @return the created set.
+     */
+    public AccessTransformSet toAccessTransformSet() {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        for (final ClassEntry entry : this.classes()) {
+            final AccessTransformSet.Class transformerClass = accessTransformSet.getOrCreateClass(entry.name());
+            if (entry.index() != NO_INDEX) transformerClass.replace(entry.transform());
+            if (entry.allFields() != null) transformerClass.mergeAllFields(entry.allFields().transform());
+            if (entry.allMethods() != null) transformerClass.mergeAllMethods(entry.allMethods().transform());
+            for (final MemberEntry field : entry.fields().values()) transformerClass.replaceField(field.name(), field.transform());
+            for (final MemberEntry method : entry.methods().values()) {
+                transformerClass.replaceMethod(Objects.requireNonNull(method.signature()), method.transform());
+            }
+        }
+        return accessTransformSet;
+    }
+
+    // Entries decoded concurrently are equal, hence racing threads may publish either of them.
+    private ClassEntry classAt(final int position) {
+        final @Nullable ClassEntry decoded = this.decodedClasses[position];
+        if (decoded != null) return decoded;
+        return this.decodedClasses[position] = this.source.classAt(position);
+    }
+
+    // Map.copyOf does not retain the insertion order, which the index provides for iteration.
+    static <K, V> Map<K, V> immutable(final Map<K, V> map) {
+        return map.isEmpty() ? Map.of() : Collections.unmodifiableMap(map);
+    }
+
+}
@@ -0,0 +1,144 @@
+package io.papermc.restamp.at;
+
+import io.papermc.restamp.bytecode.BytecodeIndex;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.java.tree.JavaType;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The type hierarchy index yields the ancestors of types, i.e. their superclasses and interfaces, and which of them have method access
+ * transformers.
+ * <p>
+ * Method access transformers also apply to the methods overriding the targeted method, in subclasses as well as in implementations of an
+ * interface. The index computes the ancestors of each type once, reusing the cached ancestors of its direct supertypes, so that looking up the
+ * inherited access transformers of a method is a single map lookup, which yields an empty list for the majority of types that have no
+ * ancestors with method access transformers.
+ * <p>
+ * The supertypes of a type are taken from its type attribution. If a type was not fully attributed, e.g. because its supertypes were not on the
+ * classpath, they are looked up in the bytecode index if available.
+ * <p>
+ * The index is safe for concurrent use.
+ */
+@NullMarked
+public class TypeHierarchyIndex {
+
+    private final Set<String> typesWithMethodTransforms = new HashSet<>();
+    private final @Nullable BytecodeIndex bytecodeIndex;
+    private final Map<String, List<String>> ancestors = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> transformedAncestors = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new hierarchy index for the method access transformers of the passed index.
+     *
+     * @param accessTransformers the access transformers.
+     * @param bytecodeIndex      the index of the compiled classes, used to look up supertypes that were not type attributed, or null.
+     */
+    public TypeHierarchyIndex(final IndexedAccessTransformSet accessTransformers, final @Nullable BytecodeIndex bytecodeIndex) {
+        this.bytecodeIndex = bytecodeIndex;
+        for (final IndexedAccessTransformSet.ClassEntry entry : accessTransformers.classes()) {
+            if (entry.hasMethods()) this.typesWithMethodTransforms.add(entry.name());
+        }
+    }
+
+    /**
+     * Yields whether any type has method access transformers.
+     *
+     * @return the computed flag.
+     */
+    public boolean hasMethodTransforms() {
+        return !this.typesWithMethodTransforms.isEmpty();
+    }
+
+    /**
+     * Yields the passed type and its ancestors that have method access transformers.
+     * The type itself comes first, followed by the ancestors in the order of {@link #ancestors(JavaType.FullyQualified)}.
+     *
+     * @param type the type.
+     *
+     * @return the fully qualified names of the types with method access transformers.
+     */
+    public List<String> transformedAncestors(final JavaType.FullyQualified type) {
+        final String typeName = type.getFullyQualifiedName();
+        final @Nullable List<String> cached = this.transformedAncestors.get(typeName);
+        if (cached != null) return cached;
+
+        if (this.typesWithMethodTransforms.isEmpty()) return List.of();
+        final List<String> transformedAncestors = this.ancestors(type).stream().filter(this.typesWithMethodTransforms::contains).toList();
+        this.transformedAncestors.put(typeName, transformedAncestors);
+        return transformedAncestors;
+    }
+
+    /**
+     * Yields the passed type and all of its ancestors.
+     * The type itself comes first, followed by the ancestors of its superclass and then those of its interfaces in declaration order, each
+     * ancestor only listed once.
+     *
+     * @param type the type.
+     *
+     * @return the fully qualified names of the type and its ancestors.
+     */
+    public List<String> ancestors(final JavaType.FullyQualified type) {
+        return this.ancestors(type.getFullyQualifiedName(), type);
+    }
+
+    private List<String> ancestors(final String typeName, final JavaType.@Nullable FullyQualified type) {
+        final @Nullable List<String> cached = this.ancestors.get(typeName);
+        if (cached != null) return cached;
+
+        final Set<String> ancestors = new LinkedHashSet<>();
+        ancestors.add(typeName);
+
+        final List<JavaType.FullyQualified> attributedSupertypes = new ArrayList<>();
+        final boolean fullyAttributed = collectAttributedSupertypes(type, attributedSupertypes);
+        final BytecodeIndex.@Nullable ClassInfo classInfo = this.bytecodeIndex == null ? null : this.bytecodeIndex.get(typeName);
+        if (fullyAttributed || classInfo == null) {
+            for (final JavaType.FullyQualified supertype : attributedSupertypes) {
+                ancestors.addAll(this.ancestors(supertype.getFullyQualifiedName(), supertype));
+            }
+        } else {
+            final @Nullable String superName = classInfo.superName();
+            if (superName != null) ancestors.addAll(this.ancestors(superName, null));
+            for (final String interfaceName : classInfo.interfaces()) ancestors.addAll(this.ancestors(interfaceName, null));
+        }
+
+        final List<String> result = List.copyOf(ancestors);
+        this.ancestors.put(typeName, result);
+        return result;
+    }
+
+    /**
+     * Collects the direct supertypes of a type from its type attribution, the superclass first, followed by the interfaces.
+     *
+     * @param type       the type, or null if only its name is known.
+     * @param supertypes the list to add the attributed supertypes to.
+     *
+     * @return true if the type and all of its direct supertypes were attributed.
+     */
+    private static boolean collectAttributedSupertypes(final JavaType.@Nullable FullyQualified type,
+                                                       final List<JavaType.FullyQualified> supertypes) {
+        if (type == null || type instanceof JavaType.Unknown) return false;
+
+        boolean fullyAttributed = true;
+        final List<JavaType.FullyQualified> candidates = new ArrayList<>();
+        final JavaType.@Nullable FullyQualified supertype = type.getSupertype();
+        if (supertype != null) candidates.add(supertype);
+        candidates.addAll(type.getInterfaces());
+        for (final JavaType.FullyQualified candidate : candidates) {
+            if (candidate instanceof JavaType.Unknown) {
+                fullyAttributed = false;
+            } else {
+                supertypes.add(candidate);
+            }
+        }
+        return fullyAttributed;
+    }
+
+}
@@ -0,0 +1,303 @@
+package io.papermc.restamp.bytecode;
+
+import io.papermc.restamp.utils.DescriptorHelper;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The bytecode index holds the supertypes and method descriptors of the classes compiled from the source files restamp transforms.
+ * <p>
+ * Access transformers identify methods by their descriptor, which restamp usually computes from the type attributed method declarations of
+ * the parsed source files, requiring the entire classpath to be parsed with. The bytecode index instead reads the descriptors straight from
+ * the compiled classes of the project, e.g. its jar, and matches them to source declarations by their owner, name, parameter count and the
+ * erased simple names of their parameter types. Source files can hence be parsed with no or a minimal classpath, while method access
+ * transformers are still resolved exactly.
+ * <p>
+ * Constructors may take parameters that are not declared in source, e.g. the outer instance of inner classes, the name and ordinal of enums
+ * or the captured variables of local classes. These are skipped based on the access flags and inner class attribute of the class file.
+ * <p>
+ * The index reads class files directly, only looking at their constant pool, supertypes, methods and inner class attributes.
+ */
+@NullMarked
+public class BytecodeIndex {
+
+    private static final String CLASS_FILE_SUFFIX = ".class";
+    private static final String METADATA_PREFIX = "META-INF/";
+    private static final int CLASS_FILE_MAGIC = 0xCAFEBABE;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_SYNTHETIC = 0x1000;
+    private static final int ACC_ENUM = 0x4000;
+    private static final String CONSTRUCTOR_NAME = "<init>";
+    private static final String INNER_CLASSES_ATTRIBUTE = "InnerClasses";
+
+    /**
+     * A class read from a class file.
+     *
+     * @param name                          the binary name of the class, e.g. {@code java.util.Map$Entry}.
+     * @param superName                     the binary name of the superclass, or null for {@code java.lang.Object} and module descriptors.
+     * @param interfaces                    the binary names of the directly implemented interfaces.
+     * @param methods                       the descriptors of the methods of the class by their name.
+     * @param implicitConstructorParameters the amount of leading constructor parameters not declared in source, e.g. the outer instance of
+     *                                      a non-static member class or the name and ordinal of an enum.
+     * @param local                         whether the class is a local or anonymous class, whose constructors may further take the outer
+     *                                      instance as leading and the captured variables as trailing parameters not declared in source.
+     */
+    public record ClassInfo(String name,
+                            @Nullable String superName,
+                            List<String> interfaces,
+                            Map<String, List<String>> methods,
+                            int implicitConstructorParameters,
+                            boolean local) {
+
+    }
+
+    private final Map<String, ClassInfo> classes;
+
+    private BytecodeIndex(final Map<String, ClassInfo> classes) {
+        this.classes = classes;
+    }
+
+    /**
+     * Loads the index of the compiled classes at the passed path.
+     *
+     * @param compiledClasses the path to a jar or a directory of class files.
+     *
+     * @return the loaded index.
+     *
+     * @throws IOException if reading the compiled classes failed.
+     */
+    public static BytecodeIndex load(final Path compiledClasses) throws IOException {
+        final Map<String, ClassInfo> classes = new HashMap<>();
+        if (Files.isDirectory(compiledClasses)) {
+            try (final Stream<Path> files = Files.walk(compiledClasses)) {
+                for (final Path file : (Iterable<Path>) files.filter(f -> f.toString().endsWith(CLASS_FILE_SUFFIX))::iterator) {
+                    try (final InputStream inputStream = Files.newInputStream(file)) {
+                        final ClassInfo classInfo = readClass(inputStream);
+                        classes.putIfAbsent(classInfo.name(), classInfo);
+                    }
+                }
+            }
+            return new BytecodeIndex(classes);
+        }
+
+        try (final ZipFile zipFile = new ZipFile(compiledClasses.toFile())) {
+            final Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+            while (zipEntries.hasMoreElements()) {
+                final ZipEntry zipEntry = zipEntries.nextElement();
+                // Versioned classes of multi release jars share the descriptors of their base version.
+                if (!zipEntry.getName().endsWith(CLASS_FILE_SUFFIX) || zipEntry.getName().startsWith(METADATA_PREFIX)) continue;
+
+                try (final InputStream inputStream = zipFile.getInputStream(zipEntry)) {
+                    final ClassInfo classInfo = readClass(inputStream);
+                    classes.putIfAbsent(classInfo.name(), classInfo);
+                }
+            }
+        }
+        return new BytecodeIndex(classes);
+    }
+
+    /**
+     * Yields the indexed class of the passed name.
+     *
+     * @param className the binary name of the class.
+     *
+     * @return the class or null if the index does not contain it.
+     */
+    public @Nullable ClassInfo get(final String className) {
+        return this.classes.get(className);
+    }
+
+    /**
+     * Yields the superclass of the passed class.
+     *
+     * @param className the binary name of the class.
+     *
+     * @return the binary name of the superclass or null if the index does not contain the class or it has no superclass.
+     */
+    public @Nullable String superName(final String className) {
+        final @Nullable ClassInfo classInfo = this.classes.get(className);
+        return classInfo == null ? null : classInfo.superName();
+    }
+
+    /**
+     * Resolves the signature of a method declared in source code.
+     *
+     * @param owner          the binary name of the class declaring the method.
+     * @param name           the name of the method, {@code <init>} for constructors.
+     * @param parameterTypes the erased simple names of the parameter types as computed by {@link DescriptorHelper#erasedSimpleName(String)}, with
+     *                       null for parameters typed by a type variable, whose erasure is not known without the bounds of the variable.
+     *
+     * @return the signature of the method or null if the index contains no or multiple matching methods.
+     */
+    public @Nullable MethodSignature resolve(final String owner, final String name, final List<@Nullable String> parameterTypes) {
+        final @Nullable ClassInfo classInfo = this.classes.get(owner);
+        if (classInfo == null) return null;
+
+        @Nullable String match = null;
+        for (final String descriptor : classInfo.methods().getOrDefault(name, List.of())) {
+            final List<String> descriptorTypes = DescriptorHelper.erasedSimpleParameterNames(descriptor);
+            final boolean matches = CONSTRUCTOR_NAME.equals(name)
+                ? matchesConstructor(classInfo, descriptorTypes, parameterTypes)
+                : matches(descriptorTypes, parameterTypes);
+            if (!matches) continue;
+            if (match != null) return null; // Ambiguous, e.g. overloads taking types of the same simple name or type variables.
+            match = descriptor;
+        }
+        return match == null ? null : MethodSignature.of(name, match);
+    }
+
+    /**
+     * Yields the amount of indexed classes.
+     *
+     * @return the amount.
+     */
+    public int size() {
+        return this.classes.size();
+    }
+
+    private static boolean matchesConstructor(final ClassInfo classInfo,
+                                              final List<String> descriptorTypes,
+                                              final List<@Nullable String> parameterTypes) {
+        final int implicitParameters = classInfo.implicitConstructorParameters();
+        if (!classInfo.local()) {
+            if (descriptorTypes.size() < implicitParameters) return false;
+            return matches(descriptorTypes.subList(implicitParameters, descriptorTypes.size()), parameterTypes);
+        }
+
+        // Local classes only take the outer instance if declared in an instance context and take captured variables after all declared ones.
+        for (int leading = implicitParameters; leading <= implicitParameters + 1; leading++) {
+            if (descriptorTypes.size() < leading + parameterTypes.size()) break;
+            if (matches(descriptorTypes.subList(leading, leading + parameterTypes.size()), parameterTypes)) return true;
+        }
+        return false;
+    }
+
+    private static boolean matches(final List<String> descriptorTypes, final List<@Nullable String> parameterTypes) {
+        if (descriptorTypes.size() != parameterTypes.size()) return false;
+        for (int i = 0; i < descriptorTypes.size(); i++) {
+            final @Nullable String parameterType = parameterTypes.get(i);
+            if (parameterType != null && !parameterType.equals(descriptorTypes.get(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads the name, supertypes and methods of a class file.
+     *
+     * @param inputStream the stream of the class file.
+     *
+     * @return the read class.
+     *
+     * @throws IOException if the stream is not a valid class file.
+     */
+    static ClassInfo readClass(final InputStream inputStream) throws IOException {
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(inputStream));
+        if (input.readInt() != CLASS_FILE_MAGIC) throw new IOException("Not a class file");
+        input.readUnsignedShort(); // minor version
+        input.readUnsignedShort(); // major version
+
+        // Only utf8 and class constants are needed, all others are skipped.
+        final int constantPoolSize = input.readUnsignedShort();
+        final String[] utf8Constants = new String[constantPoolSize];
+        final int[] classConstants = new int[constantPoolSize];
+        for (int index = 1; index < constantPoolSize; index++) {
+            final int tag = input.readUnsignedByte();
+            switch (tag) {
+                case 1 -> utf8Constants[index] = input.readUTF();
+                case 7 -> classConstants[index] = input.readUnsignedShort();
+                case 8, 16, 19, 20 -> input.skipNBytes(2);
+                case 15 -> input.skipNBytes(3);
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> input.skipNBytes(4);
+                case 5, 6 -> {
+                    input.skipNBytes(8);
+                    index++; // Long and double constants take up two slots.
+                }
+                default -> throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        final int classAccessFlags = input.readUnsignedShort();
+        final String name = className(utf8Constants, classConstants, input.readUnsignedShort());
+        final int superClass = input.readUnsignedShort();
+        final @Nullable String superName = superClass == 0 ? null : className(utf8Constants, classConstants, superClass);
+
+        final int interfaceCount = input.readUnsignedShort();
+        final List<String> interfaces = new ArrayList<>(interfaceCount);
+        for (int i = 0; i < interfaceCount; i++) interfaces.add(className(utf8Constants, classConstants, input.readUnsignedShort()));
+
+        final int fieldCount = input.readUnsignedShort();
+        for (int i = 0; i < fieldCount; i++) {
+            input.skipNBytes(6); // access flags, name and descriptor
+            skipAttributes(input);
+        }
+
+        final Map<String, List<String>> methods = new HashMap<>();
+        final int methodCount = input.readUnsignedShort();
+        for (int i = 0; i < methodCount; i++) {
+            final int accessFlags = input.readUnsignedShort();
+            final String methodName = utf8Constants[input.readUnsignedShort()];
+            final String descriptor = utf8Constants[input.readUnsignedShort()];
+            skipAttributes(input);
+
+            // Synthetic methods, e.g. bridges and lambda bodies, have no source declaration.
+            if ((accessFlags & ACC_SYNTHETIC) != 0) continue;
+            methods.computeIfAbsent(methodName, n -> new ArrayList<>(1)).add(descriptor);
+        }
+
+        int implicitConstructorParameters = (classAccessFlags & ACC_ENUM) != 0 ? 2 : 0;
+        boolean local = false;
+        final int attributeCount = input.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            final String attributeName = utf8Constants[input.readUnsignedShort()];
+            final long attributeLength = Integer.toUnsignedLong(input.readInt());
+            if (!INNER_CLASSES_ATTRIBUTE.equals(attributeName)) {
+                input.skipNBytes(attributeLength);
+                continue;
+            }
+
+            // The inner class attribute lists all nested classes the class refers to, including the class itself if it is nested.
+            final int innerClassCount = input.readUnsignedShort();
+            for (int j = 0; j < innerClassCount; j++) {
+                final int innerClass = input.readUnsignedShort();
+                final int outerClass = input.readUnsignedShort();
+                input.readUnsignedShort(); // inner name
+                final int innerAccessFlags = input.readUnsignedShort();
+                if (!name.equals(className(utf8Constants, classConstants, innerClass))) continue;
+
+                if (outerClass == 0) local = true;
+                else if ((innerAccessFlags & ACC_STATIC) == 0) implicitConstructorParameters++;
+            }
+        }
+
+        return new ClassInfo(name, superName, interfaces, methods, implicitConstructorParameters, local);
+    }
+
+    private static void skipAttributes(final DataInputStream input) throws IOException {
+        final int attributeCount = input.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            input.readUnsignedShort(); // name
+            input.skipNBytes(Integer.toUnsignedLong(input.readInt()));
+        }
+    }
+
+    private static String className(final String[] utf8Constants, final int[] classConstants, final int classIndex) {
+        return utf8Constants[classConstants[classIndex]].replace('/', '.');
+    }
+
+}
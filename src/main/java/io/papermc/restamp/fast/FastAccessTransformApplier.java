@@ -0,0 +1,758 @@
+package io.papermc.restamp.fast;
+
+import io.papermc.restamp.at.ConsumptionLedger;
+import io.papermc.restamp.at.IndexedAccessTransformSet;
+import io.papermc.restamp.at.ModifierTransformationResult;
+import io.papermc.restamp.at.ModifierTransformer;
+import io.papermc.restamp.utils.DescriptorHelper;
+import org.cadixdev.at.AccessTransform;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Tree;
+import org.openrewrite.java.tree.Comment;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.Space;
+import org.openrewrite.java.tree.TextComment;
+import org.openrewrite.marker.Markers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The fast access transform applier applies access transformers to the text of a java source without parsing it into a type attributed
+ * tree.
+ * <p>
+ * The applier tokenizes the source via the {@link JavaTokenizer} and walks its declarations, tracking the binary name of each enclosing class.
+ * Class and field access transformers only need the binary name of the declaring class and the name of the declaration, and are hence
+ * applied directly. The modifiers of a targeted declaration are transformed by the same {@link ModifierTransformer} used by the recipes, so that
+ * the resulting text is identical to the one produced by a full parse.
+ * <p>
+ * Method access transformers are matched by name. The applier yields {@code null} for sources it cannot transform exactly like a full parse
+ * would, which then have to be parsed, e.g. if
+ * <ul>
+ *     <li>a method shares its name with another method of the class or with multiple access transformers of the class,</li>
+ *     <li>a method may inherit an access transformer from a supertype,</li>
+ *     <li>a targeted declaration has annotations between its modifiers or type parameters,</li>
+ *     <li>the source declares local classes or anonymous classes outside of method bodies.</li>
+ * </ul>
+ * The applier does not consume the access transformers it applies. Instead, the consumptions are collected in the returned {@link Application}.
+ */
+@NullMarked
+public class FastAccessTransformApplier {
+
+    private static final Map<String, J.Modifier.Type> MODIFIER_TYPES = Map.ofEntries(
+        Map.entry("public", J.Modifier.Type.Public),
+        Map.entry("protected", J.Modifier.Type.Protected),
+        Map.entry("private", J.Modifier.Type.Private),
+        Map.entry("static", J.Modifier.Type.Static),
+        Map.entry("final", J.Modifier.Type.Final),
+        Map.entry("abstract", J.Modifier.Type.Abstract),
+        Map.entry("transient", J.Modifier.Type.Transient),
+        Map.entry("volatile", J.Modifier.Type.Volatile),
+        Map.entry("synchronized", J.Modifier.Type.Synchronized),
+        Map.entry("native", J.Modifier.Type.Native),
+        Map.entry("strictfp", J.Modifier.Type.Strictfp),
+        Map.entry("default", J.Modifier.Type.Default),
+        Map.entry("sealed", J.Modifier.Type.Sealed)
+    );
+    private static final Set<String> CONTROL_STATEMENTS = Set.of("if", "for", "while", "switch", "catch", "synchronized", "try");
+    private static final Set<String> IMPLICIT_SUPERTYPES = Set.of("java.lang.Object", "java.lang.Enum", "java.lang.Record");
+    private static final String CONSTRUCTOR_NAME = "<init>";
+
+    /**
+     * The result of applying access transformers to a source.
+     *
+     * @param transformedSource the source after the access transformers were applied.
+     * @param consumptions      the access transformers consumed by the source.
+     */
+    public record Application(String transformedSource, List<Consumption> consumptions) {
+
+        /**
+         * Records the access transformers applied to the source as consumed in the passed ledger.
+         *
+         * @param ledger the ledger to record the consumption in.
+         */
+        public void consume(final ConsumptionLedger ledger) {
+            for (final Consumption consumption : this.consumptions) ledger.consume(consumption.index());
+        }
+
+    }
+
+    /**
+     * A single access transformer consumed by a source.
+     *
+     * @param className       the binary name of the class owning the access transformer.
+     * @param fieldName       the name of the field if a field access transformer was consumed, {@link IndexedAccessTransformSet#WILDCARD} for
+     *                        the wildcard of all fields.
+     * @param methodSignature the signature of the method if a method access transformer was consumed, null for the wildcard of all methods.
+     * @param index           the index of the access transformer in the {@link IndexedAccessTransformSet}.
+     */
+    public record Consumption(String className, @Nullable String fieldName, @Nullable MethodSignature methodSignature, int index) {
+
+    }
+
+    private final IndexedAccessTransformSet atDictionary;
+    private final ModifierTransformer modifierTransformer;
+    private final Set<String> transformedMethodNames = new HashSet<>();
+    private final boolean implicitSupertypesTransformed;
+
+    public FastAccessTransformApplier(final IndexedAccessTransformSet atDictionary, final ModifierTransformer modifierTransformer) {
+        this.atDictionary = atDictionary;
+        this.modifierTransformer = modifierTransformer;
+
+        boolean implicitSupertypesTransformed = false;
+        for (final IndexedAccessTransformSet.ClassEntry transformerClass : atDictionary.classes()) {
+            if (!transformerClass.hasMethods()) continue;
+            this.transformedMethodNames.addAll(transformerClass.methodsByName().keySet());
+            if (IMPLICIT_SUPERTYPES.contains(transformerClass.name())) implicitSupertypesTransformed = true;
+        }
+        this.implicitSupertypesTransformed = implicitSupertypesTransformed;
+    }
+
+    /**
+     * Applies the access transformers to the passed source.
+     *
+     * @param source the java source code.
+     *
+     * @return the application of the access transformers, or null if the source has to be parsed to apply them correctly.
+     */
+    public @Nullable Application apply(final String source) {
+        final List<JavaTokenizer.Token> tokens;
+        try {
+            tokens = JavaTokenizer.tokenize(source);
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+
+        try {
+            return new Scan(source, tokens).run();
+        } catch (final UnsupportedSourceException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Prints the passed space back into source code.
+     *
+     * @param space the space to print.
+     *
+     * @return the source code of the space.
+     */
+    private static String print(final Space space) {
+        final StringBuilder builder = new StringBuilder(space.getWhitespace());
+        for (final Comment comment : space.getComments()) {
+            if (!(comment instanceof final TextComment textComment)) throw new UnsupportedSourceException();
+            builder.append(textComment.isMultiline() ? "/*" : "//").append(textComment.getText()).append(textComment.isMultiline() ? "*/" : "");
+            builder.append(textComment.getSuffix());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The modifiers of a declaration.
+     *
+     * @param start     the offset at which the modifiers, including the space of the first one, start.
+     * @param end       the offset after the last modifier, or the start if the declaration has no modifiers.
+     * @param modifiers the modifiers.
+     * @param regular   whether the modifiers are directly followed by the type or kind of the declaration.
+     */
+    private record Modifiers(int start, int end, List<J.Modifier> modifiers, boolean regular) {
+
+    }
+
+    /**
+     * A method declared by a class.
+     *
+     * @param name           the name of the method, {@code <init>} for constructors.
+     * @param parameterTypes the erased simple names of the parameter types, or null if unknown.
+     * @param modifiers      the modifiers of the method.
+     * @param parentToken    the index of the token owning the space after the modifiers, the return type or the name of constructors.
+     */
+    private record Method(String name, @Nullable List<String> parameterTypes, Modifiers modifiers, int parentToken) {
+
+    }
+
+    /**
+     * A class whose body is currently walked.
+     */
+    private static final class Scope {
+
+        private final String binaryName;
+        private final String simpleName;
+        private final IndexedAccessTransformSet.@Nullable ClassEntry transformerClass;
+        private final boolean mayInherit;
+        private final List<Method> methods = new ArrayList<>();
+        /**
+         * Whether the class declares record components or initializer blocks, whose variables are visited as fields of the class by a full
+         * parse.
+         */
+        private boolean declaresImplicitFields;
+
+        private Scope(final String binaryName,
+                      final String simpleName,
+                      final IndexedAccessTransformSet.@Nullable ClassEntry transformerClass,
+                      final boolean mayInherit,
+                      final boolean declaresRecordComponents) {
+            this.binaryName = binaryName;
+            this.simpleName = simpleName;
+            this.transformerClass = transformerClass;
+            this.mayInherit = mayInherit;
+            this.declaresImplicitFields = declaresRecordComponents;
+        }
+
+    }
+
+    private record Edit(int start, int end, String replacement) {
+
+    }
+
+    /**
+     * A single walk over the tokens of a source.
+     */
+    private final class Scan {
+
+        private final String source;
+        private final List<JavaTokenizer.Token> tokens;
+        private final List<Edit> edits = new ArrayList<>();
+        private final List<Consumption> consumptions = new ArrayList<>();
+        private String packagePrefix = "";
+        private int position = 0;
+
+        private Scan(final String source, final List<JavaTokenizer.Token> tokens) {
+            this.source = source;
+            this.tokens = tokens;
+        }
+
+        private Application run() {
+            final int packageStart = this.position;
+            this.skipAnnotations();
+            if (this.is(this.position, "package")) {
+                this.position++;
+                final StringBuilder packageName = new StringBuilder();
+                while (!this.is(this.position, ";")) packageName.append(this.text(this.position++));
+                this.position++;
+                this.packagePrefix = packageName + ".";
+            } else {
+                this.position = packageStart;
+            }
+
+            while (this.is(this.position, "import")) {
+                while (!this.is(this.position, ";")) {
+                    if (this.position >= this.tokens.size()) throw new UnsupportedSourceException();
+                    this.position++;
+                }
+                this.position++;
+            }
+
+            while (this.position < this.tokens.size()) {
+                if (this.is(this.position, ";")) {
+                    this.position++;
+                    continue;
+                }
+                this.member(null);
+            }
+
+            this.edits.sort(Comparator.comparingInt(Edit::start));
+            final StringBuilder transformedSource = new StringBuilder(this.source.length());
+            int copied = 0;
+            for (final Edit edit : this.edits) {
+                transformedSource.append(this.source, copied, edit.start()).append(edit.replacement());
+                copied = edit.end();
+            }
+            transformedSource.append(this.source, copied, this.source.length());
+
+            return new Application(transformedSource.toString(), List.copyOf(this.consumptions));
+        }
+
+        /**
+         * Walks a single member declaration of a class body, or a top level type declaration if no scope is passed.
+         *
+         * @param scope the class declaring the member.
+         */
+        private void member(final @Nullable Scope scope) {
+            final Modifiers modifiers = this.modifiers();
+
+            if (this.isTypeDeclaration(this.position)) {
+                this.typeDeclaration(scope, modifiers);
+                return;
+            }
+            if (scope == null) throw new UnsupportedSourceException();
+
+            // Initializer blocks.
+            if (this.is(this.position, "{")) {
+                this.skipBalanced(true);
+                scope.declaresImplicitFields = true;
+                return;
+            }
+
+            boolean regular = modifiers.regular();
+            if (this.is(this.position, "<")) {
+                this.skipTypeArguments();
+                regular = false;
+            }
+            final Modifiers effectiveModifiers = new Modifiers(modifiers.start(), modifiers.end(), modifiers.modifiers(), regular);
+
+            // Constructors and compact record constructors.
+            if (this.isIdentifier(this.position) && this.text(this.position).equals(scope.simpleName)
+                && (this.is(this.position + 1, "(") || this.is(this.position + 1, "{"))) {
+                final int nameToken = this.position++;
+                final @Nullable List<String> parameterTypes = this.is(this.position, "(") ? this.parameters() : null;
+                this.skipMethodRemainder();
+                scope.methods.add(new Method(CONSTRUCTOR_NAME, parameterTypes, effectiveModifiers, nameToken));
+                return;
+            }
+
+            final int typeToken = this.position;
+            this.skipType();
+            final String name = this.identifier(this.position++);
+
+            if (this.is(this.position, "(")) {
+                final List<String> parameterTypes = this.parameters();
+                this.skipMethodRemainder();
+                scope.methods.add(new Method(name, parameterTypes, effectiveModifiers, typeToken));
+                return;
+            }
+
+            final List<String> names = new ArrayList<>();
+            names.add(name);
+            while (true) {
+                this.skipDimensions();
+                if (this.is(this.position, "=")) {
+                    this.position++;
+                    this.skipExpression();
+                }
+                if (this.is(this.position, ";")) break;
+                this.expect(",");
+
+                // Commas of explicit type arguments are indistinguishable from declarator separators, hence check the next declarator.
+                final String nextName = this.identifier(this.position++);
+                if (!this.is(this.position, "=") && !this.is(this.position, ",") && !this.is(this.position, ";") && !this.is(this.position, "[")) {
+                    throw new UnsupportedSourceException();
+                }
+                names.add(nextName);
+            }
+            this.position++;
+
+            this.field(scope, names, effectiveModifiers, typeToken);
+        }
+
+        private void typeDeclaration(final @Nullable Scope enclosingScope, final Modifiers modifiers) {
+            final int kindToken = this.position;
+            final String kind = this.text(kindToken).equals("@") ? "@interface" : this.text(kindToken);
+            this.position += kind.equals("@interface") ? 2 : 1;
+
+            final String simpleName = this.identifier(this.position++);
+            final String binaryName = enclosingScope == null ? this.packagePrefix + simpleName : enclosingScope.binaryName + "$" + simpleName;
+
+            // Walk the header, up to the class body.
+            boolean declaresSupertypes = false;
+            boolean declaresRecordComponents = false;
+            int parenthesesDepth = 0;
+            int angleDepth = 0;
+            while (parenthesesDepth > 0 || !this.is(this.position, "{")) {
+                if (this.position >= this.tokens.size()) throw new UnsupportedSourceException();
+                final String text = this.text(this.position);
+                if (text.equals("(")) {
+                    if (parenthesesDepth == 0 && angleDepth == 0 && kind.equals("record") && !this.is(this.position + 1, ")")) {
+                        declaresRecordComponents = true;
+                    }
+                    parenthesesDepth++;
+                } else if (text.equals(")")) {
+                    parenthesesDepth--;
+                } else if (parenthesesDepth == 0 && text.equals("<")) {
+                    angleDepth++;
+                } else if (parenthesesDepth == 0 && text.equals(">")) {
+                    angleDepth--;
+                } else if (parenthesesDepth == 0 && angleDepth == 0 && (text.equals("extends") || text.equals("implements"))) {
+                    declaresSupertypes = true; // Method access transformers also apply to implementations of interface methods.
+                }
+                this.position++;
+            }
+
+            final IndexedAccessTransformSet.@Nullable ClassEntry transformerClass = atDictionary.get(binaryName);
+            if (transformerClass != null && !transformerClass.transform().isEmpty()) {
+                this.transform(transformerClass.transform(), modifiers, kindToken);
+                this.consumptions.add(new Consumption(binaryName, null, null, transformerClass.index()));
+            }
+
+            final Scope scope = new Scope(
+                binaryName,
+                simpleName,
+                transformerClass,
+                declaresSupertypes || implicitSupertypesTransformed,
+                declaresRecordComponents
+            );
+            this.position++;
+            if (kind.equals("enum")) this.enumConstants();
+            while (!this.is(this.position, "}")) {
+                if (this.position >= this.tokens.size()) throw new UnsupportedSourceException();
+                if (this.is(this.position, ";")) {
+                    this.position++;
+                    continue;
+                }
+                this.member(scope);
+            }
+            this.position++;
+
+            this.methods(scope);
+
+            if (scope.declaresImplicitFields && transformerClass != null
+                && (!transformerClass.fields().isEmpty() || transformerClass.allFields() != null)) {
+                throw new UnsupportedSourceException();
+            }
+        }
+
+        private void enumConstants() {
+            while (!this.is(this.position, ";") && !this.is(this.position, "}")) {
+                this.skipAnnotations();
+                this.identifier(this.position++);
+                if (this.is(this.position, "(")) this.skipBalanced(true);
+
+                // The bodies of enum constants are visited as part of the enum by a full parse.
+                if (this.is(this.position, "{")) throw new UnsupportedSourceException();
+                if (this.is(this.position, ",")) this.position++;
+            }
+            if (this.is(this.position, ";")) this.position++;
+        }
+
+        private void field(final Scope scope, final List<String> names, final Modifiers modifiers, final int typeToken) {
+            if (scope.transformerClass == null) return;
+
+            AccessTransform accessTransform = AccessTransform.EMPTY;
+            for (final String name : names) {
+                final IndexedAccessTransformSet.@Nullable MemberEntry field = scope.transformerClass.fields().get(name);
+                if (field == null) continue;
+                this.consumptions.add(new Consumption(scope.binaryName, name, null, field.index()));
+                accessTransform = accessTransform.merge(field.transform());
+            }
+            final IndexedAccessTransformSet.@Nullable MemberEntry allFields = scope.transformerClass.allFields();
+            if (allFields != null) {
+                this.consumptions.add(new Consumption(scope.binaryName, allFields.name(), null, allFields.index()));
+                accessTransform = accessTransform.merge(allFields.transform());
+            }
+            if (accessTransform.isEmpty()) return;
+
+            this.transform(accessTransform, modifiers, typeToken);
+        }
+
+        /**
+         * Applies the method access transformers of the passed class once its entire body was walked, as overloads are only known by then.
+         *
+         * @param scope the class.
+         */
+        private void methods(final Scope scope) {
+            final IndexedAccessTransformSet.@Nullable MemberEntry allMethods = scope.transformerClass == null
+                ? null
+                : scope.transformerClass.allMethods();
+            if (allMethods != null && !scope.methods.isEmpty()) {
+                this.consumptions.add(new Consumption(scope.binaryName, null, null, allMethods.index()));
+            }
+
+            for (final Method method : scope.methods) {
+                final List<IndexedAccessTransformSet.MemberEntry> ownSignatures = scope.transformerClass == null
+                    ? List.of()
+                    : scope.transformerClass.methodsByName().getOrDefault(method.name(), List.of());
+
+                if (ownSignatures.isEmpty()) {
+                    if (scope.mayInherit && transformedMethodNames.contains(method.name())) throw new UnsupportedSourceException();
+                    if (allMethods != null) this.transform(allMethods.transform(), method.modifiers(), method.parentToken());
+                    continue;
+                }
+
+                final long overloads = scope.methods.stream().filter(other -> other.name().equals(method.name())).count();
+                if (overloads != 1 || ownSignatures.size() != 1) throw new UnsupportedSourceException();
+
+                final IndexedAccessTransformSet.MemberEntry signature = ownSignatures.getFirst();
+                final List<String> parameterTypes = DescriptorHelper.erasedSimpleParameterNames(signature.descriptor());
+                if (!parameterTypes.equals(method.parameterTypes())) throw new UnsupportedSourceException();
+
+                final AccessTransform accessTransform = allMethods == null
+                    ? signature.transform()
+                    : signature.transform().merge(allMethods.transform());
+                this.transform(accessTransform, method.modifiers(), method.parentToken());
+                this.consumptions.add(new Consumption(scope.binaryName, null, signature.signature(), signature.index()));
+            }
+        }
+
+        /**
+         * Transforms the modifiers of a declaration, recording the edit of the source.
+         *
+         * @param accessTransform the access transform to apply.
+         * @param modifiers       the modifiers of the declaration.
+         * @param parentToken     the token following the modifiers, owning the space after them.
+         */
+        private void transform(final AccessTransform accessTransform, final Modifiers modifiers, final int parentToken) {
+            if (!modifiers.regular()) throw new UnsupportedSourceException();
+
+            final int parentStart = this.tokens.get(parentToken).start();
+            final ModifierTransformationResult transformationResult = modifierTransformer.transformModifiers(
+                accessTransform,
+                modifiers.modifiers(),
+                Space.format(this.source.substring(modifiers.end(), parentStart))
+            );
+
+            final StringBuilder replacement = new StringBuilder();
+            for (final J.Modifier modifier : transformationResult.newModifiers()) {
+                replacement.append(print(modifier.getPrefix()));
+                replacement.append(modifier.getKeyword() != null ? modifier.getKeyword() : modifier.getType().name().toLowerCase(Locale.ROOT));
+            }
+            replacement.append(print(transformationResult.parentSpace()));
+
+            if (replacement.toString().equals(this.source.substring(modifiers.start(), parentStart))) return;
+            this.edits.add(new Edit(modifiers.start(), parentStart, replacement.toString()));
+        }
+
+        /**
+         * Reads the leading annotations and modifiers of a declaration.
+         *
+         * @return the modifiers.
+         */
+        private Modifiers modifiers() {
+            final int declarationStart = this.tokens.get(Math.min(this.position, this.tokens.size() - 1)).start();
+            final int start = this.skipAnnotations() ? this.tokens.get(this.position - 1).end() : declarationStart;
+
+            final List<J.Modifier> modifiers = new ArrayList<>();
+            boolean regular = true;
+            int end = start;
+            while (this.position < this.tokens.size()) {
+                final String text = this.text(this.position);
+                if (text.equals("@") && !this.is(this.position + 1, "interface")) {
+                    this.skipAnnotations();
+                    regular = false;
+                    continue;
+                }
+
+                final String keyword;
+                final J.Modifier.Type type;
+                final int width;
+                if (text.equals("non") && this.is(this.position + 1, "-") && this.is(this.position + 2, "sealed")
+                    && this.tokens.get(this.position + 2).start() == this.tokens.get(this.position).end() + 1) {
+                    keyword = "non-sealed";
+                    type = J.Modifier.Type.NonSealed;
+                    width = 3;
+                } else if (MODIFIER_TYPES.containsKey(text) && this.isIdentifier(this.position)) {
+                    keyword = text;
+                    type = MODIFIER_TYPES.get(text);
+                    width = 1;
+                } else {
+                    break;
+                }
+
+                final JavaTokenizer.Token first = this.tokens.get(this.position);
+                modifiers.add(new J.Modifier(
+                    Tree.randomId(), Space.format(this.source.substring(end, first.start())), Markers.EMPTY, keyword, type, Collections.emptyList()
+                ));
+                end = this.tokens.get(this.position + width - 1).end();
+                this.position += width;
+            }
+
+            return new Modifiers(start, end, modifiers, regular);
+        }
+
+        private List<String> parameters() {
+            this.expect("(");
+            final List<String> parameterTypes = new ArrayList<>();
+            while (!this.is(this.position, ")")) {
+                this.skipAnnotations();
+                while (this.is(this.position, "final")) {
+                    this.position++;
+                    this.skipAnnotations();
+                }
+
+                final int typeStart = this.position;
+                this.skipType();
+                final int typeEnd = this.position;
+                int dimensions = 0;
+                if (this.is(this.position, "...")) {
+                    dimensions++;
+                    this.position++;
+                }
+
+                // Receiver parameters are not part of the method descriptor.
+                if (this.is(this.position, "this")) throw new UnsupportedSourceException();
+                this.identifier(this.position++);
+                final int dimensionsStart = this.position;
+                this.skipDimensions();
+                dimensions += (this.position - dimensionsStart) / 2;
+
+                final String sourceType = this.source.substring(this.tokens.get(typeStart).start(), this.tokens.get(typeEnd - 1).end());
+                parameterTypes.add(DescriptorHelper.erasedSimpleName(sourceType) + "[]".repeat(dimensions));
+                if (!this.is(this.position, ")")) this.expect(",");
+            }
+            this.position++;
+            return parameterTypes;
+        }
+
+        private void skipMethodRemainder() {
+            while (!this.is(this.position, "{") && !this.is(this.position, ";")) {
+                if (this.position >= this.tokens.size()) throw new UnsupportedSourceException();
+                if (this.is(this.position, "default")) {
+                    this.position++;
+                    this.skipExpression();
+                    continue;
+                }
+                if (this.is(this.position, "(")) {
+                    this.skipBalanced(false);
+                    continue;
+                }
+                this.position++;
+            }
+            if (this.is(this.position, "{")) {
+                this.skipBalanced(false);
+            } else {
+                this.position++;
+            }
+        }
+
+        private void skipType() {
+            this.skipAnnotations();
+            this.identifier(this.position++);
+            if (this.is(this.position, "<")) this.skipTypeArguments();
+            while (this.is(this.position, ".") && this.isIdentifier(this.position + 1)) {
+                this.position += 2;
+                if (this.is(this.position, "<")) this.skipTypeArguments();
+            }
+            this.skipDimensions();
+        }
+
+        private void skipTypeArguments() {
+            int depth = 0;
+            do {
+                if (this.position >= this.tokens.size()) throw new UnsupportedSourceException();
+                if (this.is(this.position, "<")) depth++;
+                if (this.is(this.position, ">")) depth--;
+                this.position++;
+            } while (depth > 0);
+        }
+
+        private void skipDimensions() {
+            while (this.is(this.position, "[") && this.is(this.position + 1, "]")) this.position += 2;
+        }
+
+        private boolean skipAnnotations() {
+            boolean skipped = false;
+            while (this.is(this.position, "@") && !this.is(this.position + 1, "interface")) {
+                this.position++;
+                this.identifier(this.position++);
+                while (this.is(this.position, ".") && this.isIdentifier(this.position + 1)) this.position += 2;
+                if (this.is(this.position, "(")) this.skipBalanced(false);
+                skipped = true;
+            }
+            return skipped;
+        }
+
+        /**
+         * Skips an expression up to the next comma or semicolon outside any brackets, e.g. the initializer of a field.
+         * Anonymous classes in the expression are rejected.
+         */
+        private void skipExpression() {
+            while (!this.is(this.position, ",") && !this.is(this.position, ";")) {
+                if (this.position >= this.tokens.size()) throw new UnsupportedSourceException();
+                final String text = this.text(this.position);
+                if (text.equals("(") || text.equals("[") || text.equals("{")) {
+                    this.skipBalanced(true);
+                    continue;
+                }
+                this.rejectLocalTypeDeclaration(this.position);
+                this.position++;
+            }
+        }
+
+        /**
+         * Skips the brackets opened at the current position, including all nested brackets.
+         *
+         * @param rejectAnonymousClasses whether anonymous class bodies in the brackets are rejected. The members of anonymous classes declared
+         *                               outside method bodies and lambdas are visited as members of the enclosing class by a full parse.
+         */
+        private void skipBalanced(final boolean rejectAnonymousClasses) {
+            final Deque<Integer> open = new ArrayDeque<>();
+            int lastParenthesesOpening = -1;
+            do {
+                if (this.position >= this.tokens.size()) throw new UnsupportedSourceException();
+                final String text = this.text(this.position);
+                switch (text) {
+                    case "(", "[", "{" -> {
+                        if (text.equals("{") && rejectAnonymousClasses && this.is(this.position - 1, ")")
+                            && !(lastParenthesesOpening > 0 && CONTROL_STATEMENTS.contains(this.text(lastParenthesesOpening - 1)))) {
+                            throw new UnsupportedSourceException();
+                        }
+                        open.push(this.position);
+                    }
+                    case ")", "]", "}" -> {
+                        if (open.isEmpty()) throw new UnsupportedSourceException();
+                        final int opening = open.pop();
+                        if (text.equals(")")) lastParenthesesOpening = opening;
+                    }
+                    default -> this.rejectLocalTypeDeclaration(this.position);
+                }
+                this.position++;
+            } while (!open.isEmpty());
+        }
+
+        /**
+         * Rejects local type declarations, whose binary names cannot be derived from the source text.
+         */
+        private void rejectLocalTypeDeclaration(final int index) {
+            if (!this.isIdentifier(index)) return;
+            final String text = this.text(index);
+            if (text.equals("interface") || text.equals("enum")) throw new UnsupportedSourceException();
+            if (text.equals("class") && !this.is(index - 1, ".")) throw new UnsupportedSourceException();
+            if (text.equals("record") && this.isIdentifier(index + 1) && (this.is(index + 2, "(") || this.is(index + 2, "<"))) {
+                throw new UnsupportedSourceException();
+            }
+        }
+
+        private boolean isTypeDeclaration(final int index) {
+            if (this.is(index, "class") || this.is(index, "interface") || this.is(index, "enum")) return true;
+            if (this.is(index, "@") && this.is(index + 1, "interface")) return true;
+            return this.is(index, "record") && this.isIdentifier(index + 1) && (this.is(index + 2, "(") || this.is(index + 2, "<"));
+        }
+
+        private boolean is(final int index, final String text) {
+            if (index < 0 || index >= this.tokens.size()) return false;
+            final JavaTokenizer.Token token = this.tokens.get(index);
+            return token.end() - token.start() == text.length() && this.source.startsWith(text, token.start());
+        }
+
+        private boolean isIdentifier(final int index) {
+            return index >= 0 && index < this.tokens.size() && this.tokens.get(index).kind() == JavaTokenizer.Kind.IDENTIFIER;
+        }
+
+        private String identifier(final int index) {
+            if (!this.isIdentifier(index)) throw new UnsupportedSourceException();
+            return this.text(index);
+        }
+
+        private void expect(final String text) {
+            if (!this.is(this.position, text)) throw new UnsupportedSourceException();
+            this.position++;
+        }
+
+        private String text(final int index) {
+            if (index >= this.tokens.size()) throw new UnsupportedSourceException();
+            return this.tokens.get(index).text(this.source);
+        }
+
+    }
+
+    /**
+     * Thrown while walking a source that cannot be transformed without parsing it.
+     */
+    private static final class UnsupportedSourceException extends RuntimeException {
+
+        private UnsupportedSourceException() {
+            super(null, null, false, false);
+        }
+
+    }
+
+}
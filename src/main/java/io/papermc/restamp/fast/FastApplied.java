@@ -0,0 +1,29 @@
+package io.papermc.restamp.fast;
+
+import org.jspecify.annotations.NullMarked;
+import org.openrewrite.marker.Marker;
+
+import java.util.UUID;
+
+/**
+ * The fast applied marker carries the {@link FastAccessTransformApplier.Application} computed for a plain text source when the source files
+ * of a run were split into parsed and fast applied ones, so that the source is not transformed a second time when the recipe visits it.
+ *
+ * @param id          the id of the marker.
+ * @param application the application of the access transformers to the text of the source.
+ */
+@NullMarked
+public record FastApplied(UUID id, FastAccessTransformApplier.Application application) implements Marker {
+
+    @Override
+    public UUID getId() {
+        return this.id;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <M extends Marker> M withId(final UUID id) {
+        return (M) new FastApplied(id, this.application);
+    }
+
+}
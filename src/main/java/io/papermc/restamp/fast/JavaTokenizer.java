@@ -0,0 +1,161 @@
+package io.papermc.restamp.fast;
+
+import org.jspecify.annotations.NullMarked;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The java tokenizer is a lightweight tokenizer splitting java source code into the tokens needed to find declarations in it.
+ * <p>
+ * Whitespaces and comments are not tokenized. They make up the trivia between two tokens, which can be computed from the offsets of the
+ * tokens. Keywords are tokenized as identifiers and operators are tokenized char by char, except for {@code ->}, {@code ::} and {@code ...},
+ * so that e.g. the closing {@code >>} of nested type arguments yields two tokens.
+ */
+@NullMarked
+public final class JavaTokenizer {
+
+    /**
+     * The kinds of tokens yielded by the tokenizer.
+     */
+    public enum Kind {
+        IDENTIFIER,
+        NUMBER,
+        LITERAL,
+        SYMBOL
+    }
+
+    /**
+     * A single token of a source.
+     *
+     * @param kind  the kind of the token.
+     * @param start the offset of the first char of the token in the source.
+     * @param end   the offset after the last char of the token in the source.
+     */
+    public record Token(Kind kind, int start, int end) {
+
+        /**
+         * Yields the text of this token in the passed source.
+         *
+         * @param source the source the token was read from.
+         *
+         * @return the text of the token.
+         */
+        public String text(final String source) {
+            return source.substring(this.start, this.end);
+        }
+
+    }
+
+    private JavaTokenizer() {
+    }
+
+    /**
+     * Tokenizes the passed source.
+     *
+     * @param source the java source code to tokenize.
+     *
+     * @return the tokens of the source.
+     *
+     * @throws IllegalArgumentException if the source contains a char that cannot start a token, e.g. a unicode escape outside a literal, or an
+     *                                  unterminated comment or literal.
+     */
+    public static List<Token> tokenize(final String source) {
+        final List<Token> tokens = new ArrayList<>(source.length() / 4);
+        final int length = source.length();
+
+        int index = 0;
+        while (index < length) {
+            final char current = source.charAt(index);
+            final char next = index + 1 < length ? source.charAt(index + 1) : '\0';
+
+            if (Character.isWhitespace(current)) {
+                index++;
+            } else if (current == '/' && next == '/') {
+                while (index < length && source.charAt(index) != '\n' && source.charAt(index) != '\r') index++;
+            } else if (current == '/' && next == '*') {
+                final int commentEnd = source.indexOf("*/", index + 2);
+                if (commentEnd < 0) throw new IllegalArgumentException("Unterminated comment at " + index);
+                index = commentEnd + 2;
+            } else if (current == '"' && source.startsWith("\"\"\"", index)) {
+                final int end = skipLiteral(source, index + 3, "\"\"\"");
+                tokens.add(new Token(Kind.LITERAL, index, end));
+                index = end;
+            } else if (current == '"' || current == '\'') {
+                final int end = skipLiteral(source, index + 1, String.valueOf(current));
+                tokens.add(new Token(Kind.LITERAL, index, end));
+                index = end;
+            } else if (Character.isJavaIdentifierStart(current)) {
+                final int start = index;
+                while (index < length && Character.isJavaIdentifierPart(source.charAt(index))) index++;
+                tokens.add(new Token(Kind.IDENTIFIER, start, index));
+            } else if (Character.isDigit(current) || (current == '.' && Character.isDigit(next))) {
+                final int start = index;
+                index = skipNumber(source, index);
+                tokens.add(new Token(Kind.NUMBER, start, index));
+            } else if (source.startsWith("...", index)) {
+                tokens.add(new Token(Kind.SYMBOL, index, index + 3));
+                index += 3;
+            } else if ((current == '-' && next == '>') || (current == ':' && next == ':')) {
+                tokens.add(new Token(Kind.SYMBOL, index, index + 2));
+                index += 2;
+            } else if ("{}()[]<>;,.@=+-*/%&|^!~?:".indexOf(current) >= 0) {
+                tokens.add(new Token(Kind.SYMBOL, index, index + 1));
+                index++;
+            } else {
+                throw new IllegalArgumentException("Unexpected char '" + current + "' at " + index);
+            }
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Skips a string, char or text block literal.
+     *
+     * @param source     the source.
+     * @param index      the offset after the opening delimiter of the literal.
+     * @param terminator the closing delimiter of the literal.
+     *
+     * @return the offset after the closing delimiter of the literal.
+     */
+    private static int skipLiteral(final String source, int index, final String terminator) {
+        while (index < source.length()) {
+            if (source.charAt(index) == '\\') {
+                index += 2;
+                continue;
+            }
+            if (source.startsWith(terminator, index)) return index + terminator.length();
+            index++;
+        }
+        throw new IllegalArgumentException("Unterminated literal in source");
+    }
+
+    /**
+     * Skips a number literal, including its fraction, exponent and type suffix.
+     *
+     * @param source the source.
+     * @param index  the offset of the first char of the number literal.
+     *
+     * @return the offset after the number literal.
+     */
+    private static int skipNumber(final String source, int index) {
+        while (index < source.length()) {
+            final char current = source.charAt(index);
+            if (Character.isLetterOrDigit(current) || current == '_' || current == '.') {
+                index++;
+                continue;
+            }
+
+            // Signed exponents of decimal and hexadecimal floating point literals.
+            final char previous = source.charAt(index - 1);
+            if ((current == '+' || current == '-') && (previous == 'e' || previous == 'E' || previous == 'p' || previous == 'P')) {
+                index++;
+                continue;
+            }
+            break;
+        }
+        return index;
+    }
+
+}
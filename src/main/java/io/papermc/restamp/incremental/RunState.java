@@ -0,0 +1,292 @@
+package io.papermc.restamp.incremental;
+
+import io.papermc.restamp.at.ConsumptionLedger;
+import io.papermc.restamp.at.IndexedAccessTransformSet;
+import io.papermc.restamp.utils.FileHelper;
+import io.papermc.restamp.utils.FingerprintHelper;
+import io.papermc.restamp.utils.TypeHelper;
+import org.cadixdev.bombe.type.MethodDescriptor;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.tree.J;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The run state records, for each source file processed by a restamp run, the hash of its content and the access transformers it consumed.
+ * <p>
+ * A later run with the same classpath may skip a source file if its content did not change, it was not changed by the recorded run and the
+ * access transformers targeting the types it declares or inherits from did not change either. The access transformers consumed by such a
+ * skipped source file are consumed from the recorded state instead, keeping the report of not applicable access transformers exact.
+ * <p>
+ * Access transformers are attributed to the source file declaring their target type, which is exact as every type is declared by a single
+ * source file.
+ */
+@NullMarked
+public class RunState {
+
+    private static final String HEADER = "restamp-run-state 1";
+    private static final String CLASSPATH = "classpath";
+    private static final String FILE = "file";
+    private static final String CLASS = "class";
+    private static final String FIELD = "field";
+    private static final String METHOD = "method";
+    private static final String WILDCARD_METHODS = IndexedAccessTransformSet.WILDCARD + IndexedAccessTransformSet.WILDCARD_METHOD_DESCRIPTOR;
+    private static final String SEPARATOR = "\t";
+
+    /**
+     * A source file recorded in the run state.
+     *
+     * @param contentHash                the hash of the content of the source file.
+     * @param accessTransformFingerprint the fingerprint of the access transformers targeting the relevant types of the source file.
+     * @param relevantTypes              the types declared by the source file and their supertypes.
+     * @param consumed                   the access transformers consumed by the source file.
+     */
+    record FileState(String contentHash, String accessTransformFingerprint, List<String> relevantTypes, List<Consumption> consumed) {
+
+    }
+
+    /**
+     * A single access transformer consumed by a source file.
+     *
+     * @param kind      the kind of the target, either {@link #CLASS}, {@link #FIELD} or {@link #METHOD}.
+     * @param className the name of the class targeted by, or owning the target of, the access transformer.
+     * @param member    the name of the field or the jvms identifier of the method, or an empty string for classes.
+     */
+    record Consumption(String kind, String className, String member) {
+
+    }
+
+    private final Path file;
+    private final String classpathFingerprint;
+    private final Map<Path, FileState> files;
+
+    private RunState(final Path file, final String classpathFingerprint, final Map<Path, FileState> files) {
+        this.file = file;
+        this.classpathFingerprint = classpathFingerprint;
+        this.files = files;
+    }
+
+    /**
+     * Loads the run state from the passed file.
+     * If the file does not exist or was recorded against a different classpath, an empty run state is returned.
+     *
+     * @param file                 the path to the state file.
+     * @param classpathFingerprint the fingerprint of the classpath of the current run.
+     *
+     * @return the loaded run state.
+     *
+     * @throws IOException if reading the state file failed.
+     */
+    public static RunState load(final Path file, final String classpathFingerprint) throws IOException {
+        final List<String> lines;
+        try {
+            lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (final NoSuchFileException e) {
+            return new RunState(file, classpathFingerprint, new HashMap<>());
+        }
+
+        final Map<Path, FileState> files = new HashMap<>();
+        if (lines.size() < 2 || !lines.get(0).equals(HEADER) || !lines.get(1).equals(CLASSPATH + SEPARATOR + classpathFingerprint)) {
+            return new RunState(file, classpathFingerprint, files);
+        }
+
+        @Nullable List<Consumption> currentConsumed = null;
+        for (final String line : lines.subList(2, lines.size())) {
+            final String[] parts = line.split(SEPARATOR, -1);
+            if (parts[0].equals(FILE) && parts.length == 5) {
+                currentConsumed = new ArrayList<>();
+                final List<String> relevantTypes = parts[4].isEmpty() ? List.of() : List.of(parts[4].split(" "));
+                files.put(Path.of(parts[1]), new FileState(parts[2], parts[3], relevantTypes, currentConsumed));
+            } else if (currentConsumed != null && parts.length == 3) {
+                currentConsumed.add(new Consumption(parts[0], parts[1], parts[2]));
+            } else {
+                throw new IOException("Malformed run state line in " + file + ": " + line);
+            }
+        }
+        return new RunState(file, classpathFingerprint, files);
+    }
+
+    /**
+     * Opens a new session on this run state for a single restamp run.
+     *
+     * @param accessTransformers the access transformers applied by the run.
+     * @param sourceRoot         the common root folder of all source files of the run.
+     *
+     * @return the opened session.
+     */
+    public Session openSession(final IndexedAccessTransformSet accessTransformers, final Path sourceRoot) {
+        return new Session(accessTransformers, sourceRoot);
+    }
+
+    /**
+     * A session on the run state, bound to the access transformers of a single restamp run.
+     */
+    public class Session {
+
+        private final IndexedAccessTransformSet accessTransformers;
+        private final Path sourceRoot;
+        private final Map<Path, FileState> skippedFiles = new ConcurrentHashMap<>();
+        private final Map<Path, FileState> recordedFiles = new ConcurrentHashMap<>();
+
+        private Session(final IndexedAccessTransformSet accessTransformers, final Path sourceRoot) {
+            this.sourceRoot = sourceRoot;
+            this.accessTransformers = accessTransformers;
+        }
+
+        /**
+         * Looks up if the source file at the passed path is unchanged since the recorded run and can hence be skipped.
+         * The consumption of skipped source files is later applied via {@link #consumeSkipped(ConsumptionLedger)}.
+         *
+         * @param sourceFile the path to the source file.
+         * @param sourcePath the path of the source file relative to the source root.
+         *
+         * @return {@code true} if the source file does not need to be parsed.
+         *
+         * @throws IOException if reading the source file failed.
+         */
+        public boolean isUnchanged(final Path sourceFile, final Path sourcePath) throws IOException {
+            final @Nullable FileState fileState = files.get(sourcePath);
+            if (fileState == null) return false;
+            if (!fileState.contentHash().equals(FingerprintHelper.hashFile(sourceFile))) return false;
+            if (!fileState.accessTransformFingerprint().equals(
+                FingerprintHelper.fingerprintAccessTransformers(this.accessTransformers, fileState.relevantTypes())
+            )) return false;
+
+            this.skippedFiles.put(sourcePath, fileState);
+            return true;
+        }
+
+        /**
+         * Records the passed source files processed by the run.
+         * Source files changed by the run, as well as source files that could not be fully attributed, are not recorded and hence processed
+         * again by the next run.
+         * <p>
+         * Source files transformed by the {@link io.papermc.restamp.fast.FastAccessTransformApplier} are not recorded either, as their
+         * supertypes are unknown and a later access transformer of an inherited method could hence not invalidate their recorded state. They
+         * are always processed again, which is cheap as they are not parsed and only reach the fast applier if they consume an access
+         * transformer, i.e. are usually changed by the run anyway.
+         *
+         * @param sources        the processed source files.
+         * @param ledger         the ledger holding the consumption of the access transformers of the run by the processed source files.
+         * @param changedSources the source paths of the processed source files changed by the run.
+         *
+         * @throws IOException if reading a source file failed.
+         */
+        public void record(final List<SourceFile> sources,
+                           final ConsumptionLedger ledger,
+                           final Set<Path> changedSources) throws IOException {
+            for (final SourceFile source : sources) {
+                if (!(source instanceof final J.CompilationUnit compilationUnit)) continue; // Fast applied plain text is processed again.
+                if (changedSources.contains(source.getSourcePath())) continue;
+
+                final Set<String> declaredTypes = new LinkedHashSet<>();
+                final Set<String> relevantTypes = new LinkedHashSet<>();
+                if (!TypeHelper.collectTypes(compilationUnit, declaredTypes, relevantTypes)) continue;
+
+                final List<Consumption> consumed = new ArrayList<>();
+                for (final String declaredType : declaredTypes) {
+                    final IndexedAccessTransformSet.@Nullable ClassEntry entry = ledger.accessTransformers().get(declaredType);
+                    if (entry != null) collectConsumed(entry, ledger, consumed);
+                }
+
+                this.recordedFiles.put(source.getSourcePath(), new FileState(
+                    FingerprintHelper.hashFile(this.sourceRoot.resolve(source.getSourcePath())),
+                    FingerprintHelper.fingerprintAccessTransformers(this.accessTransformers, relevantTypes),
+                    List.copyOf(relevantTypes),
+                    consumed
+                ));
+            }
+        }
+
+        /**
+         * Records the access transformers recorded for all skipped source files as consumed in the passed ledger.
+         *
+         * @param ledger the ledger of the run.
+         */
+        public void consumeSkipped(final ConsumptionLedger ledger) {
+            for (final FileState fileState : this.skippedFiles.values()) {
+                for (final Consumption consumption : fileState.consumed()) {
+                    switch (consumption.kind()) {
+                        case CLASS -> ledger.consumeClass(consumption.className());
+                        case FIELD -> ledger.consumeField(consumption.className(), consumption.member());
+                        case METHOD -> {
+                            if (consumption.member().equals(WILDCARD_METHODS)) ledger.consumeAllMethods(consumption.className());
+                            else ledger.consumeMethod(consumption.className(), parseMethodSignature(consumption.member()));
+                        }
+                        default -> throw new IllegalStateException("Unknown consumption kind " + consumption.kind());
+                    }
+                }
+            }
+        }
+
+        /**
+         * Writes the state of the skipped and recorded source files of this session to the state file, replacing the previous state.
+         *
+         * @throws IOException if writing the state file failed.
+         */
+        public void save() throws IOException {
+            final Map<Path, FileState> states = new HashMap<>(this.skippedFiles);
+            states.putAll(this.recordedFiles);
+
+            final StringBuilder builder = new StringBuilder();
+            builder.append(HEADER).append('\n');
+            builder.append(CLASSPATH).append(SEPARATOR).append(classpathFingerprint).append('\n');
+            for (final Map.Entry<Path, FileState> entry : states.entrySet()) {
+                final FileState fileState = entry.getValue();
+                builder.append(String.join(SEPARATOR,
+                    FILE,
+                    entry.getKey().toString(),
+                    fileState.contentHash(),
+                    fileState.accessTransformFingerprint(),
+                    String.join(" ", fileState.relevantTypes())
+                )).append('\n');
+                for (final Consumption consumption : fileState.consumed()) {
+                    builder.append(String.join(SEPARATOR, consumption.kind(), consumption.className(), consumption.member())).append('\n');
+                }
+            }
+            FileHelper.writeAtomically(file, builder.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+    }
+
+    private static void collectConsumed(final IndexedAccessTransformSet.ClassEntry entry,
+                                        final ConsumptionLedger ledger,
+                                        final List<Consumption> consumed) {
+        if (entry.index() != IndexedAccessTransformSet.NO_INDEX && ledger.isConsumed(entry.index())) {
+            consumed.add(new Consumption(CLASS, entry.name(), ""));
+        }
+        if (entry.allFields() != null && ledger.isConsumed(entry.allFields().index())) {
+            consumed.add(new Consumption(FIELD, entry.name(), IndexedAccessTransformSet.WILDCARD));
+        }
+        for (final IndexedAccessTransformSet.MemberEntry field : entry.fields().values()) {
+            if (ledger.isConsumed(field.index())) consumed.add(new Consumption(FIELD, entry.name(), field.name()));
+        }
+        if (entry.allMethods() != null && ledger.isConsumed(entry.allMethods().index())) {
+            consumed.add(new Consumption(METHOD, entry.name(), entry.allMethods().identifier()));
+        }
+        for (final IndexedAccessTransformSet.MemberEntry method : entry.methods().values()) {
+            if (ledger.isConsumed(method.index())) consumed.add(new Consumption(METHOD, entry.name(), method.identifier()));
+        }
+    }
+
+    private static MethodSignature parseMethodSignature(final String jvmsIdentifier) {
+        final int descriptorStart = jvmsIdentifier.indexOf('(');
+        if (descriptorStart < 0) throw new IllegalStateException("Malformed method identifier in run state: " + jvmsIdentifier);
+        return new MethodSignature(jvmsIdentifier.substring(0, descriptorStart), MethodDescriptor.of(jvmsIdentifier.substring(descriptorStart)));
+    }
+
+}
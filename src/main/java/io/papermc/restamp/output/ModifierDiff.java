@@ -0,0 +1,304 @@
+package io.papermc.restamp.output;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.FileAttributes;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.config.RecipeDescriptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The modifier diff computes the unified diff of a result of restamp without the general purpose diff run by {@link Result#diff()}.
+ * <p>
+ * Restamp only changes the modifiers of declarations, so the after text of a result usually consists of the lines of the before text with
+ * some lines changed in place. These lines are found by comparing both texts line by line and emitted as hunks formatted like the git
+ * diff of {@link Result#diff()}, to which the output of this diff is byte for byte identical.
+ * <p>
+ * Results of a different shape are diffed via {@link Result#diff()} instead, e.g. if their line count changed or if a changed line equals
+ * another line of the changed region, which could make the general purpose diff align the lines differently.
+ * As the first hunk header of {@link Result#diff()} lists the recipes that made the changes, the first result of each combination of
+ * recipes and file mode is diffed via both and the outputs are compared. Combinations whose outputs differ are always diffed via
+ * {@link Result#diff()}.
+ * <p>
+ * Instances are thread-safe.
+ */
+@NullMarked
+public class ModifierDiff {
+
+    private static final int CONTEXT_LINES = 3;
+    private static final int ABBREVIATED_ID_LENGTH = 7;
+    private static final String REGULAR_FILE_MODE = "100644";
+    private static final String EXECUTABLE_FILE_MODE = "100755";
+    private static final String NO_NEWLINE_AT_END_OF_FILE = "\\ No newline at end of file\n";
+
+    /**
+     * The size above which git treats a file as binary, i.e. its diff is not computed line by line.
+     */
+    private static final int BIG_FILE_THRESHOLD = 50 * 1024 * 1024;
+
+    private final Map<Calibration, Optional<String>> hunkHeaderSuffixes = new ConcurrentHashMap<>();
+
+    /**
+     * Computes the unified diff of the passed result.
+     *
+     * @param result the result.
+     *
+     * @return the diff, identical to {@link Result#diff()}.
+     */
+    public String diff(final Result result) {
+        final @Nullable Patch patch = patch(result);
+        if (patch == null) return result.diff();
+
+        final Calibration calibration = new Calibration(result.getRecipeDescriptorsThatMadeChanges(), patch.mode());
+        final @Nullable Optional<String> hunkHeaderSuffix = this.hunkHeaderSuffixes.get(calibration);
+        if (hunkHeaderSuffix != null) return hunkHeaderSuffix.map(patch::format).orElseGet(result::diff);
+
+        final String diff = result.diff();
+        this.hunkHeaderSuffixes.putIfAbsent(calibration, Optional.ofNullable(patch.hunkHeaderSuffixOf(diff)));
+        return diff;
+    }
+
+    /**
+     * Computes the patch of the passed result if its changes are limited to lines changed in place.
+     *
+     * @param result the result.
+     *
+     * @return the patch, or null if the result has to be diffed by the general purpose diff.
+     */
+    private static @Nullable Patch patch(final Result result) {
+        final @Nullable SourceFile before = result.getBefore();
+        final @Nullable SourceFile after = result.getAfter();
+        if (before == null || after == null || !before.getSourcePath().equals(after.getSourcePath())) return null;
+
+        final String mode = fileMode(before);
+        final String path = before.getSourcePath().toString().replace('\\', '/');
+        if (!mode.equals(fileMode(after)) || !isPlainPath(path)) return null;
+
+        final String beforeText = before.printAll();
+        final String afterText = after.printAll();
+        if (beforeText.equals(afterText) || !isPlainText(beforeText) || !isPlainText(afterText)) return null;
+
+        final int[] beforeLines = lineStarts(beforeText);
+        final int[] afterLines = lineStarts(afterText);
+        if (beforeLines.length != afterLines.length) return null;
+
+        final int lineCount = beforeLines.length - 1;
+        final BitSet changedLines = new BitSet(lineCount);
+        for (int line = 0; line < lineCount; line++) {
+            if (!line(beforeText, beforeLines, line).equals(line(afterText, afterLines, line))) changedLines.set(line);
+        }
+        if (!isAlignedUnambiguously(beforeText, beforeLines, afterText, afterLines, changedLines)) return null;
+
+        final byte[] beforeBytes = beforeText.getBytes(StandardCharsets.UTF_8);
+        final byte[] afterBytes = afterText.getBytes(StandardCharsets.UTF_8);
+        if (beforeBytes.length > BIG_FILE_THRESHOLD || afterBytes.length > BIG_FILE_THRESHOLD) return null;
+
+        // Git abbreviates object ids to the shortest unique prefix of at least seven characters.
+        final String beforeId = abbreviatedBlobId(beforeBytes);
+        final String afterId = abbreviatedBlobId(afterBytes);
+        if (beforeId.equals(afterId)) return null;
+
+        final StringBuilder diff = new StringBuilder(256);
+        diff.append("diff --git a/").append(path).append(" b/").append(path).append('\n');
+        diff.append("index ").append(beforeId).append("..").append(afterId).append(' ').append(mode).append('\n');
+        diff.append("--- a/").append(path).append('\n');
+        diff.append("+++ b/").append(path).append('\n');
+
+        int firstHunkHeaderEnd = -1;
+        for (int editStart = changedLines.nextSetBit(0); editStart >= 0; ) {
+            // Edits separated by at most twice the context lines share a hunk.
+            int editEnd = changedLines.nextClearBit(editStart);
+            int nextEditStart = changedLines.nextSetBit(editEnd);
+            while (nextEditStart >= 0 && nextEditStart - editEnd <= 2 * CONTEXT_LINES) {
+                editEnd = changedLines.nextClearBit(nextEditStart);
+                nextEditStart = changedLines.nextSetBit(editEnd);
+            }
+
+            final int hunkStart = Math.max(0, editStart - CONTEXT_LINES);
+            final int hunkEnd = Math.min(lineCount, editEnd + CONTEXT_LINES);
+            final String range = hunkEnd - hunkStart == 1 ? String.valueOf(hunkStart + 1) : (hunkStart + 1) + "," + (hunkEnd - hunkStart);
+            diff.append("@@ -").append(range).append(" +").append(range).append(" @@");
+            if (firstHunkHeaderEnd < 0) firstHunkHeaderEnd = diff.length();
+            diff.append('\n');
+
+            for (int line = hunkStart; line < hunkEnd; ) {
+                if (!changedLines.get(line)) {
+                    appendLine(diff, ' ', beforeText, beforeLines, line++);
+                    continue;
+                }
+
+                final int changeEnd = changedLines.nextClearBit(line);
+                for (int removed = line; removed < changeEnd; removed++) appendLine(diff, '-', beforeText, beforeLines, removed);
+                for (int added = line; added < changeEnd; added++) appendLine(diff, '+', afterText, afterLines, added);
+                line = changeEnd;
+            }
+            editStart = nextEditStart;
+        }
+
+        return new Patch(mode, diff.substring(0, firstHunkHeaderEnd), diff.substring(firstHunkHeaderEnd));
+    }
+
+    /**
+     * Checks whether the general purpose diff aligns the lines of the before and after text like the line by line comparison does.
+     * This is the case if no changed line of either text equals any line of the other text within the region spanning all changed lines,
+     * as the unchanged lines of that region are then the only common lines and appear in the same order in both texts.
+     *
+     * @param beforeText   the before text.
+     * @param beforeLines  the line starts of the before text.
+     * @param afterText    the after text.
+     * @param afterLines   the line starts of the after text.
+     * @param changedLines the lines changed in place.
+     *
+     * @return whether the alignment is unambiguous.
+     */
+    private static boolean isAlignedUnambiguously(final String beforeText,
+                                                  final int[] beforeLines,
+                                                  final String afterText,
+                                                  final int[] afterLines,
+                                                  final BitSet changedLines) {
+        final Set<String> unchanged = new HashSet<>();
+        final Set<String> changedBefore = new HashSet<>();
+        final List<String> changedAfter = new ArrayList<>();
+        for (int line = changedLines.nextSetBit(0); line < changedLines.length(); line++) {
+            if (!changedLines.get(line)) {
+                unchanged.add(line(beforeText, beforeLines, line));
+                continue;
+            }
+            changedBefore.add(line(beforeText, beforeLines, line));
+            changedAfter.add(line(afterText, afterLines, line));
+        }
+
+        for (final String line : changedBefore) {
+            if (unchanged.contains(line)) return false;
+        }
+        for (final String line : changedAfter) {
+            if (unchanged.contains(line) || changedBefore.contains(line)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Computes the start offsets of the lines of the passed text, as split by git.
+     *
+     * @param text the text.
+     *
+     * @return the start offsets of all lines, followed by the length of the text.
+     */
+    private static int[] lineStarts(final String text) {
+        int lineCount = 0;
+        for (int index = text.indexOf('\n'); index >= 0; index = text.indexOf('\n', index + 1)) lineCount++;
+        if (!text.isEmpty() && text.charAt(text.length() - 1) != '\n') lineCount++;
+
+        final int[] lineStarts = new int[lineCount + 1];
+        for (int line = 1, index = text.indexOf('\n'); index >= 0 && line < lineCount; index = text.indexOf('\n', index + 1)) {
+            lineStarts[line++] = index + 1;
+        }
+        lineStarts[lineCount] = text.length();
+        return lineStarts;
+    }
+
+    private static String line(final String text, final int[] lineStarts, final int line) {
+        return text.substring(lineStarts[line], lineStarts[line + 1]);
+    }
+
+    private static void appendLine(final StringBuilder diff, final char prefix, final String text, final int[] lineStarts, final int line) {
+        final int end = lineStarts[line + 1];
+        final boolean missingNewline = text.charAt(end - 1) != '\n';
+        diff.append(prefix).append(text, lineStarts[line], missingNewline ? end : end - 1).append('\n');
+        if (missingNewline) diff.append(NO_NEWLINE_AT_END_OF_FILE);
+    }
+
+    /**
+     * Checks whether git diffs the passed text as text, i.e. the text contains no null characters and no carriage return that is not
+     * followed by a line feed.
+     */
+    private static boolean isPlainText(final String text) {
+        for (int index = 0; index < text.length(); index++) {
+            final char c = text.charAt(index);
+            if (c == '\0') return false;
+            if (c == '\r' && (index + 1 == text.length() || text.charAt(index + 1) != '\n')) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether git prints the passed path without quoting it.
+     */
+    private static boolean isPlainPath(final String path) {
+        for (int index = 0; index < path.length(); index++) {
+            final char c = path.charAt(index);
+            if ((c < 'a' || c > 'z') && (c < 'A' || c > 'Z') && (c < '0' || c > '9') && "/._-$".indexOf(c) < 0) return false;
+        }
+        return true;
+    }
+
+    private static String fileMode(final SourceFile sourceFile) {
+        final @Nullable FileAttributes fileAttributes = sourceFile.getFileAttributes();
+        return fileAttributes != null && fileAttributes.isExecutable() ? EXECUTABLE_FILE_MODE : REGULAR_FILE_MODE;
+    }
+
+    private static String abbreviatedBlobId(final byte[] content) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not supported by the jvm", e);
+        }
+        digest.update(("blob " + content.length + "\0").getBytes(StandardCharsets.US_ASCII));
+        return HexFormat.of().formatHex(digest.digest(content), 0, 4).substring(0, ABBREVIATED_ID_LENGTH);
+    }
+
+    /**
+     * The key of the outputs compared to {@link Result#diff()}.
+     *
+     * @param recipes the recipes that made the changes of a result.
+     * @param mode    the file mode of the source file of a result.
+     */
+    private record Calibration(List<RecipeDescriptor> recipes, String mode) {
+
+    }
+
+    /**
+     * The patch of a result, split at the end of its first hunk header, which {@link Result#diff()} suffixes with the recipes that made the
+     * changes.
+     *
+     * @param mode the file mode of the source file.
+     * @param head the patch up to the end of the first hunk header.
+     * @param tail the patch after the end of the first hunk header.
+     */
+    private record Patch(String mode, String head, String tail) {
+
+        String format(final String hunkHeaderSuffix) {
+            return this.head + hunkHeaderSuffix + this.tail;
+        }
+
+        /**
+         * Extracts the suffix of the first hunk header from the passed diff computed by {@link Result#diff()}.
+         *
+         * @param diff the diff.
+         *
+         * @return the suffix, or null if the diff does not equal this patch with any suffix.
+         */
+        @Nullable String hunkHeaderSuffixOf(final String diff) {
+            if (diff.length() < this.head.length() + this.tail.length() || !diff.startsWith(this.head) || !diff.endsWith(this.tail)) return null;
+
+            final String hunkHeaderSuffix = diff.substring(this.head.length(), diff.length() - this.tail.length());
+            return hunkHeaderSuffix.indexOf('\n') < 0 ? hunkHeaderSuffix : null;
+        }
+
+    }
+
+}
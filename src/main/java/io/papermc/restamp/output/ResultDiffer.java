@@ -0,0 +1,89 @@
+package io.papermc.restamp.output;
+
+import org.jspecify.annotations.NullMarked;
+import org.openrewrite.Result;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+
+/**
+ * The result differ computes the diffs of the results of a restamp run via {@link ModifierDiff} on multiple threads, passing each diff on as
+ * soon as the diffs of all previously submitted results were passed on.
+ * <p>
+ * The diffs are passed to the diff consumer in the order the results were submitted, one at a time, so that a consumer printing the diffs
+ * produces the same output independent of the amount of threads. At most four times as many results as threads are held before their
+ * diffs were passed on, submitting further results blocks until then.
+ */
+@NullMarked
+public class ResultDiffer implements AutoCloseable {
+
+    private final ModifierDiff modifierDiff = new ModifierDiff();
+    private final BiConsumer<Result, String> diffConsumer;
+    private final ExecutorService executor;
+    private final Semaphore pendingResults;
+    private CompletableFuture<Void> consumed = CompletableFuture.completedFuture(null);
+
+    /**
+     * Constructs a new result differ.
+     *
+     * @param threads      the amount of threads computing diffs, at least one.
+     * @param diffConsumer the consumer of each submitted result and its diff.
+     */
+    public ResultDiffer(final int threads, final BiConsumer<Result, String> diffConsumer) {
+        if (threads < 1) throw new IllegalArgumentException("Cannot diff with less than one thread: " + threads);
+        this.diffConsumer = diffConsumer;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.pendingResults = new Semaphore(threads * 4);
+    }
+
+    /**
+     * Submits the passed result to be diffed by this differ.
+     * This method may be called concurrently, the order of results submitted concurrently is the order this differ received them in.
+     *
+     * @param result the result to diff.
+     */
+    public void submit(final Result result) {
+        this.pendingResults.acquireUninterruptibly();
+        final CompletableFuture<String> diff = CompletableFuture.supplyAsync(() -> this.modifierDiff.diff(result), this.executor);
+        synchronized (this) {
+            this.consumed = this.consumed
+                .thenCombine(diff, (ignored, resultDiff) -> {
+                    this.diffConsumer.accept(result, resultDiff);
+                    return (Void) null;
+                })
+                .whenComplete((ignored, failure) -> this.pendingResults.release());
+        }
+    }
+
+    /**
+     * Waits for the diffs of all results submitted so far to be passed on.
+     *
+     * @throws IllegalStateException if diffing any result or consuming its diff failed, in which case the diffs of results submitted after
+     *                               it were not passed on.
+     */
+    public void await() {
+        final CompletableFuture<Void> consumed;
+        synchronized (this) {
+            consumed = this.consumed;
+        }
+
+        try {
+            consumed.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for results to be diffed", e);
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException("Failed to diff result", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,195 @@
+package io.papermc.restamp.output;
+
+import io.papermc.restamp.utils.FileHelper;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The result writer writes the source files changed by a restamp run back to disk, as an alternative to applying the diffs of the results.
+ * <p>
+ * Source files are written concurrently, each one atomically via {@link FileHelper#writeAtomically(Path, byte[])}, so that a failed or
+ * interrupted write never leaves a partially written source file behind. Source files whose content on disk already equals the result are
+ * not written at all, leaving their modification time untouched.
+ * <p>
+ * Closing the writer waits for all submitted writes to complete instead of cancelling them, so that a run failing after submitting some of
+ * its results leaves each of them either written or untouched. The source files written so far are available via {@link #written()}.
+ * <p>
+ * The printed source files retain the charset, byte order mark and line endings the parser read them with, as restamp only changes the
+ * modifiers of declarations.
+ */
+@NullMarked
+public class ResultWriter implements AutoCloseable {
+
+    private static final byte[] UTF_8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    /**
+     * The summary of the written results.
+     *
+     * @param written   the amount of source files written.
+     * @param unchanged the amount of source files not written as their content on disk already equals the result.
+     */
+    public record Summary(int written, int unchanged) {
+
+    }
+
+    private final Path sourceRoot;
+    private final ExecutorService executor;
+    private final List<Future<Boolean>> pendingWrites = new ArrayList<>();
+    private final Queue<Path> written = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructs a new result writer.
+     *
+     * @param sourceRoot the source root the source paths of the results are relative to.
+     * @param threads    the amount of threads writing source files, at least one.
+     */
+    public ResultWriter(final Path sourceRoot, final int threads) {
+        if (threads < 1) throw new IllegalArgumentException("Cannot write with less than one thread: " + threads);
+        this.sourceRoot = sourceRoot;
+        this.executor = Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * Writes the passed results with a new writer, waiting for all writes to complete.
+     *
+     * @param sourceRoot the source root the source paths of the results are relative to.
+     * @param results    the results to write.
+     * @param threads    the amount of threads writing source files, at least one.
+     *
+     * @return the summary of the written results.
+     *
+     * @throws IOException if writing any source file failed.
+     */
+    public static Summary write(final Path sourceRoot, final Collection<Result> results, final int threads) throws IOException {
+        try (final ResultWriter writer = new ResultWriter(sourceRoot, threads)) {
+            for (final Result result : results) writer.submit(result);
+            return writer.await();
+        }
+    }
+
+    /**
+     * Submits the passed result to be written by this writer.
+     * Results without a source file after the run, i.e. deleted source files, are ignored, as restamp never deletes source files.
+     * This method may be called concurrently, e.g. by a consumer of {@link io.papermc.restamp.Restamp#runChunked}.
+     *
+     * @param result the result to write.
+     */
+    public void submit(final Result result) {
+        final @Nullable SourceFile after = result.getAfter();
+        if (after == null) return;
+
+        final Path target = this.sourceRoot.resolve(after.getSourcePath());
+        final Future<Boolean> write = this.executor.submit(() -> {
+            if (!writeIfChanged(target, print(after))) return false;
+            this.written.add(after.getSourcePath());
+            return true;
+        });
+        synchronized (this.pendingWrites) {
+            this.pendingWrites.add(write);
+        }
+    }
+
+    /**
+     * Waits for all results submitted so far to be written.
+     *
+     * @return the summary of the results written since the last call.
+     *
+     * @throws IOException if writing any source file failed, holding the failures of further source files as suppressed exceptions.
+     */
+    public Summary await() throws IOException {
+        final List<Future<Boolean>> writes;
+        synchronized (this.pendingWrites) {
+            writes = List.copyOf(this.pendingWrites);
+            this.pendingWrites.clear();
+        }
+
+        int written = 0;
+        @Nullable IOException failure = null;
+        for (final Future<Boolean> write : writes) {
+            try {
+                if (write.get()) written++;
+            } catch (final ExecutionException e) {
+                final IOException cause = e.getCause() instanceof final IOException ioException
+                    ? ioException
+                    : new IOException("Failed to write source file", e.getCause());
+                if (failure == null) failure = cause;
+                else failure.addSuppressed(cause);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for source files to be written", e);
+            }
+        }
+        if (failure != null) throw failure;
+        return new Summary(written, writes.size() - written);
+    }
+
+    /**
+     * Yields the source paths of all source files written by this writer so far, in the order their writes completed.
+     * Source files whose content on disk already equaled the result are not included.
+     *
+     * @return the source paths of the written source files, relative to the source root.
+     */
+    public List<Path> written() {
+        return List.copyOf(this.written);
+    }
+
+    /**
+     * Closes this writer, waiting for all submitted writes to complete.
+     * If interrupted while waiting, the writes that did not start yet are cancelled, which never leaves a partially written source file
+     * behind as each write is atomic.
+     */
+    @Override
+    public void close() {
+        this.executor.close();
+    }
+
+    /**
+     * Prints the passed source file to the bytes it is written as, encoded in its charset and prefixed with a byte order mark if it was read
+     * with one.
+     *
+     * @param sourceFile the source file.
+     *
+     * @return the printed bytes.
+     */
+    static byte[] print(final SourceFile sourceFile) {
+        final @Nullable Charset sourceCharset = sourceFile.getCharset();
+        final Charset charset = sourceCharset == null ? StandardCharsets.UTF_8 : sourceCharset;
+        final byte[] content = sourceFile.printAll().getBytes(charset);
+        if (!sourceFile.isCharsetBomMarked() || !charset.equals(StandardCharsets.UTF_8)) return content;
+
+        final byte[] bomMarked = Arrays.copyOf(UTF_8_BOM, UTF_8_BOM.length + content.length);
+        System.arraycopy(content, 0, bomMarked, UTF_8_BOM.length, content.length);
+        return bomMarked;
+    }
+
+    private static boolean writeIfChanged(final Path target, final byte[] content) throws IOException {
+        try {
+            if (Files.size(target) == content.length && Arrays.equals(Files.readAllBytes(target), content)) return false;
+        } catch (final NoSuchFileException ignored) {
+            // Written below.
+        }
+
+        FileHelper.writeAtomically(target, content);
+        return true;
+    }
+
+}
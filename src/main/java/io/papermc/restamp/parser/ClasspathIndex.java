@@ -0,0 +1,254 @@
+package io.papermc.restamp.parser;
+
+import io.papermc.restamp.utils.FileHelper;
+import io.papermc.restamp.utils.FingerprintHelper;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * The classpath index maps the packages and classes found on a classpath to the classpath entries providing them.
+ * <p>
+ * The index of each jar is keyed by the hash of the jar's content and may be persisted in an index directory, so that later runs only have to
+ * read the jars that changed. To avoid hashing unchanged jars on every run, the content hash of a jar is remembered together with the size and
+ * modification time of the jar file and only recomputed once either of them changes.
+ * <p>
+ * Directories on the classpath are indexed on every load, as they are usually build outputs of the project itself that change between runs.
+ * <p>
+ * The index is not consulted by javac, which still opens and lists every jar of the classpath it is handed. Its uses are the content based
+ * {@link #fingerprint()} keying the caches of restamp, the {@link #deduplicatedClasspath()} and the package lookups of the
+ * {@link ClasspathPruningParser}, which hands javac only the jars providing the packages a batch of source files references.
+ */
+@NullMarked
+public class ClasspathIndex {
+
+    private static final String STAMPS_DIRECTORY = "stamps";
+    private static final String CLASSES_DIRECTORY = "classes";
+    private static final String CLASS_FILE_SUFFIX = ".class";
+    private static final String VERSIONED_PREFIX = "META-INF/versions/";
+
+    /**
+     * A single indexed entry of the classpath.
+     *
+     * @param path        the path to the classpath entry.
+     * @param contentHash the hash of the content of the classpath entry.
+     * @param classes     the internal names of all classes provided by the classpath entry, e.g. {@code java/util/Map$Entry}.
+     */
+    public record Entry(Path path, String contentHash, List<String> classes) {
+
+    }
+
+    private final List<Entry> entries;
+    private final Map<String, List<Path>> packageProviders = new HashMap<>();
+    private final Map<String, Path> classProviders = new HashMap<>();
+
+    private ClasspathIndex(final List<Entry> entries) {
+        this.entries = entries;
+        for (final Entry entry : entries) {
+            for (final String internalName : entry.classes()) {
+                final String className = internalName.replace('/', '.');
+                this.classProviders.putIfAbsent(className, entry.path());
+
+                final int lastDot = className.lastIndexOf('.');
+                final List<Path> providers = this.packageProviders.computeIfAbsent(
+                    lastDot < 0 ? "" : className.substring(0, lastDot), p -> new ArrayList<>()
+                );
+                if (providers.isEmpty() || providers.getLast() != entry.path()) providers.add(entry.path());
+            }
+        }
+    }
+
+    /**
+     * Loads the index of the passed classpath.
+     *
+     * @param classpath      the classpath to index.
+     * @param indexDirectory the directory in which the index of each jar is persisted, or null if the index should not be persisted.
+     *
+     * @return the loaded classpath index.
+     *
+     * @throws IOException if reading a classpath entry or the persisted index failed.
+     */
+    public static ClasspathIndex load(final List<Path> classpath, final @Nullable Path indexDirectory) throws IOException {
+        final List<Entry> entries = new ArrayList<>(classpath.size());
+        for (final Path classpathEntry : classpath) {
+            if (Files.isDirectory(classpathEntry)) {
+                entries.add(indexDirectory(classpathEntry));
+            } else if (Files.isRegularFile(classpathEntry)) {
+                entries.add(indexJar(classpathEntry, indexDirectory));
+            }
+        }
+        return new ClasspathIndex(Collections.unmodifiableList(entries));
+    }
+
+    /**
+     * Yields all indexed entries of the classpath in classpath order.
+     * Entries that did not exist at the time of indexing are not included.
+     *
+     * @return the indexed entries.
+     */
+    public List<Entry> entries() {
+        return this.entries;
+    }
+
+    /**
+     * Yields the classpath entries that provide at least one class in the passed package.
+     *
+     * @param packageName the name of the package, e.g. {@code java.util}.
+     *
+     * @return the providing classpath entries in classpath order.
+     */
+    public List<Path> packageProviders(final String packageName) {
+        return this.packageProviders.getOrDefault(packageName, Collections.emptyList());
+    }
+
+    /**
+     * Yields all packages provided by the indexed classpath.
+     *
+     * @return the package names.
+     */
+    public Set<String> packages() {
+        return Collections.unmodifiableSet(this.packageProviders.keySet());
+    }
+
+    /**
+     * Locates the classpath entry providing the class with the passed binary name.
+     * If multiple classpath entries provide the class, the first one on the classpath is returned, matching javac's resolution.
+     *
+     * @param className the binary name of the class, e.g. {@code java.util.Map$Entry}.
+     *
+     * @return the providing classpath entry or null if no entry provides the class.
+     */
+    public @Nullable Path locate(final String className) {
+        return this.classProviders.get(className);
+    }
+
+    /**
+     * Computes the deduplicated classpath, e.g. the classpath without entries without any classes and entries whose content is identical to
+     * an earlier entry.
+     *
+     * @return the deduplicated classpath.
+     */
+    public List<Path> deduplicatedClasspath() {
+        final Set<String> seenContentHashes = new HashSet<>();
+        final List<Path> deduplicatedClasspath = new ArrayList<>(this.entries.size());
+        for (final Entry entry : this.entries) {
+            if (entry.classes().isEmpty() || !seenContentHashes.add(entry.contentHash())) continue;
+            deduplicatedClasspath.add(entry.path());
+        }
+        return deduplicatedClasspath;
+    }
+
+    /**
+     * Computes a fingerprint of the indexed classpath based on the content hashes of its entries.
+     *
+     * @return the hex encoded fingerprint.
+     */
+    public String fingerprint() {
+        final StringBuilder builder = new StringBuilder();
+        for (final Entry entry : this.entries) builder.append(entry.contentHash()).append('\n');
+        return FingerprintHelper.hash(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Entry indexJar(final Path jar, final @Nullable Path indexDirectory) throws IOException {
+        if (indexDirectory == null) return new Entry(jar, FingerprintHelper.hashFile(jar), readJarClasses(jar));
+
+        // Resolve the content hash of the jar, preferably from the stamp written by a previous run.
+        final String stamp = Files.size(jar) + "\n" + Files.getLastModifiedTime(jar).toMillis() + "\n";
+        final Path stampFile = indexDirectory.resolve(STAMPS_DIRECTORY).resolve(
+            FingerprintHelper.hash(jar.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8))
+        );
+        final @Nullable String persistedStamp = readIfExists(stampFile);
+
+        final String contentHash;
+        if (persistedStamp != null && persistedStamp.startsWith(stamp)) {
+            contentHash = persistedStamp.substring(stamp.length()).strip();
+        } else {
+            contentHash = FingerprintHelper.hashFile(jar);
+            FileHelper.writeAtomically(stampFile, (stamp + contentHash).getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Resolve the classes of the jar, preferably from the index written by a previous run.
+        final Path classesFile = indexDirectory.resolve(CLASSES_DIRECTORY).resolve(contentHash);
+        final @Nullable String persistedClasses = readIfExists(classesFile);
+        if (persistedClasses != null) return new Entry(jar, contentHash, persistedClasses.lines().toList());
+
+        final List<String> classes = readJarClasses(jar);
+        FileHelper.writeAtomically(classesFile, String.join("\n", classes).getBytes(StandardCharsets.UTF_8));
+        return new Entry(jar, contentHash, classes);
+    }
+
+    private static List<String> readJarClasses(final Path jar) throws IOException {
+        final Set<String> classes = new HashSet<>();
+        try (final ZipFile zipFile = new ZipFile(jar.toFile())) {
+            final Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+            while (zipEntries.hasMoreElements()) {
+                String name = zipEntries.nextElement().getName();
+                if (!name.endsWith(CLASS_FILE_SUFFIX)) continue;
+
+                // Multi release jars define versioned classes under their own prefix.
+                if (name.startsWith(VERSIONED_PREFIX)) {
+                    final int versionEnd = name.indexOf('/', VERSIONED_PREFIX.length());
+                    if (versionEnd < 0) continue;
+                    name = name.substring(versionEnd + 1);
+                }
+
+                final String internalName = name.substring(0, name.length() - CLASS_FILE_SUFFIX.length());
+                if (isMetadataClass(internalName)) continue;
+                classes.add(internalName);
+            }
+        } catch (final ZipException e) {
+            return Collections.emptyList(); // Not a jar, javac cannot read any classes from it either.
+        }
+        return classes.stream().sorted().toList();
+    }
+
+    private static boolean isMetadataClass(final String internalName) {
+        return internalName.endsWith("module-info") || internalName.endsWith("package-info");
+    }
+
+    private static Entry indexDirectory(final Path directory) throws IOException {
+        final List<String> classes = new ArrayList<>();
+        final StringBuilder listing = new StringBuilder();
+        try (final Stream<Path> files = Files.walk(directory)) {
+            for (final Path file : (Iterable<Path>) files.sorted()::iterator) {
+                if (!Files.isRegularFile(file)) continue;
+
+                final String relativePath = directory.relativize(file).toString().replace('\\', '/');
+                listing.append(relativePath).append(' ').append(Files.size(file)).append(' ')
+                    .append(Files.getLastModifiedTime(file).toMillis()).append('\n');
+                if (!relativePath.endsWith(CLASS_FILE_SUFFIX)) continue;
+
+                final String internalName = relativePath.substring(0, relativePath.length() - CLASS_FILE_SUFFIX.length());
+                if (isMetadataClass(internalName)) continue;
+                classes.add(internalName);
+            }
+        }
+        return new Entry(directory, FingerprintHelper.hash(listing.toString().getBytes(StandardCharsets.UTF_8)), classes);
+    }
+
+    private static @Nullable String readIfExists(final Path file) throws IOException {
+        try {
+            return Files.readString(file);
+        } catch (final NoSuchFileException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,212 @@
+package io.papermc.restamp.parser;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.TypeTree;
+import org.openrewrite.tree.ParseError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The classpath pruning parser parses source files against the subset of the classpath that provides the packages referenced by them.
+ * <p>
+ * The referenced packages of the source files are computed from their package and import declarations, which are read textually before
+ * parsing. Source files that end up with unresolved types in positions restamp relies on, e.g. the declared types and all of their transitive
+ * supertypes as well as the return and parameter types of declared methods, are re-parsed against the full classpath. Such source files
+ * usually reference types through their fully qualified name or declare a type whose supertype, or one of its supertypes, lives in a jar that
+ * was not referenced directly.
+ */
+@NullMarked
+public class ClasspathPruningParser implements SourceParser {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClasspathPruningParser.class);
+    private static final Pattern DECLARATION_PATTERN = Pattern.compile(
+        "^\\s*(?:package|import)\\s+(?:static\\s+)?([\\w$]+(?:\\s*\\.\\s*[\\w$]+)*)(?:\\s*\\.\\s*\\*)?\\s*;",
+        Pattern.MULTILINE
+    );
+
+    private final ClasspathIndex classpathIndex;
+    private final Function<List<Path>, ? extends SourceParser> parserFactory;
+    private @Nullable SourceParser fullClasspathParser;
+
+    /**
+     * Constructs a new classpath pruning parser.
+     *
+     * @param classpathIndex the index of the full classpath.
+     * @param parserFactory  the factory creating a parser for the passed classpath.
+     */
+    public ClasspathPruningParser(final ClasspathIndex classpathIndex, final Function<List<Path>, ? extends SourceParser> parserFactory) {
+        this.classpathIndex = classpathIndex;
+        this.parserFactory = parserFactory;
+    }
+
+    @Override
+    public List<SourceFile> parse(final List<Path> sourceFiles, final Path sourceRoot, final ExecutionContext executionContext) {
+        final List<Path> fullClasspath = this.classpathIndex.deduplicatedClasspath();
+        final List<Path> prunedClasspath = this.prunedClasspath(sourceFiles);
+        if (prunedClasspath.size() == fullClasspath.size()) return this.fullClasspathParser().parse(sourceFiles, sourceRoot, executionContext);
+
+        LOGGER.info("Parsing {} source files against {} of {} classpath entries", sourceFiles.size(), prunedClasspath.size(), fullClasspath.size());
+        final List<SourceFile> parsed = new ArrayList<>(
+            this.parserFactory.apply(prunedClasspath).parse(sourceFiles, sourceRoot, executionContext)
+        );
+
+        // Escalate source files with unresolved types to the full classpath.
+        final Map<Path, Integer> escalatedIndices = new HashMap<>();
+        final List<Path> escalatedSourceFiles = new ArrayList<>();
+        for (int i = 0; i < parsed.size(); i++) {
+            if (!requiresFullClasspath(parsed.get(i))) continue;
+
+            escalatedIndices.put(parsed.get(i).getSourcePath(), i);
+            escalatedSourceFiles.add(sourceRoot.resolve(parsed.get(i).getSourcePath()));
+        }
+        if (escalatedSourceFiles.isEmpty()) return parsed;
+
+        LOGGER.info("Re-parsing {} source files with unresolved types against the full classpath", escalatedSourceFiles.size());
+        for (final SourceFile reparsed : this.fullClasspathParser().parse(escalatedSourceFiles, sourceRoot, executionContext)) {
+            final @Nullable Integer index = escalatedIndices.get(reparsed.getSourcePath());
+            if (index != null) parsed.set(index, reparsed);
+        }
+        return parsed;
+    }
+
+    /**
+     * Computes the subset of the deduplicated classpath that provides the packages declared or imported by the passed source files.
+     *
+     * @param sourceFiles the source files to compute the classpath for.
+     *
+     * @return the pruned classpath in classpath order.
+     */
+    List<Path> prunedClasspath(final List<Path> sourceFiles) {
+        final Set<Path> referencedEntries = new HashSet<>();
+        for (final Path sourceFile : sourceFiles) {
+            final String content;
+            try {
+                content = Files.readString(sourceFile, StandardCharsets.UTF_8);
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Failed to read source file " + sourceFile, e);
+            }
+
+            final Matcher matcher = DECLARATION_PATTERN.matcher(content);
+            while (matcher.find()) referencedEntries.addAll(this.providers(matcher.group(1).replaceAll("\\s", "")));
+        }
+
+        return this.classpathIndex.deduplicatedClasspath().stream().filter(referencedEntries::contains).toList();
+    }
+
+    /**
+     * Computes the classpath entries providing the package of the passed declared or imported name.
+     * As imports may name packages, types, nested types or static members, the name itself and then each of its prefixes is looked up as a
+     * package until one is found.
+     *
+     * @param name the declared or imported name, e.g. {@code java.util.Map.Entry}.
+     *
+     * @return the providing classpath entries.
+     */
+    private List<Path> providers(final String name) {
+        for (String candidate = name; !candidate.isEmpty(); ) {
+            final List<Path> providers = this.classpathIndex.packageProviders(candidate);
+            if (!providers.isEmpty()) return providers;
+
+            final int lastDot = candidate.lastIndexOf('.');
+            candidate = lastDot < 0 ? "" : candidate.substring(0, lastDot);
+        }
+        return List.of();
+    }
+
+    private SourceParser fullClasspathParser() {
+        if (this.fullClasspathParser == null) this.fullClasspathParser = this.parserFactory.apply(this.classpathIndex.deduplicatedClasspath());
+        return this.fullClasspathParser;
+    }
+
+    /**
+     * Computes if the passed parsed source file has unresolved types in positions restamp relies on to match access transformers.
+     *
+     * @param sourceFile the parsed source file.
+     *
+     * @return {@code true} if the source file should be parsed against the full classpath.
+     */
+    static boolean requiresFullClasspath(final SourceFile sourceFile) {
+        if (sourceFile instanceof ParseError) return true;
+        if (!(sourceFile instanceof final J.CompilationUnit compilationUnit)) return false;
+
+        final AtomicBoolean unresolved = new AtomicBoolean(false);
+        new JavaIsoVisitor<AtomicBoolean>() {
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(final J.ClassDeclaration classDecl, final AtomicBoolean unresolved) {
+                if (hasUnresolvedSupertypes(classDecl.getType(), new HashSet<>())) unresolved.set(true);
+                if (classDecl.getExtends() != null && isUnresolved(classDecl.getExtends().getType())) unresolved.set(true);
+                if (classDecl.getImplements() != null) {
+                    for (final TypeTree implemented : classDecl.getImplements()) {
+                        if (isUnresolved(implemented.getType())) unresolved.set(true);
+                    }
+                }
+                return super.visitClassDeclaration(classDecl, unresolved);
+            }
+
+            @Override
+            public J.MethodDeclaration visitMethodDeclaration(final J.MethodDeclaration method, final AtomicBoolean unresolved) {
+                final JavaType.@Nullable Method methodType = method.getMethodType();
+                if (methodType == null || isUnresolved(methodType.getReturnType())) {
+                    unresolved.set(true);
+                } else {
+                    for (final JavaType parameterType : methodType.getParameterTypes()) {
+                        if (isUnresolved(parameterType)) unresolved.set(true);
+                    }
+                }
+                return super.visitMethodDeclaration(method, unresolved);
+            }
+        }.visit(compilationUnit, unresolved);
+        return unresolved.get();
+    }
+
+    /**
+     * Computes if the passed type or any of its transitive supertypes and interfaces is unresolved, as inherited access transformers are
+     * matched through the entire type hierarchy.
+     *
+     * @param type    the type.
+     * @param visited the fully qualified names of the types already walked.
+     *
+     * @return {@code true} if a type of the hierarchy is unresolved.
+     */
+    private static boolean hasUnresolvedSupertypes(final JavaType.@Nullable FullyQualified type, final Set<String> visited) {
+        if (type == null || isUnresolved(type)) return true;
+        if (!visited.add(type.getFullyQualifiedName())) return false;
+
+        final JavaType.@Nullable FullyQualified supertype = type.getSupertype();
+        if (supertype != null && hasUnresolvedSupertypes(supertype, visited)) return true;
+        for (final JavaType.FullyQualified anInterface : type.getInterfaces()) {
+            if (hasUnresolvedSupertypes(anInterface, visited)) return true;
+        }
+        return false;
+    }
+
+    private static boolean isUnresolved(final @Nullable JavaType javaType) {
+        JavaType type = javaType;
+        while (type instanceof final JavaType.Array array) type = array.getElemType();
+        if (type instanceof final JavaType.Parameterized parameterized) type = parameterized.getType();
+        return type == null || type instanceof JavaType.Unknown;
+    }
+
+}
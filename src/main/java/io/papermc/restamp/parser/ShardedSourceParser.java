@@ -0,0 +1,239 @@
+package io.papermc.restamp.parser;
+
+import org.jspecify.annotations.NullMarked;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * The sharded source parser splits a list of source files into shards that are parsed concurrently by a pool of {@link JavaParser}s.
+ * <p>
+ * Shards are built from whole packages where possible, as files in the same package commonly reference each other and javac can resolve
+ * such references from the sources in the same compilation instead of the classpath. Packages are distributed onto the shards by their size
+ * on disk, largest first onto the currently smallest shard, which yields evenly sized shards for the parser threads to work through.
+ * <p>
+ * As each shard is parsed in isolation, types declared by sources of other shards are resolved through the classpath. Callers hence have
+ * to supply a classpath that contains the project itself, which restamp requires anyway.
+ */
+@NullMarked
+public class ShardedSourceParser implements SourceParser {
+
+    /**
+     * The amount of shards created per parser thread.
+     * Creating more shards than threads allows threads that finished their shard early to pick up remaining work.
+     */
+    private static final int SHARDS_PER_THREAD = 4;
+
+    private final Supplier<? extends JavaParser> parserFactory;
+    private final int threads;
+    private final BlockingQueue<JavaParser> parserPool;
+
+    /**
+     * Constructs a new sharded source parser.
+     *
+     * @param parserFactory the factory used to create the parser instances of the pool. All created parsers should share the same classpath.
+     * @param threads       the amount of threads, and hence parser instances, used to parse the shards.
+     */
+    public ShardedSourceParser(final Supplier<? extends JavaParser> parserFactory, final int threads) {
+        if (threads < 1) throw new IllegalArgumentException("Cannot parse with less than one thread: " + threads);
+        this.parserFactory = parserFactory;
+        this.threads = threads;
+        this.parserPool = new ArrayBlockingQueue<>(threads);
+    }
+
+    /**
+     * Parses the passed source files.
+     * The returned source files are in the same order as the passed source file paths, independent of the shard they were parsed in.
+     * <p>
+     * The parser instances of the pool are reset and kept after each parse, so that repeated calls to this method do not have to re-read the
+     * classpath.
+     *
+     * @param sourceFiles      the paths to the source files to parse.
+     * @param sourceRoot       the common root folder of all source files.
+     * @param executionContext the execution context to parse the source files with.
+     *
+     * @return the parsed source files.
+     */
+    @Override
+    public List<SourceFile> parse(final List<Path> sourceFiles, final Path sourceRoot, final ExecutionContext executionContext) {
+        if (this.threads == 1 || sourceFiles.size() < 2) return this.parseShard(sourceFiles, sourceRoot, executionContext);
+
+        final List<List<Path>> shards = shard(sourceFiles, this.threads * SHARDS_PER_THREAD);
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.threads, shards.size()));
+        try {
+            final List<Future<List<SourceFile>>> parsedShards = new ArrayList<>(shards.size());
+            for (final List<Path> shard : shards) {
+                parsedShards.add(executor.submit(() -> this.parseShard(shard, sourceRoot, executionContext)));
+            }
+
+            final List<SourceFile> parsed = new ArrayList<>(sourceFiles.size());
+            for (final Future<List<SourceFile>> parsedShard : parsedShards) parsed.addAll(parsedShard.get());
+            return sortByInputOrder(parsed, sourceFiles, sourceRoot);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing source files", e);
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException("Failed to parse source file shard", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Parses a single shard of source files with a parser from the pool.
+     *
+     * @param shard            the source files of the shard.
+     * @param sourceRoot       the common root folder of all source files.
+     * @param executionContext the execution context to parse the source files with.
+     *
+     * @return the parsed source files.
+     */
+    private List<SourceFile> parseShard(final List<Path> shard, final Path sourceRoot, final ExecutionContext executionContext) {
+        JavaParser parser = this.parserPool.poll();
+        if (parser == null) parser = this.parserFactory.get();
+        try {
+            return parser.parse(shard, sourceRoot, executionContext).toList();
+        } finally {
+            parser.reset();
+            this.parserPool.offer(parser);
+        }
+    }
+
+    /**
+     * Splits the passed source files into at most {@code shardCount} shards of roughly equal size.
+     * Source files of the same package are kept in the same shard unless the package alone exceeds the target size of a shard.
+     * <p>
+     * The computed shards are deterministic for the same input.
+     *
+     * @param sourceFiles the source files to shard.
+     * @param shardCount  the maximum amount of shards to create.
+     *
+     * @return the non-empty shards.
+     */
+    static List<List<Path>> shard(final List<Path> sourceFiles, final int shardCount) {
+        // Group source files by their package, e.g. their parent folder.
+        final Map<Path, List<Path>> packages = new LinkedHashMap<>();
+        final Map<Path, Long> fileSizes = new HashMap<>();
+        long totalSize = 0;
+        for (final Path sourceFile : sourceFiles) {
+            final long size = sizeOf(sourceFile);
+            fileSizes.put(sourceFile, size);
+            totalSize += size;
+
+            final Path parent = sourceFile.toAbsolutePath().getParent();
+            packages.computeIfAbsent(parent == null ? sourceFile.toAbsolutePath().getRoot() : parent, p -> new ArrayList<>()).add(sourceFile);
+        }
+
+        // Split packages that are too large for a single shard into units of at most the target size.
+        final long targetShardSize = Math.max(1, (totalSize + shardCount - 1) / shardCount);
+        final List<ShardUnit> units = new ArrayList<>();
+        for (final Map.Entry<Path, List<Path>> packageEntry : packages.entrySet()) {
+            ShardUnit current = new ShardUnit(packageEntry.getKey().toString(), units.size());
+            for (final Path sourceFile : packageEntry.getValue()) {
+                final long size = fileSizes.get(sourceFile);
+                if (!current.files.isEmpty() && current.size + size > targetShardSize) {
+                    units.add(current);
+                    current = new ShardUnit(packageEntry.getKey().toString(), units.size());
+                }
+                current.add(sourceFile, size);
+            }
+            units.add(current);
+        }
+
+        // Place the largest units first onto the currently smallest shard.
+        units.sort(Comparator.comparingLong((ShardUnit u) -> u.size).reversed()
+            .thenComparing(u -> u.packageName)
+            .thenComparingInt(u -> u.order));
+        final int effectiveShardCount = Math.min(shardCount, units.size());
+        final PriorityQueue<ShardUnit> shards = new PriorityQueue<>(
+            Comparator.comparingLong((ShardUnit s) -> s.size).thenComparingInt(s -> s.order)
+        );
+        for (int i = 0; i < effectiveShardCount; i++) shards.add(new ShardUnit("", i));
+        for (final ShardUnit unit : units) {
+            final ShardUnit smallestShard = shards.poll();
+            smallestShard.addAll(unit);
+            shards.add(smallestShard);
+        }
+
+        return shards.stream()
+            .filter(s -> !s.files.isEmpty())
+            .sorted(Comparator.comparingInt(s -> s.order))
+            .map(s -> s.files)
+            .toList();
+    }
+
+    /**
+     * Sorts the parsed source files into the order of the source file paths they were parsed from.
+     *
+     * @param parsed      the parsed source files.
+     * @param sourceFiles the source file paths in their requested order.
+     * @param sourceRoot  the source root the parsed source files are relative to.
+     *
+     * @return the sorted list of source files.
+     */
+    private static List<SourceFile> sortByInputOrder(final List<SourceFile> parsed, final List<Path> sourceFiles, final Path sourceRoot) {
+        final Map<Path, Integer> inputOrder = new HashMap<>(sourceFiles.size());
+        for (int i = 0; i < sourceFiles.size(); i++) inputOrder.putIfAbsent(sourceRoot.relativize(sourceFiles.get(i)), i);
+
+        final List<SourceFile> sorted = new ArrayList<>(parsed);
+        sorted.sort(Comparator.comparingInt((SourceFile s) -> inputOrder.getOrDefault(s.getSourcePath(), Integer.MAX_VALUE))
+            .thenComparing(s -> s.getSourcePath().toString()));
+        return sorted;
+    }
+
+    private static long sizeOf(final Path sourceFile) {
+        try {
+            return Files.size(sourceFile);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to read size of source file " + sourceFile, e);
+        }
+    }
+
+    /**
+     * A unit of source files that is placed into a shard as a whole.
+     * The type is used for both the package based units and the shards themselves.
+     */
+    private static final class ShardUnit {
+
+        private final String packageName;
+        private final int order;
+        private final List<Path> files = new ArrayList<>();
+        private long size;
+
+        private ShardUnit(final String packageName, final int order) {
+            this.packageName = packageName;
+            this.order = order;
+        }
+
+        private void add(final Path file, final long size) {
+            this.files.add(file);
+            this.size += size;
+        }
+
+        private void addAll(final ShardUnit other) {
+            this.files.addAll(other.files);
+            this.size += other.size;
+        }
+
+    }
+
+}
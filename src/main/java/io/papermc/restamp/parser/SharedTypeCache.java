@@ -0,0 +1,124 @@
+package io.papermc.restamp.parser;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.internal.JavaTypeCache;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The shared type cache is a {@link JavaTypeCache} that may be shared by multiple parsers of the same classpath across parse calls.
+ * <p>
+ * Types read from the classpath are identical for every parse against the same classpath and hence stay cached. Types derived from the parsed
+ * source files however are specific to a single parse call. The cache remembers which signatures were added during the current parse call and
+ * evicts those that refer to a type declared by the parsed source files once the call finished, so that later, unrelated parse calls do not see
+ * source symbols of earlier ones.
+ * <p>
+ * Parsers clear their type cache when they are reset after a parse, which would drop the cached classpath types as well. Parsers hence use
+ * a {@link #parserView() view} of the shared cache, whose {@link JavaTypeCache#clear()} leaves the shared cache to
+ * {@link #evictSourceTypes(List)}.
+ * <p>
+ * Unlike the default type cache, this cache is thread-safe, allowing it to be shared by parsers running concurrently.
+ */
+@NullMarked
+public class SharedTypeCache extends JavaTypeCache {
+
+    private final Map<String, Object> types = new ConcurrentHashMap<>();
+    private final Set<String> addedSignatures = ConcurrentHashMap.newKeySet();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> @Nullable T get(final String signature) {
+        return (T) this.types.get(signature);
+    }
+
+    @Override
+    public void put(final String signature, final @Nullable Object type) {
+        if (type == null) return;
+        if (this.types.put(signature, type) == null) this.addedSignatures.add(signature);
+    }
+
+    /**
+     * Clears all types of this cache, including the types read from the classpath.
+     */
+    @Override
+    public void clear() {
+        this.types.clear();
+        this.addedSignatures.clear();
+    }
+
+    @Override
+    public int size() {
+        return this.types.size();
+    }
+
+    /**
+     * Evicts all signatures added since the last eviction that refer to a type declared by the passed source files.
+     *
+     * @param sourceFiles the source files parsed since the last eviction.
+     *
+     * @return the amount of evicted signatures.
+     */
+    public int evictSourceTypes(final List<SourceFile> sourceFiles) {
+        final List<String> declaredTypes = new ArrayList<>();
+        for (final SourceFile sourceFile : sourceFiles) {
+            if (!(sourceFile instanceof final J.CompilationUnit compilationUnit)) continue;
+            for (final J.ClassDeclaration classDeclaration : compilationUnit.getClasses()) {
+                final JavaType.@Nullable FullyQualified type = classDeclaration.getType();
+                if (type != null) declaredTypes.add(type.getFullyQualifiedName());
+            }
+        }
+
+        int evicted = 0;
+        for (final String signature : this.addedSignatures) {
+            for (final String declaredType : declaredTypes) {
+                // Nested types, members and parameterizations of a declared type all mention its fully qualified name.
+                if (!signature.contains(declaredType)) continue;
+                this.types.remove(signature);
+                evicted++;
+                break;
+            }
+        }
+        this.addedSignatures.clear();
+        return evicted;
+    }
+
+    /**
+     * Creates a view of this cache to be passed to a parser.
+     * The view reads and writes the types of this cache, but clearing the view, e.g. when the parser is reset after a parse, leaves this cache
+     * untouched. The source types of the parse are instead dropped via {@link #evictSourceTypes(List)} once the parse finished.
+     *
+     * @return the created view.
+     */
+    public JavaTypeCache parserView() {
+        return new JavaTypeCache() {
+            @Override
+            public <T> @Nullable T get(final String signature) {
+                return SharedTypeCache.this.get(signature);
+            }
+
+            @Override
+            public void put(final String signature, final @Nullable Object type) {
+                SharedTypeCache.this.put(signature, type);
+            }
+
+            @Override
+            public void clear() {
+                // The source types are only known once the parse finished, they are evicted by the owner of the shared cache.
+            }
+
+            @Override
+            public int size() {
+                return SharedTypeCache.this.size();
+            }
+        };
+    }
+
+}
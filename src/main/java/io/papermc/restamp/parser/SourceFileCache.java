@@ -0,0 +1,296 @@
+package io.papermc.restamp.parser;
+
+import io.papermc.restamp.at.IndexedAccessTransformSet;
+import io.papermc.restamp.utils.FileHelper;
+import io.papermc.restamp.utils.FingerprintHelper;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * The source file cache is an on-disk cache that remembers which source files restamp left untouched in previous runs.
+ * <p>
+ * Restamp only ever changes or consumes access transformers for a source file based on the content of the file, the types it inherits from,
+ * the classpath it is parsed against and the access transformers applied. A source file that neither declares a type targeted by an access
+ * transformer nor was changed in a previous run with the same content, supertypes, classpath and access transformers is hence known to not be
+ * changed by the current run either.
+ * Such source files are recorded as entries in the cache, keyed by the hash of their content and a fingerprint of the classpath and access
+ * transformers, allowing {@link io.papermc.restamp.RestampInput#parseFrom(io.papermc.restamp.RestampContextConfiguration)} to skip parsing them.
+ * Each entry further records the content hashes of the source files declaring the supertypes of the types declared by its source file, as a
+ * changed supertype may e.g. now inherit from a type targeted by method access transformers. An entry is only a hit if these source files
+ * are unchanged as well.
+ * <p>
+ * The cache directory may be shared by multiple processes. Entries are written to a temporary file first and atomically moved into place,
+ * while eviction of the least recently used entries is guarded by a file lock on the cache directory.
+ */
+@NullMarked
+public class SourceFileCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SourceFileCache.class);
+
+    /**
+     * The default maximum size of the cache directory in bytes.
+     */
+    public static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+
+    private static final String ENTRIES_DIRECTORY = "entries";
+    private static final String LOCK_FILE = "cache.lock";
+
+    private final Path directory;
+    private final long maxSize;
+
+    /**
+     * Constructs a new source file cache.
+     *
+     * @param directory the directory holding the cache.
+     * @param maxSize   the maximum size in bytes the cache entries may take up before the least recently used entries are evicted.
+     */
+    public SourceFileCache(final Path directory, final long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Opens a new session on this cache for a single restamp run.
+     *
+     * @param classpathIndex     the index of the classpath the source files of the run are parsed against.
+     * @param accessTransformers the access transformers applied by the run.
+     * @param sourceRoot         the common root folder of all source files of the run.
+     *
+     * @return the opened session.
+     */
+    public Session openSession(final ClasspathIndex classpathIndex, final IndexedAccessTransformSet accessTransformers, final Path sourceRoot) {
+        try {
+            Files.createDirectories(this.directory.resolve(ENTRIES_DIRECTORY));
+            return new Session(classpathIndex, sourceRoot, FingerprintHelper.hash((
+                classpathIndex.fingerprint() + "\n" + FingerprintHelper.fingerprintAccessTransformers(accessTransformers)
+            ).getBytes(StandardCharsets.UTF_8)));
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to open source file cache at " + this.directory, e);
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries of the cache until the cache fits into its maximum size.
+     * Eviction is guarded by a file lock, so that concurrent processes sharing the cache do not evict the same entries.
+     *
+     * @throws IOException if the eviction failed.
+     */
+    public void evict() throws IOException {
+        final Path entries = this.directory.resolve(ENTRIES_DIRECTORY);
+        try (
+            final FileChannel lockChannel = FileChannel.open(
+                this.directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE
+            );
+            final FileLock ignored = lockChannel.lock()
+        ) {
+            record CacheEntry(Path path, long size, FileTime lastAccess) {
+
+            }
+
+            final List<CacheEntry> cacheEntries = new ArrayList<>();
+            try (final Stream<Path> files = Files.walk(entries)) {
+                for (final Path file : (Iterable<Path>) files::iterator) {
+                    final BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    } catch (final NoSuchFileException e) {
+                        continue; // Concurrently removed by a non-locking process, e.g. a user cleaning the directory.
+                    }
+                    if (!attributes.isRegularFile()) continue;
+                    cacheEntries.add(new CacheEntry(file, attributes.size(), attributes.lastModifiedTime()));
+                }
+            }
+
+            long totalSize = cacheEntries.stream().mapToLong(CacheEntry::size).sum();
+            if (totalSize <= this.maxSize) return;
+
+            cacheEntries.sort(Comparator.comparing(CacheEntry::lastAccess));
+            int evicted = 0;
+            for (final CacheEntry cacheEntry : cacheEntries) {
+                if (totalSize <= this.maxSize) break;
+                Files.deleteIfExists(cacheEntry.path());
+                totalSize -= cacheEntry.size();
+                evicted++;
+            }
+            LOGGER.info("Evicted {} entries from source file cache {}", evicted, this.directory);
+        }
+    }
+
+    /**
+     * A session on the source file cache, bound to the classpath and access transformers of a single restamp run.
+     */
+    public class Session {
+
+        private static final String DEPENDENCY_SEPARATOR = "\t";
+
+        private final ClasspathIndex classpathIndex;
+        private final Path sourceRoot;
+        private final String runFingerprint;
+        private final Map<Path, String> entryKeys = new ConcurrentHashMap<>();
+        private final Map<Path, String> dependencyHashes = new ConcurrentHashMap<>();
+        private int recordedEntries = 0;
+
+        private Session(final ClasspathIndex classpathIndex, final Path sourceRoot, final String runFingerprint) {
+            this.classpathIndex = classpathIndex;
+            this.sourceRoot = sourceRoot;
+            this.runFingerprint = runFingerprint;
+        }
+
+        /**
+         * Looks up if the source file at the passed path is known to be left untouched by the run.
+         * A hit requires the source files declaring the supertypes of its types to be unchanged since the entry was recorded and refreshes the
+         * last access time of the entry, keeping it from being evicted.
+         *
+         * @param sourceFile the path to the source file.
+         * @param sourcePath the path of the source file relative to the source root, as found on the parsed source file.
+         *
+         * @return {@code true} if the source file does not need to be parsed.
+         *
+         * @throws IOException if reading the source file or the cache entry failed.
+         */
+        public boolean isUntouched(final Path sourceFile, final Path sourcePath) throws IOException {
+            final String key = FingerprintHelper.hash((
+                FingerprintHelper.hashFile(sourceFile) + "\n" + this.runFingerprint
+            ).getBytes(StandardCharsets.UTF_8));
+
+            final Path entry = entryPath(key);
+            try {
+                if (this.dependenciesUnchanged(Files.readAllLines(entry, StandardCharsets.UTF_8))) {
+                    Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+                    return true;
+                }
+            } catch (final NoSuchFileException e) {
+                // Not recorded yet.
+            }
+            this.entryKeys.put(sourcePath, key);
+            return false;
+        }
+
+        /**
+         * Records the source file with the passed source path as left untouched by the run.
+         * The source file must have been looked up via {@link #isUntouched(Path, Path)} before.
+         * The passed supertypes are resolved to the source files declaring them, whose content hashes are recorded with the entry. Supertypes
+         * provided by the classpath or the platform are covered by the fingerprint of the run. If a supertype cannot be resolved, e.g. because
+         * it is declared by a source file not named after it, the source file is not recorded.
+         *
+         * @param sourcePath the path of the source file relative to the source root.
+         * @param supertypes the fully qualified names of the supertypes of the types declared by the source file.
+         *
+         * @throws IOException if writing the cache entry failed.
+         */
+        public void recordUntouched(final Path sourcePath, final Collection<String> supertypes) throws IOException {
+            final @Nullable String key = this.entryKeys.get(sourcePath);
+            if (key == null) return;
+
+            final @Nullable List<Path> dependencies = this.resolveDependencies(sourcePath, supertypes);
+            if (dependencies == null) return;
+
+            final StringBuilder content = new StringBuilder(sourcePath.toString()).append('\n');
+            for (final Path dependency : new TreeSet<>(dependencies)) {
+                if (dependency.equals(sourcePath)) continue;
+                content.append(dependency).append(DEPENDENCY_SEPARATOR).append(this.dependencyHash(dependency)).append('\n');
+            }
+            FileHelper.writeAtomically(entryPath(key), content.toString().getBytes(StandardCharsets.UTF_8));
+            this.recordedEntries++;
+        }
+
+        /**
+         * Records the source file with the passed source path, declaring types without supertypes, as left untouched by the run.
+         *
+         * @param sourcePath the path of the source file relative to the source root.
+         *
+         * @throws IOException if writing the cache entry failed.
+         * @see #recordUntouched(Path, Collection)
+         */
+        public void recordUntouched(final Path sourcePath) throws IOException {
+            this.recordUntouched(sourcePath, List.of());
+        }
+
+        private boolean dependenciesUnchanged(final List<String> entryLines) throws IOException {
+            for (final String line : entryLines.subList(Math.min(1, entryLines.size()), entryLines.size())) {
+                final int separator = line.lastIndexOf(DEPENDENCY_SEPARATOR);
+                if (separator < 0) return false;
+                try {
+                    if (!line.substring(separator + 1).equals(this.dependencyHash(Path.of(line.substring(0, separator))))) return false;
+                } catch (final NoSuchFileException e) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String dependencyHash(final Path dependency) throws IOException {
+            final @Nullable String cached = this.dependencyHashes.get(dependency);
+            if (cached != null) return cached;
+
+            final String hash = FingerprintHelper.hashFile(this.sourceRoot.resolve(dependency));
+            this.dependencyHashes.put(dependency, hash);
+            return hash;
+        }
+
+        /**
+         * Resolves the source files declaring the passed types.
+         *
+         * @param sourcePath the path of the source file the types are resolved for.
+         * @param types      the fully qualified names of the types.
+         *
+         * @return the source paths of the declaring source files, or null if a type could not be resolved.
+         */
+        private @Nullable List<Path> resolveDependencies(final Path sourcePath, final Collection<String> types) {
+            final List<Path> dependencies = new ArrayList<>();
+            for (final String type : types) {
+                final int firstDollarSign = type.indexOf('$');
+                final String topLevelType = firstDollarSign >= 0 ? type.substring(0, firstDollarSign) : type;
+                final Path declaringSourcePath = Path.of(topLevelType.replace('.', '/') + ".java");
+                // Types declared in source shadow types of the classpath.
+                if (Files.isRegularFile(this.sourceRoot.resolve(declaringSourcePath))) {
+                    dependencies.add(declaringSourcePath);
+                    continue;
+                }
+                if (this.classpathIndex.locate(type) != null) continue;
+                if (ClassLoader.getPlatformClassLoader().getResource(type.replace('.', '/') + ".class") != null) continue;
+
+                LOGGER.debug("Not caching {} as its supertype {} could not be resolved", sourcePath, type);
+                return null;
+            }
+            return dependencies;
+        }
+
+        /**
+         * Closes this session, evicting entries from the cache if new entries were recorded.
+         *
+         * @throws IOException if the eviction failed.
+         */
+        public void close() throws IOException {
+            if (this.recordedEntries > 0) evict();
+        }
+
+        private Path entryPath(final String key) {
+            return directory.resolve(ENTRIES_DIRECTORY).resolve(key.substring(0, 2)).resolve(key);
+        }
+
+    }
+
+}
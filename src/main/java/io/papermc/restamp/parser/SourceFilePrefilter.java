@@ -0,0 +1,179 @@
+package io.papermc.restamp.parser;
+
+import io.papermc.restamp.at.IndexedAccessTransformSet;
+import org.jspecify.annotations.NullMarked;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The source file prefilter is a fast textual pass over source files that drops source files which cannot contain a target of an access
+ * transformer before they are parsed.
+ * <p>
+ * A source file can only be changed by restamp if it declares a class targeted by an access transformer, or if it declares a method that
+ * overrides a method targeted by an access transformer. Both cases require the simple name of the class or the method to be present in the
+ * source file. Field names are not searched for, as fields can only be transformed in the source file declaring their owning class.
+ * <p>
+ * The prefilter memory maps each source file and scans it for identifier tokens, comparing them against the simple names found in the
+ * access transformers. Source files without any matching token are skipped. As comments and string literals are scanned too, the
+ * prefilter may keep source files that turn out to not contain a target, but it never drops a source file that does.
+ */
+@NullMarked
+public class SourceFilePrefilter {
+
+    /**
+     * The result of the prefilter pass.
+     *
+     * @param sourceFiles the source files that may contain a target of an access transformer and hence have to be parsed.
+     * @param skipped     the amount of source files that were skipped by the prefilter.
+     */
+    public record Result(List<Path> sourceFiles, int skipped) {
+
+    }
+
+    private final int[] slotHashes;
+    private final byte[][] slotNames;
+    private final int slotMask;
+
+    /**
+     * Constructs a new source file prefilter for the passed access transformers.
+     *
+     * @param accessTransformers the access transformers whose targets are searched for.
+     */
+    public SourceFilePrefilter(final IndexedAccessTransformSet accessTransformers) {
+        this(collectSimpleNames(accessTransformers));
+    }
+
+    SourceFilePrefilter(final Set<String> simpleNames) {
+        // Open addressing table with a load factor of at most 0.5.
+        final int capacity = Integer.highestOneBit(Math.max(2, simpleNames.size()) * 2) * 2;
+        this.slotHashes = new int[capacity];
+        this.slotNames = new byte[capacity][];
+        this.slotMask = capacity - 1;
+
+        for (final String simpleName : simpleNames) {
+            final byte[] name = simpleName.getBytes(StandardCharsets.UTF_8);
+            final int hash = hash(name, 0, name.length);
+            int slot = hash & this.slotMask;
+            while (this.slotNames[slot] != null) slot = (slot + 1) & this.slotMask;
+            this.slotHashes[slot] = hash;
+            this.slotNames[slot] = name;
+        }
+    }
+
+    /**
+     * Filters the passed source files down to those that may contain a target of an access transformer.
+     *
+     * @param sourceFiles the source files to filter.
+     *
+     * @return the result of the prefilter pass.
+     */
+    public Result filter(final List<Path> sourceFiles) {
+        final List<Path> matching = new ArrayList<>(sourceFiles.size());
+        for (final Path sourceFile : sourceFiles) {
+            if (mayContainTarget(sourceFile)) matching.add(sourceFile);
+        }
+        return new Result(matching, sourceFiles.size() - matching.size());
+    }
+
+    /**
+     * Scans the source file at the passed path for identifier tokens matching a simple name of the access transformers.
+     *
+     * @param sourceFile the path to the source file.
+     *
+     * @return {@code true} if any identifier token matched.
+     */
+    public boolean mayContainTarget(final Path sourceFile) {
+        try (final FileChannel channel = FileChannel.open(sourceFile, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            final int limit = buffer.limit();
+
+            int tokenStart = -1;
+            int tokenHash = 0;
+            for (int i = 0; i <= limit; i++) {
+                final byte current = i < limit ? buffer.get(i) : (byte) ' ';
+                if (isIdentifierByte(current)) {
+                    if (tokenStart < 0) {
+                        tokenStart = i;
+                        tokenHash = 0;
+                    }
+                    tokenHash = 31 * tokenHash + current;
+                    continue;
+                }
+
+                if (tokenStart >= 0 && this.contains(buffer, tokenStart, i, tokenHash)) return true;
+                tokenStart = -1;
+            }
+            return false;
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to scan source file " + sourceFile, e);
+        }
+    }
+
+    private boolean contains(final MappedByteBuffer buffer, final int start, final int end, final int hash) {
+        for (int slot = hash & this.slotMask; ; slot = (slot + 1) & this.slotMask) {
+            final byte[] name = this.slotNames[slot];
+            if (name == null) return false;
+            if (this.slotHashes[slot] != hash || name.length != end - start) continue;
+
+            boolean equal = true;
+            for (int i = 0; i < name.length && equal; i++) equal = name[i] == buffer.get(start + i);
+            if (equal) return true;
+        }
+    }
+
+    /**
+     * Checks if the passed byte may be part of a java identifier in an UTF-8 encoded source file.
+     * All bytes of multibyte characters are considered part of an identifier.
+     *
+     * @param b the byte.
+     *
+     * @return {@code true} if the byte may be part of an identifier.
+     */
+    private static boolean isIdentifierByte(final byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') || b == '_' || b == '$' || b < 0;
+    }
+
+    private static int hash(final byte[] bytes, final int start, final int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) hash = 31 * hash + bytes[i];
+        return hash;
+    }
+
+    /**
+     * Collects the simple names searched for by the prefilter from the passed access transformers.
+     * This includes the simple names of each class in the binary name of a targeted class, as well as the names of targeted methods.
+     *
+     * @param accessTransformers the access transformers.
+     *
+     * @return the simple names.
+     */
+    static Set<String> collectSimpleNames(final IndexedAccessTransformSet accessTransformers) {
+        final Set<String> simpleNames = new HashSet<>();
+        for (final IndexedAccessTransformSet.ClassEntry transformerClass : accessTransformers.classes()) {
+            final String className = transformerClass.name();
+            final String binaryName = className.substring(className.lastIndexOf('.') + 1);
+            Arrays.stream(binaryName.split("\\$"))
+                .map(n -> n.replaceFirst("^[0-9]+", "")) // Local classes are prefixed with their index, anonymous classes consist of it.
+                .filter(n -> !n.isEmpty())
+                .forEach(simpleNames::add);
+
+            for (final String methodName : transformerClass.methodsByName().keySet()) {
+                if (methodName.startsWith("<")) continue; // Constructors are named after their class.
+                simpleNames.add(methodName);
+            }
+        }
+        return simpleNames;
+    }
+
+}
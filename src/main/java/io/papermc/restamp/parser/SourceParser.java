@@ -0,0 +1,28 @@
+package io.papermc.restamp.parser;
+
+import org.jspecify.annotations.NullMarked;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.SourceFile;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A source parser parses source files on disk into rewrite source files.
+ */
+@NullMarked
+public interface SourceParser {
+
+    /**
+     * Parses the passed source files.
+     * The returned source files are in the same order as the passed source file paths.
+     *
+     * @param sourceFiles      the paths to the source files to parse.
+     * @param sourceRoot       the common root folder of all source files.
+     * @param executionContext the execution context to parse the source files with.
+     *
+     * @return the parsed source files.
+     */
+    List<SourceFile> parse(List<Path> sourceFiles, Path sourceRoot, ExecutionContext executionContext);
+
+}
@@ -0,0 +1,433 @@
+package io.papermc.restamp.recipe;
+
+import io.papermc.restamp.at.AccessTransformerIndex;
+import io.papermc.restamp.at.AccessTransformerTypeConverter;
+import io.papermc.restamp.at.ConsumptionLedger;
+import io.papermc.restamp.at.IndexedAccessTransformSet;
+import io.papermc.restamp.at.ModifierTransformationResult;
+import io.papermc.restamp.at.ModifierTransformer;
+import io.papermc.restamp.at.TypeHierarchyIndex;
+import io.papermc.restamp.bytecode.BytecodeIndex;
+import io.papermc.restamp.utils.DescriptorHelper;
+import org.cadixdev.at.AccessTransform;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Preconditions;
+import org.openrewrite.Recipe;
+import org.openrewrite.Tree;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.JavaType.FullyQualified;
+import org.openrewrite.java.tree.Space;
+import org.openrewrite.java.tree.Statement;
+import org.openrewrite.java.tree.TypeTree;
+import org.openrewrite.marker.SearchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The {@link ATMutator} recipe is responsible for applying access transformers to class, field and method definitions across the source
+ * files provided.
+ * <p>
+ * All definitions of a source file are transformed in a single traversal. The visitor keeps an explicit stack of the scopes enclosing the
+ * visited tree, holding the access transformers of each enclosing class, so that members find the access transformers of their class
+ * without walking up the cursor. Compilation units that the access transformers cannot affect, as determined by an
+ * {@link AccessTransformerIndex}, are not visited at all.
+ * <p>
+ * As access transformers only target declarations, the visitor only descends into method bodies, initializer blocks, field initializers and
+ * lambdas if the index reports that declarations of local or anonymous classes in the compilation unit may be affected.
+ */
+@NullMarked
+public class ATMutator extends Recipe {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ATMutator.class);
+
+    private final IndexedAccessTransformSet atDictionary;
+    private final ConsumptionLedger ledger;
+    private final ModifierTransformer modifierTransformer;
+    private final AccessTransformerTypeConverter atTypeConverter;
+    private final @Nullable BytecodeIndex bytecodeIndex;
+    private final TypeHierarchyIndex typeHierarchyIndex;
+    private final AccessTransformerIndex accessTransformerIndex;
+
+    /**
+     * Constructs a new access transformer mutator.
+     *
+     * @param atDictionary        the access transformers to apply.
+     * @param ledger              the ledger recording the consumption of the access transformers.
+     * @param modifierTransformer the transformer of the modifiers of targeted definitions.
+     * @param atTypeConverter     the converter of the types of type attributed methods.
+     * @param bytecodeIndex       the index of the compiled classes of the source files, used to resolve the signatures of methods whose types
+     *                            could not be attributed, or null if signatures are only computed from type attributed methods.
+     */
+    public ATMutator(final IndexedAccessTransformSet atDictionary,
+                     final ConsumptionLedger ledger,
+                     final ModifierTransformer modifierTransformer,
+                     final AccessTransformerTypeConverter atTypeConverter,
+                     final @Nullable BytecodeIndex bytecodeIndex) {
+        this.atDictionary = atDictionary;
+        this.ledger = ledger;
+        this.modifierTransformer = modifierTransformer;
+        this.atTypeConverter = atTypeConverter;
+        this.bytecodeIndex = bytecodeIndex;
+        this.typeHierarchyIndex = new TypeHierarchyIndex(this.atDictionary, bytecodeIndex);
+        this.accessTransformerIndex = new AccessTransformerIndex(this.atDictionary, this.typeHierarchyIndex);
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Applies access transformers";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Applies pre-configured access transformers to classes, fields and methods in the codebase to make them more accessible";
+    }
+
+    /**
+     * A scope enclosing the visited tree.
+     * Only class declarations and anonymous class bodies declare members, method declarations and lambdas hide the enclosing class from the
+     * declarations in their body, which are local.
+     *
+     * @param type             the type of the class declaration or anonymous class, or null if the scope is a method declaration, a lambda
+     *                         or a class that was not type attributed.
+     * @param transformerClass the access transformers of the class declaration, or null if there are none.
+     * @param typeParameters   the type parameters declared by the scope.
+     */
+    private record Scope(@Nullable FullyQualified type, IndexedAccessTransformSet.@Nullable ClassEntry transformerClass, List<J.TypeParameter> typeParameters) {
+
+        private static final Scope LOCAL = new Scope(null, null, List.of());
+
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        // Compilation units without relevant access transformers are returned untouched without being visited.
+        final TreeVisitor<Tree, ExecutionContext> precondition = new TreeVisitor<>() {
+            @Override
+            public @Nullable Tree visit(final @Nullable Tree tree, final ExecutionContext executionContext) {
+                if (tree instanceof final J.CompilationUnit compilationUnit && accessTransformerIndex.isRelevant(compilationUnit)) {
+                    return SearchResult.found(compilationUnit);
+                }
+                return tree;
+            }
+        };
+
+        return Preconditions.check(precondition, new JavaIsoVisitor<ExecutionContext>() {
+
+            private final Deque<Scope> scopes = new ArrayDeque<>();
+            private boolean traverseLocalDeclarations = true;
+
+            @Override
+            public J.CompilationUnit visitCompilationUnit(final J.CompilationUnit compilationUnit, final ExecutionContext executionContext) {
+                this.traverseLocalDeclarations = accessTransformerIndex.requiresLocalTraversal(compilationUnit);
+                return super.visitCompilationUnit(compilationUnit, executionContext);
+            }
+
+            @Override
+            public J.Block visitBlock(final J.Block block, final ExecutionContext executionContext) {
+                final Object parent = getCursor().getParentTreeCursor().getValue();
+                // Initializer blocks are the only blocks directly nested in the body of a class.
+                if (!this.traverseLocalDeclarations && parent instanceof J.Block) return block;
+                if (!(parent instanceof final J.NewClass newClass) || newClass.getBody() != block) return super.visitBlock(block, executionContext);
+
+                // The body of an anonymous class declares the members of the anonymous class, e.g. Outer$1.
+                final @Nullable FullyQualified type = anonymousType(newClass);
+                this.scopes.push(new Scope(type, type == null ? null : atDictionary.get(type.getFullyQualifiedName()), List.of()));
+                try {
+                    return super.visitBlock(block, executionContext);
+                } finally {
+                    this.scopes.pop();
+                }
+            }
+
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(final J.ClassDeclaration unresolvedClassDeclaration,
+                                                            final ExecutionContext executionContext) {
+                final @Nullable FullyQualified type = unresolvedClassDeclaration.getType();
+                final Scope scope = new Scope(
+                    type,
+                    type == null ? null : atDictionary.get(type.getFullyQualifiedName()),
+                    Optional.ofNullable(unresolvedClassDeclaration.getTypeParameters()).orElse(List.of())
+                );
+
+                this.scopes.push(scope);
+                final J.ClassDeclaration classDeclaration;
+                try {
+                    classDeclaration = super.visitClassDeclaration(unresolvedClassDeclaration, executionContext);
+                } finally {
+                    this.scopes.pop();
+                }
+
+                final IndexedAccessTransformSet.@Nullable ClassEntry transformerClass = scope.transformerClass();
+                if (transformerClass == null) return classDeclaration;
+
+                final AccessTransform accessTransform = transformerClass.transform();
+                if (accessTransform.isEmpty()) return classDeclaration;
+
+                ledger.consume(transformerClass.index()); // Mark as consumed
+
+                final ModifierTransformationResult transformationResult = modifierTransformer.transformModifiers(
+                    accessTransform,
+                    classDeclaration.getModifiers(),
+                    classDeclaration.getPadding().getKind().getPrefix()
+                );
+
+                return classDeclaration
+                    .withModifiers(transformationResult.newModifiers())
+                    .getPadding().withKind(classDeclaration.getPadding().getKind().withPrefix(transformationResult.parentSpace()));
+            }
+
+            @Override
+            public J.VariableDeclarations visitVariableDeclarations(final J.VariableDeclarations multiVariable,
+                                                                    final ExecutionContext executionContext) {
+                // Without local declarations, only the modifiers of the field are of interest, its initializer does not need to be visited.
+                final J.VariableDeclarations variableDeclarations = this.traverseLocalDeclarations
+                    ? super.visitVariableDeclarations(multiVariable, executionContext)
+                    : multiVariable;
+
+                final @Nullable Scope scope = this.scopes.peek();
+                if (scope == null || scope.type() == null) return variableDeclarations;
+
+                // Find access transformers for class
+                final IndexedAccessTransformSet.@Nullable ClassEntry transformerClass = scope.transformerClass();
+                if (transformerClass == null) return variableDeclarations;
+
+                // Fetch access transformer to apply to specific field and mark it as consumed.
+                AccessTransform accessTransformToApply = AccessTransform.EMPTY;
+                for (final J.VariableDeclarations.NamedVariable variable : variableDeclarations.getVariables()) {
+                    final IndexedAccessTransformSet.@Nullable MemberEntry field = transformerClass.fields().get(variable.getSimpleName());
+                    if (field == null) continue;
+                    accessTransformToApply = accessTransformToApply.merge(field.transform());
+                    ledger.consume(field.index());
+                }
+                final IndexedAccessTransformSet.@Nullable MemberEntry allFields = transformerClass.allFields();
+                if (allFields != null) {
+                    accessTransformToApply = accessTransformToApply.merge(allFields.transform());
+                    ledger.consume(allFields.index());
+                }
+                if (accessTransformToApply.isEmpty()) return variableDeclarations;
+
+                // Compute and set new modifiers
+                final ModifierTransformationResult transformationResult = modifierTransformer.transformModifiers(
+                    accessTransformToApply,
+                    variableDeclarations.getModifiers(),
+                    Optional.ofNullable(variableDeclarations.getTypeExpression()).map(J::getPrefix).orElse(Space.EMPTY)
+                );
+                return variableDeclarations
+                    .withModifiers(transformationResult.newModifiers())
+                    .withTypeExpression(variableDeclarations.getTypeExpression().withPrefix(transformationResult.parentSpace()));
+            }
+
+            @Override
+            public J.MethodDeclaration visitMethodDeclaration(final J.MethodDeclaration unresolvedMethodDecl,
+                                                              final ExecutionContext executionContext) {
+                final @Nullable Scope scope = this.scopes.peek();
+
+                this.scopes.push(new Scope(null, null, Optional.ofNullable(unresolvedMethodDecl.getTypeParameters()).orElse(List.of())));
+                final J.MethodDeclaration methodDeclaration;
+                try {
+                    methodDeclaration = this.traverseLocalDeclarations
+                        ? super.visitMethodDeclaration(unresolvedMethodDecl, executionContext)
+                        : unresolvedMethodDecl;
+                } finally {
+                    this.scopes.pop();
+                }
+
+                final @Nullable FullyQualified owningType = scope == null ? null : scope.type();
+                if (owningType == null) return methodDeclaration;
+
+                // The wildcard of the owning type applies to all its methods, without resolving their signature.
+                final IndexedAccessTransformSet.@Nullable MemberEntry allMethods = scope.transformerClass() == null
+                    ? null
+                    : scope.transformerClass().allMethods();
+                if (allMethods != null) ledger.consume(allMethods.index());
+
+                // Find access transformers for method
+                final @Nullable MethodSignature methodSignature = resolveSignature(owningType, methodDeclaration, this.scopes);
+                @Nullable AccessTransform accessTransform = methodSignature == null
+                    ? null
+                    : findApplicableAccessTransformer(owningType, methodSignature);
+                if (allMethods != null) {
+                    accessTransform = accessTransform == null ? allMethods.transform() : accessTransform.merge(allMethods.transform());
+                }
+                if (accessTransform == null) return methodDeclaration;
+
+                final TypeTree returnTypeExpression = methodDeclaration.getReturnTypeExpression();
+                final ModifierTransformationResult transformationResult = modifierTransformer.transformModifiers(
+                    accessTransform,
+                    methodDeclaration.getModifiers(),
+                    Optional.ofNullable(returnTypeExpression).map(J::getPrefix).orElse(methodDeclaration.getName().getPrefix())
+                );
+
+                J.MethodDeclaration updated = methodDeclaration.withModifiers(transformationResult.newModifiers());
+                if (returnTypeExpression != null) {
+                    updated = updated.withReturnTypeExpression(returnTypeExpression.withPrefix(transformationResult.parentSpace()));
+                } else {
+                    updated = updated.withName(updated.getName().withPrefix(transformationResult.parentSpace()));
+                }
+
+                return updated;
+            }
+
+            @Override
+            public J.Lambda visitLambda(final J.Lambda lambda, final ExecutionContext executionContext) {
+                this.scopes.push(Scope.LOCAL);
+                try {
+                    return super.visitLambda(lambda, executionContext);
+                } finally {
+                    this.scopes.pop();
+                }
+            }
+        });
+    }
+
+    /**
+     * Yields the type of the anonymous class declared by the passed new class expression.
+     * The constructor invoked by the expression is the one of the anonymous class, hence it is declared by the anonymous class itself.
+     *
+     * @param newClass the new class expression declaring an anonymous class.
+     *
+     * @return the type or null if the expression was not type attributed.
+     */
+    private static @Nullable FullyQualified anonymousType(final J.NewClass newClass) {
+        final JavaType.@Nullable Method constructorType = newClass.getConstructorType();
+        if (constructorType == null) return null;
+
+        // Anonymous classes are named by their index, the declaring type is not the anonymous class if the constructor was not attributed.
+        final FullyQualified declaringType = constructorType.getDeclaringType();
+        final String name = declaringType.getFullyQualifiedName();
+        final int lastDollarSign = name.lastIndexOf('$');
+        if (lastDollarSign < 0 || lastDollarSign + 1 >= name.length() || !Character.isDigit(name.charAt(lastDollarSign + 1))) return null;
+        return declaringType;
+    }
+
+    /**
+     * Resolves the signature of a method declaration.
+     * The signature is computed from the type attributed method declaration if possible and otherwise resolved via the bytecode index.
+     *
+     * @param owningType        the type declaring the method.
+     * @param methodDeclaration the method declaration.
+     * @param scopes            the scopes enclosing the method declaration.
+     *
+     * @return the signature or null if it could not be resolved.
+     *
+     * @throws IllegalArgumentException if the types of the method could not be converted and no bytecode index is available.
+     */
+    @Nullable
+    private MethodSignature resolveSignature(final FullyQualified owningType,
+                                             final J.MethodDeclaration methodDeclaration,
+                                             final Deque<Scope> scopes) {
+        final JavaType.@Nullable Method methodType = methodDeclaration.getMethodType();
+        if (methodType != null) {
+            try {
+                return this.atTypeConverter.convert(methodType);
+            } catch (final IllegalArgumentException e) {
+                if (this.bytecodeIndex == null) throw e;
+            }
+        }
+
+        if (this.bytecodeIndex != null) {
+            final @Nullable MethodSignature methodSignature = this.bytecodeIndex.resolve(
+                owningType.getFullyQualifiedName(),
+                methodDeclaration.isConstructor() ? "<init>" : methodDeclaration.getSimpleName(),
+                erasedParameterTypes(methodDeclaration, typeVariables(methodDeclaration, scopes))
+            );
+            if (methodSignature != null) return methodSignature;
+            LOGGER.warn("Method {}#{} could not be resolved in the compiled classes!", owningType.getFullyQualifiedName(), methodDeclaration.getSimpleName());
+            return null;
+        }
+
+        LOGGER.warn("Method {}#{} did not have a method type!", owningType.getFullyQualifiedName(), methodDeclaration.getSimpleName());
+        return null;
+    }
+
+    /**
+     * Collects the names of the type variables visible to a method declaration, i.e. those of the method and its enclosing scopes.
+     *
+     * @param methodDeclaration the method declaration.
+     * @param scopes            the scopes enclosing the method declaration.
+     *
+     * @return the names of the type variables.
+     */
+    private static Set<String> typeVariables(final J.MethodDeclaration methodDeclaration, final Deque<Scope> scopes) {
+        final Set<String> typeVariables = new HashSet<>();
+        final List<J.TypeParameter> typeParameters = new ArrayList<>(Optional.ofNullable(methodDeclaration.getTypeParameters()).orElse(List.of()));
+        for (final Scope scope : scopes) typeParameters.addAll(scope.typeParameters());
+        for (final J.TypeParameter typeParameter : typeParameters) typeVariables.add(typeParameter.getName().toString().trim());
+        return typeVariables;
+    }
+
+    /**
+     * Computes the erased simple names of the parameter types of a method declaration as written in source code.
+     *
+     * @param methodDeclaration the method declaration.
+     * @param typeVariables     the names of the type variables visible to the method, whose erasure is unknown.
+     *
+     * @return the erased simple names, null for parameters typed by a type variable.
+     */
+    private static List<@Nullable String> erasedParameterTypes(final J.MethodDeclaration methodDeclaration, final Set<String> typeVariables) {
+        final List<@Nullable String> parameterTypes = new ArrayList<>();
+        for (final Statement parameter : methodDeclaration.getParameters()) {
+            if (!(parameter instanceof final J.VariableDeclarations variableDeclarations)) continue; // J.Empty of parameterless methods.
+
+            final TypeTree typeExpression = variableDeclarations.getTypeExpression();
+            if (typeExpression == null) {
+                parameterTypes.add(null);
+                continue;
+            }
+
+            final String erasedSimpleName = DescriptorHelper.erasedSimpleName(typeExpression.toString());
+            int dimensions = variableDeclarations.getVarargs() != null ? 1 : 0;
+            for (final J.VariableDeclarations.NamedVariable variable : variableDeclarations.getVariables()) {
+                dimensions += variable.getDimensionsAfterName().size();
+            }
+
+            final String componentName = erasedSimpleName.replace("[]", "");
+            parameterTypes.add(typeVariables.contains(componentName) ? null : erasedSimpleName + "[]".repeat(dimensions));
+        }
+        return parameterTypes;
+    }
+
+    /**
+     * Finds the applicable access transformer for a method and *optionally* marks it as consumed in the ledger.
+     * <p>
+     * The access transformers of the owning type and its ancestors, including implemented interfaces, are looked up in the order yielded by
+     * the {@link TypeHierarchyIndex}.
+     *
+     * @param owningType      the owning type of the method, e.g. the type it is defined in.
+     * @param methodSignature the signature of the method.
+     *
+     * @return the access transformer or null.
+     */
+    @Nullable
+    private AccessTransform findApplicableAccessTransformer(final FullyQualified owningType, final MethodSignature methodSignature) {
+        for (final String transformedType : this.typeHierarchyIndex.transformedAncestors(owningType)) {
+            final IndexedAccessTransformSet.@Nullable ClassEntry inheritedTransformerClass = atDictionary.get(transformedType);
+            if (inheritedTransformerClass == null) continue;
+
+            // Only get the method here.
+            final IndexedAccessTransformSet.@Nullable MemberEntry method = inheritedTransformerClass.methods().get(methodSignature);
+            if (method == null) continue;
+
+            // If we *did* find an AT here and this *is* the direct owning type, mark it as consumed.
+            if (transformedType.equals(owningType.getFullyQualifiedName())) ledger.consume(method.index());
+            return method.transform();
+        }
+
+        return null; // We did not find anything applicable.
+    }
+
+}
@@ -0,0 +1,68 @@
+package io.papermc.restamp.recipe;
+
+import io.papermc.restamp.at.ConsumptionLedger;
+import io.papermc.restamp.at.IndexedAccessTransformSet;
+import io.papermc.restamp.at.ModifierTransformer;
+import io.papermc.restamp.fast.FastAccessTransformApplier;
+import io.papermc.restamp.fast.FastApplied;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.text.PlainText;
+import org.openrewrite.text.PlainTextVisitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link FastATMutator} recipe is responsible for applying access transformers to java source files that were not parsed but read as
+ * {@link PlainText}, using the {@link FastAccessTransformApplier}.
+ */
+@NullMarked
+public class FastATMutator extends Recipe {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FastATMutator.class);
+
+    private final ConsumptionLedger ledger;
+    private final FastAccessTransformApplier applier;
+
+    public FastATMutator(final IndexedAccessTransformSet atDictionary, final ConsumptionLedger ledger, final ModifierTransformer modifierTransformer) {
+        this.ledger = ledger;
+        this.applier = new FastAccessTransformApplier(atDictionary, modifierTransformer);
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Applies access transformers to unparsed java sources";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Applies pre-configured access transformers to the text of java sources that do not need to be parsed to apply them";
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return new PlainTextVisitor<>() {
+            @Override
+            public PlainText visitText(final PlainText text, final ExecutionContext executionContext) {
+                if (!text.getSourcePath().toString().endsWith(".java")) return text;
+
+                // Sources split off by restamp carry the application computed while splitting them.
+                final FastAccessTransformApplier.@Nullable Application application = text.getMarkers().findFirst(FastApplied.class)
+                    .map(FastApplied::application)
+                    .orElseGet(() -> applier.apply(text.getText()));
+                if (application == null) {
+                    LOGGER.warn("Could not apply access transformers to {} without parsing it", text.getSourcePath());
+                    return text;
+                }
+
+                application.consume(ledger); // Mark as consumed
+                if (application.transformedSource().equals(text.getText())) return text;
+                return text.withText(application.transformedSource());
+            }
+        };
+    }
+
+}
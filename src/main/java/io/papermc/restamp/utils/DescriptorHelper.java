@@ -0,0 +1,136 @@
+package io.papermc.restamp.utils;
+
+import org.jspecify.annotations.NullMarked;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The descriptor helper type is a pure utility class that holds static helper methods for matching method descriptors against source code
+ * that was not type attributed.
+ * <p>
+ * Both sides are reduced to the erased simple names of their types, e.g. {@code Entry[]} for both {@code [Ljava/util/Map$Entry;} and
+ * {@code Map.Entry<K, V>[]}.
+ */
+@NullMarked
+public class DescriptorHelper {
+
+    /**
+     * Computes the erased simple names of the parameter types of the passed method descriptor.
+     *
+     * @param methodDescriptor the method descriptor, e.g. {@code (I[Ljava/lang/String;)V}.
+     *
+     * @return the erased simple names of the parameter types, e.g. {@code int} and {@code String[]}.
+     *
+     * @throws IllegalArgumentException if the passed descriptor is malformed.
+     */
+    public static List<String> erasedSimpleParameterNames(final String methodDescriptor) {
+        if (!methodDescriptor.startsWith("(") || methodDescriptor.indexOf(')') < 0) {
+            throw new IllegalArgumentException("Malformed method descriptor " + methodDescriptor);
+        }
+        final String parameters = methodDescriptor.substring(1, methodDescriptor.indexOf(')'));
+
+        final List<String> parameterTypes = new ArrayList<>();
+        int index = 0;
+        while (index < parameters.length()) {
+            int dimensions = 0;
+            while (parameters.charAt(index) == '[') {
+                dimensions++;
+                index++;
+            }
+
+            final String simpleName;
+            if (parameters.charAt(index) == 'L') {
+                final int end = parameters.indexOf(';', index);
+                if (end < 0) throw new IllegalArgumentException("Malformed method descriptor " + methodDescriptor);
+                final String className = parameters.substring(index + 1, end);
+                simpleName = className.substring(Math.max(className.lastIndexOf('/'), className.lastIndexOf('$')) + 1);
+                index = end + 1;
+            } else {
+                simpleName = switch (parameters.charAt(index)) {
+                    case 'B' -> "byte";
+                    case 'C' -> "char";
+                    case 'D' -> "double";
+                    case 'F' -> "float";
+                    case 'I' -> "int";
+                    case 'J' -> "long";
+                    case 'S' -> "short";
+                    case 'Z' -> "boolean";
+                    default -> throw new IllegalArgumentException("Malformed method descriptor " + methodDescriptor);
+                };
+                index++;
+            }
+            parameterTypes.add(simpleName + "[]".repeat(dimensions));
+        }
+        return parameterTypes;
+    }
+
+    /**
+     * Computes the erased simple name of a type as written in source code.
+     * Annotations, comments and type arguments are dropped, qualified names are reduced to their last segment.
+     *
+     * @param sourceType the source code of the type, e.g. {@code java.util.Map.@Nullable Entry<K, V>[]}.
+     *
+     * @return the erased simple name, e.g. {@code Entry[]}.
+     */
+    public static String erasedSimpleName(final String sourceType) {
+        String simpleName = "";
+        int dimensions = 0;
+        int angleDepth = 0;
+        int index = 0;
+        while (index < sourceType.length()) {
+            final char current = sourceType.charAt(index);
+            if (sourceType.startsWith("/*", index)) {
+                final int end = sourceType.indexOf("*/", index + 2);
+                index = end < 0 ? sourceType.length() : end + 2;
+            } else if (sourceType.startsWith("//", index)) {
+                final int end = sourceType.indexOf('\n', index);
+                index = end < 0 ? sourceType.length() : end + 1;
+            } else if (current == '@') {
+                index = skipAnnotation(sourceType, index + 1);
+            } else if (current == '<') {
+                angleDepth++;
+                index++;
+            } else if (current == '>') {
+                angleDepth--;
+                index++;
+            } else if (angleDepth == 0 && current == '[') {
+                dimensions++;
+                index++;
+            } else if (angleDepth == 0 && Character.isJavaIdentifierStart(current)) {
+                final int start = index;
+                while (index < sourceType.length() && Character.isJavaIdentifierPart(sourceType.charAt(index))) index++;
+                simpleName = sourceType.substring(start, index);
+            } else {
+                index++;
+            }
+        }
+        return simpleName + "[]".repeat(dimensions);
+    }
+
+    /**
+     * Skips the name and arguments of an annotation.
+     *
+     * @param sourceType the source code of the type.
+     * @param index      the offset after the {@code @} of the annotation.
+     *
+     * @return the offset after the annotation.
+     */
+    private static int skipAnnotation(final String sourceType, int index) {
+        while (index < sourceType.length() && Character.isWhitespace(sourceType.charAt(index))) index++;
+        while (index < sourceType.length() && (Character.isJavaIdentifierPart(sourceType.charAt(index)) || sourceType.charAt(index) == '.')) {
+            index++;
+        }
+        while (index < sourceType.length() && Character.isWhitespace(sourceType.charAt(index))) index++;
+        if (index >= sourceType.length() || sourceType.charAt(index) != '(') return index;
+
+        int depth = 0;
+        do {
+            if (sourceType.charAt(index) == '(') depth++;
+            if (sourceType.charAt(index) == ')') depth--;
+            index++;
+        } while (depth > 0 && index < sourceType.length());
+        return index;
+    }
+
+}
@@ -0,0 +1,51 @@
+package io.papermc.restamp.utils;
+
+import org.jspecify.annotations.NullMarked;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The file helper type is a pure utility class that holds static helper methods for working with files that may be shared between processes.
+ */
+@NullMarked
+public class FileHelper {
+
+    /**
+     * Writes the passed bytes to the file at the passed path atomically.
+     * The bytes are first written to a temporary file next to the target, which is then moved onto the target path, so that concurrent
+     * readers either observe the previous or the new content of the file, but never a partially written one.
+     * If the target already exists, its POSIX file permissions are retained.
+     *
+     * @param target the path of the file to write.
+     * @param bytes  the bytes to write.
+     *
+     * @throws IOException if writing the file failed.
+     */
+    public static void writeAtomically(final Path target, final byte[] bytes) throws IOException {
+        final Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+
+        final Path temporaryFile = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporaryFile, bytes);
+            try {
+                Files.setPosixFilePermissions(temporaryFile, Files.getPosixFilePermissions(target));
+            } catch (final NoSuchFileException | UnsupportedOperationException ignored) {
+                // New files and file systems without POSIX permissions keep the permissions of the temporary file.
+            }
+            try {
+                Files.move(temporaryFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+package io.papermc.restamp.utils;
+
+import io.papermc.restamp.at.IndexedAccessTransformSet;
+import org.cadixdev.at.AccessTransform;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.TreeSet;
+
+/**
+ * The fingerprint helper type is a pure utility class that holds static helper methods for computing stable hashes of restamp's inputs.
+ */
+@NullMarked
+public class FingerprintHelper {
+
+    /**
+     * Creates a new SHA-256 message digest.
+     *
+     * @return the message digest.
+     */
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JVM does not provide SHA-256", e);
+        }
+    }
+
+    /**
+     * Computes the hex encoded SHA-256 hash of the passed bytes.
+     *
+     * @param bytes the bytes to hash.
+     *
+     * @return the hex encoded hash.
+     */
+    public static String hash(final byte[] bytes) {
+        return HexFormat.of().formatHex(sha256().digest(bytes));
+    }
+
+    /**
+     * Computes the hex encoded SHA-256 hash of the content of the file at the passed path.
+     *
+     * @param file the path to the file to hash.
+     *
+     * @return the hex encoded hash.
+     *
+     * @throws IOException if reading the file failed.
+     */
+    public static String hashFile(final Path file) throws IOException {
+        final MessageDigest digest = sha256();
+        try (final InputStream inputStream = Files.newInputStream(file)) {
+            final byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = inputStream.read(buffer)) >= 0) digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Computes a fingerprint of the passed access transformers.
+     * The fingerprint only depends on the access transformers, not on whether they were indexed from a set or a compiled access transformer
+     * file.
+     *
+     * @param accessTransformers the access transformers to fingerprint.
+     *
+     * @return the hex encoded fingerprint.
+     */
+    public static String fingerprintAccessTransformers(final IndexedAccessTransformSet accessTransformers) {
+        final StringBuilder builder = new StringBuilder();
+        for (final IndexedAccessTransformSet.ClassEntry transformerClass : accessTransformers.classes()) {
+            appendClass(builder, transformerClass);
+        }
+        return hash(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Computes a fingerprint of the passed access transformers that target one of the passed classes.
+     * The fingerprint is independent of the iteration order of the passed class names.
+     *
+     * @param accessTransformers the access transformers to fingerprint.
+     * @param classNames         the names of the classes whose access transformers are fingerprinted.
+     *
+     * @return the hex encoded fingerprint.
+     */
+    public static String fingerprintAccessTransformers(final IndexedAccessTransformSet accessTransformers, final Collection<String> classNames) {
+        final StringBuilder builder = new StringBuilder();
+        for (final String className : new TreeSet<>(classNames)) {
+            final IndexedAccessTransformSet.@Nullable ClassEntry transformerClass = accessTransformers.get(className);
+            if (transformerClass != null) appendClass(builder, transformerClass);
+        }
+        return hash(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // The entries of the index are ordered by name and descriptor, hence they are appended in a stable order.
+    private static void appendClass(final StringBuilder builder, final IndexedAccessTransformSet.ClassEntry transformerClass) {
+        builder.append(transformerClass.name()).append(' ').append(describe(transformerClass.transform())).append('\n');
+        // Wildcards are only appended if present, keeping the fingerprints of access transformers without wildcards stable.
+        final IndexedAccessTransformSet.@Nullable MemberEntry allFields = transformerClass.allFields();
+        if (allFields != null) builder.append(" * ").append(describe(allFields.transform())).append('\n');
+        final IndexedAccessTransformSet.@Nullable MemberEntry allMethods = transformerClass.allMethods();
+        if (allMethods != null) builder.append(" *() ").append(describe(allMethods.transform())).append('\n');
+        for (final IndexedAccessTransformSet.MemberEntry field : transformerClass.fields().values()) {
+            builder.append(' ').append(field.identifier()).append(' ').append(describe(field.transform())).append('\n');
+        }
+        for (final IndexedAccessTransformSet.MemberEntry method : transformerClass.methods().values()) {
+            builder.append(' ').append(method.identifier()).append(' ').append(describe(method.transform())).append('\n');
+        }
+    }
+
+    private static String describe(final AccessTransform accessTransform) {
+        return accessTransform.getAccess().name() + "/" + accessTransform.getFinal().name();
+    }
+
+}
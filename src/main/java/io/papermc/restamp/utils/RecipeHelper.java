@@ -3,7 +3,6 @@ package io.papermc.restamp.utils;
 import org.cadixdev.at.AccessChange;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
-import org.openrewrite.Cursor;
 import org.openrewrite.java.tree.J;
 
 /**
@@ -12,24 +11,6 @@ import org.openrewrite.java.tree.J;
 @NullMarked
 public class RecipeHelper {
 
-    /**
-     * Retrieves the first class declaration found in the cursor by traversing its parents
-     * that is directly above the cursor.
-     * <p>
-     * If the cursor is in a method declaration, null is returned as the field definition is a local in-method declaration.
-     *
-     * @param cursor the cursor to traverse from.
-     *
-     * @return the class declaration or null if no matching one was found.
-     */
-    public static J.@Nullable ClassDeclaration retrieveFieldClass(final Cursor cursor) {
-        final Object foundParent = cursor.dropParentUntil(parent ->
-            parent instanceof J.ClassDeclaration || parent instanceof J.MethodDeclaration || parent instanceof J.Lambda
-        ).getValue();
-        if (foundParent instanceof final J.ClassDeclaration parentClass) return parentClass;
-        return null;
-    }
-
     /**
      * Converts the access change into a concrete modifier type if possible.
      * If {@link AccessChange#PACKAGE_PRIVATE} is returned, {@code null} is yielded by this method, indicating no modifier is needed.
@@ -0,0 +1,57 @@
+package io.papermc.restamp.utils;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The type helper type is a pure utility class that holds static helper methods for working with the types attributed to parsed source files.
+ */
+@NullMarked
+public class TypeHelper {
+
+    /**
+     * Collects the types declared by the passed compilation unit and the types relevant to it, e.g. the declared types and their supertypes.
+     *
+     * @param compilationUnit the compilation unit.
+     * @param declaredTypes   the set to collect the declared types into.
+     * @param relevantTypes   the set to collect the relevant types into.
+     *
+     * @return {@code false} if a declared type could not be resolved.
+     */
+    public static boolean collectTypes(final J.CompilationUnit compilationUnit, final Set<String> declaredTypes, final Set<String> relevantTypes) {
+        final List<JavaType.@Nullable FullyQualified> types = new ArrayList<>();
+        new JavaIsoVisitor<List<JavaType.@Nullable FullyQualified>>() {
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(final J.ClassDeclaration classDecl, final List<JavaType.@Nullable FullyQualified> types) {
+                types.add(classDecl.getType());
+                return super.visitClassDeclaration(classDecl, types);
+            }
+        }.visit(compilationUnit, types);
+
+        for (final JavaType.@Nullable FullyQualified type : types) {
+            if (type == null || type instanceof JavaType.Unknown) return false;
+
+            declaredTypes.add(type.getFullyQualifiedName());
+            collectSupertypes(type, relevantTypes);
+        }
+        return true;
+    }
+
+    private static void collectSupertypes(final JavaType.FullyQualified type, final Set<String> relevantTypes) {
+        if (!relevantTypes.add(type.getFullyQualifiedName())) return;
+
+        final JavaType.@Nullable FullyQualified supertype = type.getSupertype();
+        if (supertype != null) collectSupertypes(supertype, relevantTypes);
+        for (final JavaType.FullyQualified anInterface : type.getInterfaces()) {
+            collectSupertypes(anInterface, relevantTypes);
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+package io.papermc.restamp;
+
+import io.papermc.restamp.parser.SourceParser;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+@NullMarked
+class RestampParserPoolTest {
+
+    @TempDir
+    Path sourceRoot;
+
+    @Test
+    public void testClasspathTypesSurviveParses() throws IOException {
+        final RestampParserPool parserPool = new RestampParserPool();
+        final Path first = createSourceFile("First.java", "package com.example; public class First extends Thread {}");
+        final Path second = createSourceFile("Second.java", "package com.example; public class Second extends Thread {}");
+
+        final JavaType.FullyQualified firstType = parseType(parserPool.parser(List.of(), 1), first);
+        final JavaType.FullyQualified secondType = parseType(parserPool.parser(List.of(), 1), second);
+
+        // The second parse resolves the classpath type from the type cache of the first parse.
+        Assertions.assertSame(firstType.getSupertype(), secondType.getSupertype());
+
+        // Source types of the first parse are evicted, a second parse of the same source attributes it anew.
+        Assertions.assertNotSame(firstType, parseType(parserPool.parser(List.of(), 1), first));
+    }
+
+    private JavaType.FullyQualified parseType(final SourceParser parser, final Path sourceFile) {
+        final InMemoryExecutionContext executionContext = new InMemoryExecutionContext(t -> Assertions.fail("Failed to parse inputs", t));
+        final List<SourceFile> sources = parser.parse(List.of(sourceFile), this.sourceRoot, executionContext);
+        final J.CompilationUnit compilationUnit = Assertions.assertInstanceOf(J.CompilationUnit.class, sources.getFirst());
+        final JavaType.FullyQualified type = compilationUnit.getClasses().getFirst().getType();
+        Assertions.assertNotNull(type);
+        return type;
+    }
+
+    private Path createSourceFile(final String path, final String content) throws IOException {
+        final Path sourceFile = this.sourceRoot.resolve(path);
+        Files.writeString(sourceFile, content);
+        return sourceFile;
+    }
+
+}
@@ -0,0 +1,82 @@
+package io.papermc.restamp.at;
+
+import io.papermc.restamp.RestampFunctionTestHelper;
+import org.cadixdev.at.AccessTransform;
+import org.cadixdev.at.AccessTransformSet;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.tree.J;
+
+import java.util.List;
+
+@NullMarked
+class AccessTransformerIndexTest {
+
+    @Test
+    public void testNestedTypes() {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        accessTransformSet.getOrCreateClass("io.papermc.test.Test$Inner").replaceField("field", AccessTransform.PUBLIC);
+        accessTransformSet.getOrCreateClass("io.papermc.test.Other"); // No transforms
+
+        final List<J.CompilationUnit> compilationUnits = parse(
+            accessTransformSet,
+            "package io.papermc.test; class Test { static class Inner { int field; } }",
+            "package io.papermc.test; class Other { int field; }"
+        );
+        final IndexedAccessTransformSet accessTransformers = IndexedAccessTransformSet.of(accessTransformSet);
+        final AccessTransformerIndex index = new AccessTransformerIndex(accessTransformers, new TypeHierarchyIndex(accessTransformers, null));
+        Assertions.assertTrue(index.isRelevant(compilationUnits.get(0)));
+        Assertions.assertFalse(index.isRelevant(compilationUnits.get(1)));
+    }
+
+    @Test
+    public void testInheritedMethods() {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        accessTransformSet.getOrCreateClass("io.papermc.test.Parent").replaceMethod(MethodSignature.of("method", "()V"), AccessTransform.PUBLIC);
+
+        final List<J.CompilationUnit> compilationUnits = parse(
+            accessTransformSet,
+            "package io.papermc.test; class Parent { void method() {} }",
+            "package io.papermc.test; class Child { void test() { class Local extends Parent { void method() {} } } }",
+            "package io.papermc.test; class Unrelated { void method() {} }"
+        );
+        final IndexedAccessTransformSet accessTransformers = IndexedAccessTransformSet.of(accessTransformSet);
+        final AccessTransformerIndex index = new AccessTransformerIndex(accessTransformers, new TypeHierarchyIndex(accessTransformers, null));
+        Assertions.assertTrue(index.isRelevant(compilationUnits.get(0)));
+        Assertions.assertTrue(index.isRelevant(compilationUnits.get(1)));
+        Assertions.assertFalse(index.isRelevant(compilationUnits.get(2)));
+    }
+
+    @Test
+    public void testLocalTraversal() {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        accessTransformSet.getOrCreateClass("io.papermc.test.Anonymous$1").replaceField("field", AccessTransform.PUBLIC);
+        accessTransformSet.getOrCreateClass("io.papermc.test.Member$Inner").replaceField("field", AccessTransform.PUBLIC);
+        accessTransformSet.getOrCreateClass("io.papermc.test.Parent").replaceMethod(MethodSignature.of("method", "()V"), AccessTransform.PUBLIC);
+
+        final List<J.CompilationUnit> compilationUnits = parse(
+            accessTransformSet,
+            "package io.papermc.test; class Anonymous { Object value = new Object() { int field; }; }",
+            "package io.papermc.test; class Member { static class Inner { int field; } }",
+            "package io.papermc.test; class Parent { void method() {} }",
+            "package io.papermc.test; class Child { void test() { new Parent() { void method() {} }; } }",
+            "package io.papermc.test; final class Sealed { void method() {} }"
+        );
+        final IndexedAccessTransformSet accessTransformers = IndexedAccessTransformSet.of(accessTransformSet);
+        final AccessTransformerIndex index = new AccessTransformerIndex(accessTransformers, new TypeHierarchyIndex(accessTransformers, null));
+        Assertions.assertTrue(index.requiresLocalTraversal(compilationUnits.get(0)));
+        Assertions.assertFalse(index.requiresLocalTraversal(compilationUnits.get(1)));
+        Assertions.assertTrue(index.requiresLocalTraversal(compilationUnits.get(2)));
+        Assertions.assertTrue(index.requiresLocalTraversal(compilationUnits.get(3)));
+        Assertions.assertFalse(index.requiresLocalTraversal(compilationUnits.get(4)));
+    }
+
+    private static List<J.CompilationUnit> parse(final AccessTransformSet accessTransformSet, final String... sources) {
+        final List<SourceFile> sourceFiles = RestampFunctionTestHelper.inputFromSourceString(accessTransformSet, sources).sources();
+        return sourceFiles.stream().map(J.CompilationUnit.class::cast).toList();
+    }
+
+}
@@ -0,0 +1,67 @@
+package io.papermc.restamp.at;
+
+import io.papermc.restamp.RestampFunctionTestHelper;
+import org.cadixdev.at.AccessTransformSet;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import java.util.List;
+import java.util.Objects;
+
+@NullMarked
+class AccessTransformerTypeConverterTest {
+
+    @Test
+    public void testConvertMethods() {
+        final List<JavaType.Method> methodTypes = parseMethodTypes("""
+            package io.papermc.test;
+            import java.util.List;
+            class Test<T> {
+                Test(int value) {}
+                String first(List<String> list, T value, int[][] values) { return ""; }
+                void second(String value) {}
+            }
+            """);
+
+        final AccessTransformerTypeConverter converter = new AccessTransformerTypeConverter();
+        Assertions.assertEquals(MethodSignature.of("<init>", "(I)V"), converter.convert(methodTypes.get(0)));
+        Assertions.assertEquals(
+            MethodSignature.of("first", "(Ljava.util.List;Ljava.lang.Object;[[I)Ljava.lang.String;"),
+            converter.convert(methodTypes.get(1))
+        );
+        Assertions.assertEquals(MethodSignature.of("second", "(Ljava.lang.String;)V"), converter.convert(methodTypes.get(2)));
+
+        // Repeated conversions are memoized.
+        Assertions.assertSame(converter.convert(methodTypes.get(1)), converter.convert(methodTypes.get(1)));
+        Assertions.assertSame(
+            converter.convert(methodTypes.get(1)).getDescriptor().getReturnType(),
+            converter.convert(methodTypes.get(2)).getDescriptor().getParamTypes().getFirst()
+        );
+    }
+
+    @Test
+    public void testDisabledMemoization() {
+        final List<JavaType.Method> methodTypes = parseMethodTypes("class Test { void method(String value) {} }");
+
+        final AccessTransformerTypeConverter converter = new AccessTransformerTypeConverter(0);
+        Assertions.assertNotSame(converter.convert(methodTypes.getFirst()), converter.convert(methodTypes.getFirst()));
+        Assertions.assertEquals(converter.convert(methodTypes.getFirst()), converter.convert(methodTypes.getFirst()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AccessTransformerTypeConverter(3));
+    }
+
+    private static List<JavaType.Method> parseMethodTypes(final String source) {
+        final J.CompilationUnit compilationUnit = (J.CompilationUnit) RestampFunctionTestHelper.inputFromSourceString(
+            AccessTransformSet.create(), source
+        ).sources().getFirst();
+        return compilationUnit.getClasses().getFirst().getBody().getStatements().stream()
+            .filter(J.MethodDeclaration.class::isInstance)
+            .map(s -> ((J.MethodDeclaration) s).getMethodType())
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+}
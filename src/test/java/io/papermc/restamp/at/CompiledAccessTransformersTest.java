@@ -0,0 +1,71 @@
+package io.papermc.restamp.at;
+
+import io.papermc.restamp.utils.FingerprintHelper;
+import org.cadixdev.at.AccessChange;
+import org.cadixdev.at.AccessTransform;
+import org.cadixdev.at.AccessTransformSet;
+import org.cadixdev.at.ModifierChange;
+import org.cadixdev.at.io.AccessTransformFormats;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@NullMarked
+class CompiledAccessTransformersTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        final AccessTransformSet.Class test = accessTransformSet.getOrCreateClass("io.papermc.test.Test");
+        test.replace(AccessTransform.PUBLIC);
+        test.replaceField("field", AccessTransform.of(AccessChange.PROTECTED, ModifierChange.REMOVE));
+        test.replaceMethod(MethodSignature.of("method", "(Ljava.lang.String;)V"), AccessTransform.PUBLIC);
+        test.replaceMethod(MethodSignature.of("method", "(I)V"), AccessTransform.PUBLIC);
+        accessTransformSet.getOrCreateClass("io.papermc.test.Test$Inner").replaceField("field", AccessTransform.PUBLIC);
+
+        final IndexedAccessTransformSet original = IndexedAccessTransformSet.of(accessTransformSet);
+        final IndexedAccessTransformSet compiled = CompiledAccessTransformers.read(
+            ByteBuffer.wrap(CompiledAccessTransformers.compile(original, "hash")), "test"
+        );
+
+        Assertions.assertEquals(original.size(), compiled.size());
+        Assertions.assertEquals(original.get("io.papermc.test.Test$Inner"), compiled.get("io.papermc.test.Test$Inner"));
+        Assertions.assertNull(compiled.get("io.papermc.test.Other"));
+        Assertions.assertEquals(original.classes(), compiled.classes());
+        Assertions.assertEquals(
+            FingerprintHelper.fingerprintAccessTransformers(original),
+            FingerprintHelper.fingerprintAccessTransformers(compiled)
+        );
+    }
+
+    @Test
+    public void testCompileReusesUnchangedSource() throws IOException {
+        final Path source = this.directory.resolve("test.at");
+        final Path target = this.directory.resolve("test.atc");
+        Files.writeString(source, "public io.papermc.test.Test field\n");
+
+        Assertions.assertTrue(CompiledAccessTransformers.compile(source, AccessTransformFormats.FML, target));
+        Assertions.assertEquals(FingerprintHelper.hashFile(source), CompiledAccessTransformers.readSourceHash(target));
+        Assertions.assertFalse(CompiledAccessTransformers.compile(source, AccessTransformFormats.FML, target));
+        Assertions.assertTrue(CompiledAccessTransformers.isCompiled(target));
+        Assertions.assertFalse(CompiledAccessTransformers.isCompiled(source));
+
+        Files.writeString(source, "public io.papermc.test.Test other\n");
+        final IndexedAccessTransformSet loaded = CompiledAccessTransformers.loadOrCompile(source, AccessTransformFormats.FML, target);
+        final IndexedAccessTransformSet.ClassEntry test = loaded.get("io.papermc.test.Test");
+        Assertions.assertNotNull(test);
+        Assertions.assertEquals(AccessTransform.PUBLIC, test.fields().get("other").transform());
+        Assertions.assertFalse(test.fields().containsKey("field"));
+    }
+
+}
@@ -0,0 +1,89 @@
+package io.papermc.restamp.at;
+
+import org.cadixdev.at.AccessTransform;
+import org.cadixdev.at.AccessTransformSet;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+@NullMarked
+class ConsumptionLedgerTest {
+
+    @Test
+    public void testWildcards() {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        final AccessTransformSet.Class test = accessTransformSet.getOrCreateClass("io.papermc.test.Test");
+        test.mergeAllFields(AccessTransform.PUBLIC);
+        test.mergeAllMethods(AccessTransform.PUBLIC);
+        test.replaceMethod(MethodSignature.of("method", "()V"), AccessTransform.PUBLIC);
+
+        final ConsumptionLedger ledger = new ConsumptionLedger(accessTransformSet);
+        Assertions.assertEquals(List.of("io.papermc.test.Test: [*] {*(), method()V}"), ledger.describeNotConsumed());
+
+        ledger.consumeField("io.papermc.test.Test", IndexedAccessTransformSet.WILDCARD);
+        ledger.consumeAllMethods("io.papermc.test.Test");
+        Assertions.assertTrue(ledger.isFieldConsumed("io.papermc.test.Test", IndexedAccessTransformSet.WILDCARD));
+        Assertions.assertEquals(List.of("io.papermc.test.Test: [] {method()V}"), ledger.describeNotConsumed());
+    }
+
+    @Test
+    public void testDescribeNotConsumed() {
+        final AccessTransformSet accessTransformSet = createAccessTransformSet();
+        final ConsumptionLedger ledger = new ConsumptionLedger(accessTransformSet);
+        ledger.consumeClass("io.papermc.test.A");
+        ledger.consumeField("io.papermc.test.B", "first");
+        ledger.consumeField("io.papermc.test.B", "unknown"); // Not tracked, ignored.
+
+        Assertions.assertTrue(ledger.isClassConsumed("io.papermc.test.A"));
+        Assertions.assertFalse(ledger.isFieldConsumed("io.papermc.test.B", "second"));
+        Assertions.assertEquals(List.of(
+            "io.papermc.test.B: [second] {method()V}"
+        ), ledger.describeNotConsumed());
+
+        ledger.consumeField("io.papermc.test.B", "second");
+        ledger.consumeMethod("io.papermc.test.B", MethodSignature.of("method", "()V"));
+        Assertions.assertEquals(List.of(), ledger.describeNotConsumed());
+    }
+
+    @Test
+    public void testIndexedConsumption() {
+        final AccessTransformSet accessTransformSet = createAccessTransformSet();
+        final IndexedAccessTransformSet accessTransformers = IndexedAccessTransformSet.of(accessTransformSet);
+        final ConsumptionLedger ledger = new ConsumptionLedger(accessTransformers);
+
+        final IndexedAccessTransformSet.ClassEntry b = accessTransformers.get("io.papermc.test.B");
+        Assertions.assertNotNull(b);
+        ledger.consume(b.methodsByName().get("method").getFirst().index());
+        Assertions.assertTrue(ledger.isMethodConsumed("io.papermc.test.B", MethodSignature.of("method", "()V")));
+        Assertions.assertFalse(ledger.isFieldConsumed("io.papermc.test.B", "first"));
+
+        // The access transformers themselves are never modified.
+        Assertions.assertFalse(accessTransformSet.getClass("io.papermc.test.B").orElseThrow().getMethod(MethodSignature.of("method", "()V")).isEmpty());
+    }
+
+    @Test
+    public void testConcurrentConsumption() {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        final AccessTransformSet.Class transformerClass = accessTransformSet.getOrCreateClass("io.papermc.test.Large");
+        IntStream.range(0, 1000).forEach(i -> transformerClass.replaceField("field" + i, AccessTransform.PUBLIC));
+
+        final ConsumptionLedger ledger = new ConsumptionLedger(accessTransformSet);
+        IntStream.range(0, 1000).parallel().forEach(i -> ledger.consumeField("io.papermc.test.Large", "field" + i));
+        Assertions.assertEquals(List.of(), ledger.describeNotConsumed());
+    }
+
+    private static AccessTransformSet createAccessTransformSet() {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        accessTransformSet.getOrCreateClass("io.papermc.test.A").replace(AccessTransform.PUBLIC);
+        final AccessTransformSet.Class b = accessTransformSet.getOrCreateClass("io.papermc.test.B");
+        b.replaceField("first", AccessTransform.PUBLIC);
+        b.replaceField("second", AccessTransform.PUBLIC);
+        b.replaceMethod(MethodSignature.of("method", "()V"), AccessTransform.PUBLIC);
+        return accessTransformSet;
+    }
+
+}
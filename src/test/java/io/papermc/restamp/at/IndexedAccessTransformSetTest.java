@@ -0,0 +1,53 @@
+package io.papermc.restamp.at;
+
+import org.cadixdev.at.AccessTransform;
+import org.cadixdev.at.AccessTransformSet;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+@NullMarked
+class IndexedAccessTransformSetTest {
+
+    @Test
+    public void testIndexing() {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        final AccessTransformSet.Class b = accessTransformSet.getOrCreateClass("io.papermc.test.B");
+        b.replaceField("field", AccessTransform.PUBLIC);
+        b.replaceField("empty", AccessTransform.EMPTY);
+        b.replaceMethod(MethodSignature.of("method", "(J)V"), AccessTransform.PUBLIC);
+        b.replaceMethod(MethodSignature.of("method", "(I)V"), AccessTransform.PUBLIC);
+        accessTransformSet.getOrCreateClass("io.papermc.test.A").replace(AccessTransform.PUBLIC);
+        accessTransformSet.getOrCreateClass("io.papermc.test.C"); // No transforms
+
+        final IndexedAccessTransformSet accessTransformers = IndexedAccessTransformSet.of(accessTransformSet);
+        Assertions.assertEquals(4, accessTransformers.size());
+        Assertions.assertEquals(
+            List.of("io.papermc.test.A", "io.papermc.test.B"),
+            accessTransformers.classes().stream().map(IndexedAccessTransformSet.ClassEntry::name).toList()
+        );
+        Assertions.assertNull(accessTransformers.get("io.papermc.test.C"));
+
+        final IndexedAccessTransformSet.ClassEntry a = accessTransformers.get("io.papermc.test.A");
+        Assertions.assertNotNull(a);
+        Assertions.assertEquals(0, a.index());
+
+        final IndexedAccessTransformSet.ClassEntry indexedB = accessTransformers.get("io.papermc.test.B");
+        Assertions.assertNotNull(indexedB);
+        Assertions.assertEquals(IndexedAccessTransformSet.NO_INDEX, indexedB.index());
+        Assertions.assertEquals(List.of("field"), List.copyOf(indexedB.fields().keySet()));
+        Assertions.assertEquals(
+            List.of("method(I)V", "method(J)V"),
+            indexedB.methodsByName().get("method").stream().map(IndexedAccessTransformSet.MemberEntry::identifier).toList()
+        );
+        Assertions.assertEquals(3, indexedB.methods().get(MethodSignature.of("method", "(J)V")).index());
+
+        // The index does not reflect later changes to the set.
+        b.replaceField("late", AccessTransform.PUBLIC);
+        Assertions.assertFalse(indexedB.fields().containsKey("late"));
+    }
+
+}
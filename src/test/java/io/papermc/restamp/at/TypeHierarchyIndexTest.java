@@ -0,0 +1,42 @@
+package io.papermc.restamp.at;
+
+import io.papermc.restamp.RestampFunctionTestHelper;
+import org.cadixdev.at.AccessTransform;
+import org.cadixdev.at.AccessTransformSet;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import java.util.List;
+
+@NullMarked
+class TypeHierarchyIndexTest {
+
+    @Test
+    public void testAncestors() {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        accessTransformSet.getOrCreateClass("io.papermc.test.Api").replaceMethod(MethodSignature.of("method", "()V"), AccessTransform.PUBLIC);
+        accessTransformSet.getOrCreateClass("io.papermc.test.Parent").replaceMethod(MethodSignature.of("other", "()V"), AccessTransform.PUBLIC);
+
+        final List<JavaType.FullyQualified> types = RestampFunctionTestHelper.inputFromSourceString(
+            accessTransformSet,
+            "package io.papermc.test; interface Api { void method(); }",
+            "package io.papermc.test; class Parent { void other() {} }",
+            "package io.papermc.test; class Child extends Parent implements Api { public void method() {} }",
+            "package io.papermc.test; class Unrelated {}"
+        ).sources().stream().map(s -> ((J.CompilationUnit) s).getClasses().getFirst().getType()).toList();
+
+        final TypeHierarchyIndex index = new TypeHierarchyIndex(IndexedAccessTransformSet.of(accessTransformSet), null);
+        Assertions.assertEquals(
+            List.of("io.papermc.test.Child", "io.papermc.test.Parent", "java.lang.Object", "io.papermc.test.Api"),
+            index.ancestors(types.get(2))
+        );
+        Assertions.assertEquals(List.of("io.papermc.test.Parent", "io.papermc.test.Api"), index.transformedAncestors(types.get(2)));
+        Assertions.assertEquals(List.of("io.papermc.test.Api"), index.transformedAncestors(types.get(0)));
+        Assertions.assertEquals(List.of(), index.transformedAncestors(types.get(3)));
+    }
+
+}
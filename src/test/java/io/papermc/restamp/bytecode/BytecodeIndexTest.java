@@ -0,0 +1,131 @@
+package io.papermc.restamp.bytecode;
+
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@NullMarked
+class BytecodeIndexTest {
+
+    private static final String SAMPLE_CLASS_FILE = "BytecodeIndexTest$Sample.class";
+
+    @Test
+    public void testReadClass() throws IOException {
+        final BytecodeIndex.ClassInfo classInfo;
+        try (final InputStream inputStream = Objects.requireNonNull(BytecodeIndexTest.class.getResourceAsStream(SAMPLE_CLASS_FILE))) {
+            classInfo = BytecodeIndex.readClass(inputStream);
+        }
+
+        Assertions.assertEquals(Sample.class.getName(), classInfo.name());
+        Assertions.assertEquals(ArrayList.class.getName(), classInfo.superName());
+        Assertions.assertEquals(List.of(Comparable.class.getName()), classInfo.interfaces());
+        Assertions.assertEquals(List.of("(I)V", "(Ljava/util/Map$Entry;)V"), classInfo.methods().get("method").stream().sorted().toList());
+        Assertions.assertEquals( // Bridge method is skipped.
+            List.of("(Lio/papermc/restamp/bytecode/BytecodeIndexTest$Sample;)I"),
+            classInfo.methods().get("compareTo")
+        );
+    }
+
+    @Test
+    public void testResolve(@TempDir final Path tempDir) throws IOException {
+        try (final InputStream inputStream = Objects.requireNonNull(BytecodeIndexTest.class.getResourceAsStream(SAMPLE_CLASS_FILE))) {
+            Files.copy(inputStream, tempDir.resolve(SAMPLE_CLASS_FILE));
+        }
+        final BytecodeIndex index = BytecodeIndex.load(tempDir);
+        Assertions.assertEquals(1, index.size());
+
+        final String owner = Sample.class.getName();
+        Assertions.assertEquals(MethodSignature.of("method", "(I)V"), index.resolve(owner, "method", List.of("int")));
+        Assertions.assertEquals(MethodSignature.of("method", "(Ljava/util/Map$Entry;)V"), index.resolve(owner, "method", List.of("Entry")));
+        Assertions.assertNull(index.resolve(owner, "method", Arrays.asList((String) null))); // Ambiguous
+        Assertions.assertEquals(MethodSignature.of("generic", "(Ljava/lang/Object;[Ljava/lang/String;)V"), index.resolve(
+            owner, "generic", Arrays.asList(null, "String[]")
+        ));
+        Assertions.assertNull(index.resolve(owner, "missing", List.of()));
+        Assertions.assertNull(index.resolve("io.papermc.test.Missing", "method", List.of("int")));
+    }
+
+    @Test
+    public void testResolveConstructorsWithImplicitParameters(@TempDir final Path tempDir) throws IOException {
+        final Class<?> localClass = localClass("captured");
+        for (final Class<?> type : List.of(Sample.class, Inner.class, Constant.class, localClass)) {
+            final String classFile = type.getName().substring(type.getPackageName().length() + 1) + ".class";
+            try (final InputStream inputStream = Objects.requireNonNull(BytecodeIndexTest.class.getResourceAsStream(classFile))) {
+                Files.copy(inputStream, tempDir.resolve(classFile));
+            }
+        }
+        final BytecodeIndex index = BytecodeIndex.load(tempDir);
+
+        Assertions.assertEquals(MethodSignature.of("<init>", "()V"), index.resolve(Sample.class.getName(), "<init>", List.of()));
+        Assertions.assertEquals( // Outer instance.
+            MethodSignature.of("<init>", "(Lio/papermc/restamp/bytecode/BytecodeIndexTest;I)V"),
+            index.resolve(Inner.class.getName(), "<init>", List.of("int"))
+        );
+        Assertions.assertEquals( // Name and ordinal.
+            MethodSignature.of("<init>", "(Ljava/lang/String;II)V"),
+            index.resolve(Constant.class.getName(), "<init>", List.of("int"))
+        );
+        Assertions.assertEquals( // Outer instance and captured variable.
+            MethodSignature.of("<init>", "(Lio/papermc/restamp/bytecode/BytecodeIndexTest;ILjava/lang/String;)V"),
+            index.resolve(localClass.getName(), "<init>", List.of("int"))
+        );
+        Assertions.assertNull(index.resolve(Inner.class.getName(), "<init>", List.of("BytecodeIndexTest", "int")));
+    }
+
+    private Class<?> localClass(final String captured) {
+        @SuppressWarnings("unused")
+        class Local {
+
+            Local(final int value) {
+                captured.length();
+            }
+        }
+        return Local.class;
+    }
+
+    @SuppressWarnings("unused")
+    class Inner {
+
+        Inner(final int value) {
+        }
+    }
+
+    @SuppressWarnings("unused")
+    enum Constant {
+        VALUE(1);
+
+        Constant(final int value) {
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class Sample extends ArrayList<String> implements Comparable<Sample> {
+
+        void method(final int value) {
+        }
+
+        void method(final Map.Entry<String, String> entry) {
+        }
+
+        <T> void generic(final T value, final String... values) {
+        }
+
+        @Override
+        public int compareTo(final Sample o) {
+            return 0;
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+package io.papermc.restamp.fast;
+
+import io.papermc.restamp.Restamp;
+import io.papermc.restamp.RestampFunctionTestHelper;
+import io.papermc.restamp.at.ConsumptionLedger;
+import io.papermc.restamp.at.IndexedAccessTransformSet;
+import io.papermc.restamp.at.ModifierTransformer;
+import org.cadixdev.at.AccessChange;
+import org.cadixdev.at.AccessTransform;
+import org.cadixdev.at.AccessTransformSet;
+import org.cadixdev.at.ModifierChange;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+
+import java.util.List;
+
+@NullMarked
+class FastAccessTransformApplierTest {
+
+    private static final String SOURCE = """
+        package io.papermc.test;
+
+        import java.util.List;
+
+        @Deprecated
+        class Test {
+
+            private static final int CONSTANT = 1, OTHER = 2;
+            /* shared */ private List<String> names = List.of("a", "b");
+
+            Test(final int value) {
+                new Object() {
+                    void hidden() {
+                    }
+                };
+            }
+
+            protected void method(final List<String> names, final int[] values) {
+            }
+
+            @Deprecated
+            static final class Inner {
+
+                private static final String NAME = "{";
+            }
+        }
+        """;
+
+    @Test
+    public void testApplyMatchesFullParse() {
+        final FastAccessTransformApplier.Application application = new FastAccessTransformApplier(
+            IndexedAccessTransformSet.of(createAccessTransformSet()), new ModifierTransformer()
+        ).apply(SOURCE);
+        Assertions.assertNotNull(application);
+        Assertions.assertEquals(6, application.consumptions().size());
+
+        final List<Result> results = Restamp.run(RestampFunctionTestHelper.inputFromSourceString(createAccessTransformSet(), SOURCE)).getAllResults();
+        Assertions.assertEquals(1, results.size());
+        final SourceFile fileAfterRestamp = results.getFirst().getAfter();
+        Assertions.assertNotNull(fileAfterRestamp);
+        Assertions.assertEquals(fileAfterRestamp.printAll(), application.transformedSource());
+    }
+
+    @Test
+    public void testWildcardsMatchFullParse() {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        final AccessTransformSet.Class testClass = accessTransformSet.getOrCreateClass("io.papermc.test.Test");
+        testClass.mergeAllFields(AccessTransform.of(AccessChange.PUBLIC, ModifierChange.REMOVE));
+        testClass.mergeAllMethods(AccessTransform.PUBLIC);
+
+        final IndexedAccessTransformSet accessTransformers = IndexedAccessTransformSet.of(accessTransformSet);
+        final FastAccessTransformApplier.Application application = new FastAccessTransformApplier(
+            accessTransformers, new ModifierTransformer()
+        ).apply(SOURCE);
+        Assertions.assertNotNull(application);
+
+        final ConsumptionLedger ledger = new ConsumptionLedger(accessTransformers);
+        application.consume(ledger);
+        Assertions.assertEquals(List.of(), ledger.describeNotConsumed());
+
+        final List<Result> results = Restamp.run(RestampFunctionTestHelper.inputFromSourceString(accessTransformSet, SOURCE)).getAllResults();
+        Assertions.assertEquals(1, results.size());
+        final SourceFile fileAfterRestamp = results.getFirst().getAfter();
+        Assertions.assertNotNull(fileAfterRestamp);
+        Assertions.assertEquals(fileAfterRestamp.printAll(), application.transformedSource());
+    }
+
+    @Test
+    public void testConsume() {
+        final IndexedAccessTransformSet accessTransformers = IndexedAccessTransformSet.of(createAccessTransformSet());
+        final FastAccessTransformApplier.Application application = new FastAccessTransformApplier(
+            accessTransformers, new ModifierTransformer()
+        ).apply(SOURCE);
+        Assertions.assertNotNull(application);
+
+        final ConsumptionLedger ledger = new ConsumptionLedger(accessTransformers);
+        application.consume(ledger);
+        Assertions.assertEquals(List.of(), ledger.describeNotConsumed());
+    }
+
+    @Test
+    public void testOverloadsRequireParse() {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        accessTransformSet.getOrCreateClass("Test").replaceMethod(MethodSignature.of("method", "(I)V"), AccessTransform.PUBLIC);
+
+        final FastAccessTransformApplier applier = new FastAccessTransformApplier(
+            IndexedAccessTransformSet.of(accessTransformSet), new ModifierTransformer()
+        );
+        Assertions.assertNull(applier.apply("class Test { void method(int a) {} void method(long a) {} }"));
+        Assertions.assertNull(applier.apply("class Test { void method(long a) {} }"));
+        Assertions.assertNotNull(applier.apply("class Test { void method(int a) {} void other(long a) {} }"));
+    }
+
+    @Test
+    public void testInheritedMethodsRequireParse() {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        accessTransformSet.getOrCreateClass("Parent").replaceMethod(MethodSignature.of("method", "()V"), AccessTransform.PUBLIC);
+
+        final FastAccessTransformApplier applier = new FastAccessTransformApplier(
+            IndexedAccessTransformSet.of(accessTransformSet), new ModifierTransformer()
+        );
+        Assertions.assertNull(applier.apply("class Child extends Parent { void method() {} }"));
+        Assertions.assertNull(applier.apply("class Child implements Parent { public void method() {} }"));
+        Assertions.assertNotNull(applier.apply("class Child { void method() {} }"));
+    }
+
+    @Test
+    public void testLocalAndAnonymousClasses() {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        accessTransformSet.getOrCreateClass("Test").replace(AccessTransform.PUBLIC);
+
+        final FastAccessTransformApplier applier = new FastAccessTransformApplier(
+            IndexedAccessTransformSet.of(accessTransformSet), new ModifierTransformer()
+        );
+        Assertions.assertNull(applier.apply("class Test { void method() { class Local {} } }"));
+        Assertions.assertNull(applier.apply("class Test { Object field = new Object() {}; }"));
+        Assertions.assertNull(applier.apply("class Test { static { new Object() {}; } }"));
+        Assertions.assertNotNull(applier.apply("class Test { static { if (true) {} } void method() { new Object() {}; Object.class.getName(); } }"));
+    }
+
+    @Test
+    public void testTruncatedSourcesRequireParse() {
+        final FastAccessTransformApplier applier = new FastAccessTransformApplier(
+            IndexedAccessTransformSet.of(createAccessTransformSet()), new ModifierTransformer()
+        );
+        Assertions.assertNull(applier.apply("package io.papermc.test"));
+        Assertions.assertNull(applier.apply("package io.papermc.test; import java.util.List"));
+    }
+
+    private static AccessTransformSet createAccessTransformSet() {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        final AccessTransformSet.Class testClass = accessTransformSet.getOrCreateClass("io.papermc.test.Test");
+        testClass.replace(AccessTransform.PUBLIC);
+        testClass.replaceField("OTHER", AccessTransform.PUBLIC);
+        testClass.replaceField("names", AccessTransform.of(AccessChange.PUBLIC, ModifierChange.ADD));
+        testClass.replaceMethod(MethodSignature.of("method", "(Ljava/util/List;[I)V"), AccessTransform.PRIVATE);
+        testClass.replaceMethod(MethodSignature.of("<init>", "(I)V"), AccessTransform.PUBLIC);
+        accessTransformSet.getOrCreateClass("io.papermc.test.Test$Inner").replaceField("NAME", AccessTransform.PROTECTED);
+        return accessTransformSet;
+    }
+
+}
@@ -0,0 +1,85 @@
+package io.papermc.restamp.function;
+
+import io.papermc.restamp.Restamp;
+import io.papermc.restamp.RestampContextConfiguration;
+import io.papermc.restamp.RestampInput;
+import io.papermc.restamp.output.ResultWriter;
+import org.cadixdev.at.AccessTransform;
+import org.cadixdev.at.AccessTransformSet;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Result;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+@Tag("function")
+@NullMarked
+public class RestampApplyFunctionTest {
+
+    @TempDir
+    Path sourceRoot;
+
+    @Test
+    public void testApplyRetainsLineEndings() throws IOException {
+        final Path source = this.sourceRoot.resolve("io/papermc/test/Test.java");
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, "package io.papermc.test;\r\n\r\npublic class Test {\r\n    private int value;\r\n}\r\n");
+
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        accessTransformSet.getOrCreateClass("io.papermc.test.Test").replaceField("value", AccessTransform.PUBLIC);
+        final RestampContextConfiguration configuration = RestampContextConfiguration.builder()
+            .executionContext(new InMemoryExecutionContext(t -> Assertions.fail("Failed to run restamp", t)))
+            .accessTransformSet(accessTransformSet)
+            .sourceRoot(this.sourceRoot)
+            .sourceFiles(List.of(source))
+            .build();
+
+        final List<Result> results = Restamp.run(RestampInput.parseFrom(configuration)).getAllResults();
+        Assertions.assertEquals(new ResultWriter.Summary(1, 0), ResultWriter.write(this.sourceRoot, results, 2));
+        Assertions.assertEquals(
+            "package io.papermc.test;\r\n\r\npublic class Test {\r\n    public int value;\r\n}\r\n",
+            Files.readString(source)
+        );
+
+        // Writing the same results again leaves the up-to-date source untouched.
+        Assertions.assertEquals(new ResultWriter.Summary(0, 1), ResultWriter.write(this.sourceRoot, results, 2));
+    }
+
+    @Test
+    public void testCloseCompletesSubmittedWrites() throws IOException {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        final List<Path> sources = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            final Path source = this.sourceRoot.resolve("io/papermc/test/Test" + i + ".java");
+            Files.createDirectories(source.getParent());
+            Files.writeString(source, "package io.papermc.test;\n\npublic class Test" + i + " {\n    private int value;\n}\n");
+            accessTransformSet.getOrCreateClass("io.papermc.test.Test" + i).replaceField("value", AccessTransform.PUBLIC);
+            sources.add(source);
+        }
+        final RestampContextConfiguration configuration = RestampContextConfiguration.builder()
+            .executionContext(new InMemoryExecutionContext(t -> Assertions.fail("Failed to run restamp", t)))
+            .accessTransformSet(accessTransformSet)
+            .sourceRoot(this.sourceRoot)
+            .sourceFiles(sources)
+            .build();
+
+        final List<Result> results = Restamp.run(RestampInput.parseFrom(configuration)).getAllResults();
+        final ResultWriter writer = new ResultWriter(this.sourceRoot, 2);
+        try (writer) {
+            // Closed without awaiting the writes, as done by a run failing after submitting its results.
+            for (final Result result : results) writer.submit(result);
+        }
+
+        Assertions.assertEquals(sources.size(), writer.written().size());
+        for (final Path source : sources) Assertions.assertTrue(Files.readString(source).contains("public int value;"));
+    }
+
+}
@@ -0,0 +1,146 @@
+package io.papermc.restamp.function;
+
+import io.papermc.restamp.Restamp;
+import io.papermc.restamp.RestampContextConfiguration;
+import io.papermc.restamp.RestampInput;
+import org.cadixdev.at.AccessTransform;
+import org.cadixdev.at.AccessTransformSet;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Result;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+@Tag("function")
+@NullMarked
+public class RestampChunkedFunctionTest {
+
+    @TempDir
+    Path sourceRoot;
+
+    @Test
+    public void testChunkedRunTracksConsumptionAcrossChunks() throws IOException {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        accessTransformSet.getOrCreateClass("io.papermc.test.First").replaceField("value", AccessTransform.PUBLIC);
+        accessTransformSet.getOrCreateClass("io.papermc.test.Second").replace(AccessTransform.PUBLIC);
+
+        final Path first = createSourceFile("io/papermc/test/First.java", """
+            package io.papermc.test;
+
+            class First {
+                private int value;
+            }
+            """);
+        final Path second = createSourceFile("io/papermc/test/Second.java", """
+            package io.papermc.test;
+
+            class Second {
+            }
+            """);
+
+        final RestampContextConfiguration configuration = RestampContextConfiguration.builder()
+            .executionContext(new InMemoryExecutionContext(t -> Assertions.fail("Failed to run restamp", t)))
+            .accessTransformSet(accessTransformSet)
+            .sourceRoot(this.sourceRoot)
+            .sourceFiles(List.of(first, second))
+            .failWithNotApplicableAccessTransformers()
+            .build();
+
+        final List<Result> results = new ArrayList<>();
+        Restamp.runChunked(configuration, 1, results::add);
+
+        Assertions.assertEquals(2, results.size());
+        Assertions.assertEquals("""
+            package io.papermc.test;
+
+            class First {
+                public int value;
+            }
+            """, results.get(0).getAfter().printAll());
+        Assertions.assertEquals("""
+            package io.papermc.test;
+
+            public class Second {
+            }
+            """, results.get(1).getAfter().printAll());
+    }
+
+    @Test
+    public void testParallelRunKeepsSourceOrder() throws IOException {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        final List<Path> sourceFiles = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            accessTransformSet.getOrCreateClass("io.papermc.test.Type" + i).replace(AccessTransform.PUBLIC);
+            sourceFiles.add(createSourceFile("io/papermc/test/Type" + i + ".java", "package io.papermc.test;\n\nclass Type" + i + " {\n}\n"));
+        }
+        accessTransformSet.getOrCreateClass("io.papermc.test.Missing").replaceField("value", AccessTransform.PUBLIC);
+
+        final RestampContextConfiguration configuration = RestampContextConfiguration.builder()
+            .executionContext(new InMemoryExecutionContext(t -> Assertions.fail("Failed to run restamp", t)))
+            .accessTransformSet(accessTransformSet)
+            .sourceRoot(this.sourceRoot)
+            .sourceFiles(sourceFiles)
+            .recipeThreads(3)
+            .failWithNotApplicableAccessTransformers()
+            .build();
+
+        final List<Result> results = new ArrayList<>();
+        final IllegalStateException exception = Assertions.assertThrows(
+            IllegalStateException.class,
+            () -> Restamp.runChunked(configuration, 100, results::add)
+        );
+        Assertions.assertEquals("Could not apply access transformers: io.papermc.test.Missing: [value] {}", exception.getMessage());
+
+        Assertions.assertEquals(8, results.size());
+        for (int i = 0; i < 8; i++) {
+            Assertions.assertEquals("package io.papermc.test;\n\npublic class Type" + i + " {\n}\n", results.get(i).getAfter().printAll());
+        }
+    }
+
+    @Test
+    public void testStreamedRunPassesResultsInSourceOrderOnCallingThread() throws IOException {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        final List<Path> sourceFiles = new ArrayList<>();
+        for (int i = 0; i < 70; i++) {
+            accessTransformSet.getOrCreateClass("io.papermc.test.Type" + i).replace(AccessTransform.PUBLIC);
+            sourceFiles.add(createSourceFile("io/papermc/test/Type" + i + ".java", "package io.papermc.test;\n\nclass Type" + i + " {\n}\n"));
+        }
+
+        final RestampContextConfiguration configuration = RestampContextConfiguration.builder()
+            .executionContext(new InMemoryExecutionContext(t -> Assertions.fail("Failed to run restamp", t)))
+            .accessTransformSet(accessTransformSet)
+            .sourceRoot(this.sourceRoot)
+            .sourceFiles(sourceFiles)
+            .recipeThreads(2)
+            .failWithNotApplicableAccessTransformers()
+            .build();
+
+        final Thread callingThread = Thread.currentThread();
+        final List<Result> results = new ArrayList<>();
+        Restamp.run(RestampInput.parseFrom(configuration), result -> {
+            Assertions.assertSame(callingThread, Thread.currentThread());
+            results.add(result);
+        });
+
+        Assertions.assertEquals(70, results.size());
+        for (int i = 0; i < 70; i++) {
+            Assertions.assertEquals("package io.papermc.test;\n\npublic class Type" + i + " {\n}\n", results.get(i).getAfter().printAll());
+        }
+    }
+
+    private Path createSourceFile(final String path, final String content) throws IOException {
+        final Path sourceFile = this.sourceRoot.resolve(path);
+        Files.createDirectories(sourceFile.getParent());
+        Files.writeString(sourceFile, content);
+        return sourceFile;
+    }
+
+}
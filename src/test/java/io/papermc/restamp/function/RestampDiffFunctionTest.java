@@ -0,0 +1,111 @@
+package io.papermc.restamp.function;
+
+import io.papermc.restamp.Restamp;
+import io.papermc.restamp.RestampContextConfiguration;
+import io.papermc.restamp.RestampInput;
+import io.papermc.restamp.output.ModifierDiff;
+import org.cadixdev.at.AccessTransform;
+import org.cadixdev.at.AccessTransformSet;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Result;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+@Tag("function")
+@NullMarked
+public class RestampDiffFunctionTest {
+
+    @TempDir
+    Path sourceRoot;
+
+    @Test
+    public void testModifierDiffEqualsResultDiff() throws IOException {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        final List<Path> sourceFiles = new ArrayList<>();
+
+        // Changes far apart and close together, split into two hunks.
+        final AccessTransformSet.Class spread = accessTransformSet.getOrCreateClass("io.papermc.test.Spread");
+        spread.replace(AccessTransform.PUBLIC);
+        spread.replaceField("first", AccessTransform.PUBLIC);
+        spread.replaceField("last", AccessTransform.PUBLIC);
+        spread.replaceField("beforeLast", AccessTransform.PUBLIC);
+        sourceFiles.add(createSourceFile("io/papermc/test/Spread.java", """
+            package io.papermc.test;
+
+            class Spread {
+                private int first;
+                private int a;
+                private int b;
+                private int c;
+                private int d;
+                private int e;
+                private int f;
+                private int g;
+                private int h;
+                private int beforeLast;
+                private int i;
+                private int last;
+            }
+            """));
+
+        // Carriage returns and no line feed at the end of the file.
+        accessTransformSet.getOrCreateClass("io.papermc.test.Windows").replaceField("value", AccessTransform.PUBLIC);
+        sourceFiles.add(createSourceFile(
+            "io/papermc/test/Windows.java",
+            "package io.papermc.test;\r\n\r\npublic class Windows {\r\n    private int value;\r\n}"
+        ));
+
+        // Changed lines equal to other lines, diffed via the general purpose diff.
+        accessTransformSet.getOrCreateClass("io.papermc.test.Ambiguous$First").replaceField("value", AccessTransform.PUBLIC);
+        accessTransformSet.getOrCreateClass("io.papermc.test.Ambiguous$Third").replaceField("value", AccessTransform.PUBLIC);
+        sourceFiles.add(createSourceFile("io/papermc/test/Ambiguous.java", """
+            package io.papermc.test;
+
+            public class Ambiguous {
+                public static class First {
+                    private int value;
+                }
+                public static class Second {
+                    public int value;
+                }
+                public static class Third {
+                    private int value;
+                }
+            }
+            """));
+
+        final RestampContextConfiguration configuration = RestampContextConfiguration.builder()
+            .executionContext(new InMemoryExecutionContext(t -> Assertions.fail("Failed to run restamp", t)))
+            .accessTransformSet(accessTransformSet)
+            .sourceRoot(this.sourceRoot)
+            .sourceFiles(sourceFiles)
+            .failWithNotApplicableAccessTransformers()
+            .build();
+
+        final List<Result> results = Restamp.run(RestampInput.parseFrom(configuration)).getAllResults();
+        Assertions.assertEquals(3, results.size());
+
+        final ModifierDiff modifierDiff = new ModifierDiff();
+        for (int run = 0; run < 2; run++) {
+            // Only the first modifier diff is compared to the general purpose diff by the modifier diff itself.
+            for (final Result result : results) Assertions.assertEquals(result.diff(), modifierDiff.diff(result));
+        }
+    }
+
+    private Path createSourceFile(final String path, final String content) throws IOException {
+        final Path sourceFile = this.sourceRoot.resolve(path);
+        Files.createDirectories(sourceFile.getParent());
+        Files.writeString(sourceFile, content);
+        return sourceFile;
+    }
+
+}
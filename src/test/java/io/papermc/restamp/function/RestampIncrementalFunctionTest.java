@@ -0,0 +1,74 @@
+package io.papermc.restamp.function;
+
+import io.papermc.restamp.Restamp;
+import io.papermc.restamp.RestampContextConfiguration;
+import io.papermc.restamp.RestampInput;
+import org.cadixdev.at.AccessTransform;
+import org.cadixdev.at.AccessTransformSet;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.InMemoryExecutionContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+@Tag("function")
+@NullMarked
+public class RestampIncrementalFunctionTest {
+
+    @TempDir
+    Path sourceRoot;
+
+    @TempDir
+    Path stateDirectory;
+
+    @Test
+    public void testUnchangedSourcesKeepTheirConsumption() throws IOException {
+        final Path source = createSourceFile("io/papermc/test/Test.java", """
+            package io.papermc.test;
+
+            public class Test {
+                public int value;
+            }
+            """);
+
+        // First run records the consumed access transformer, second run skips the unchanged source.
+        for (int i = 0; i < 2; i++) {
+            final RestampInput input = RestampInput.parseFrom(configuration(source, "value"));
+            Assertions.assertEquals(i == 0 ? 1 : 0, input.sources().size());
+            Assertions.assertDoesNotThrow(() -> Restamp.run(input));
+        }
+
+        // Changed access transformers for the type of the source force it to be processed again.
+        final RestampInput input = RestampInput.parseFrom(configuration(source, "missing"));
+        Assertions.assertEquals(1, input.sources().size());
+        Assertions.assertThrows(IllegalStateException.class, () -> Restamp.run(input));
+    }
+
+    private RestampContextConfiguration configuration(final Path source, final String field) {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        accessTransformSet.getOrCreateClass("io.papermc.test.Test").replaceField(field, AccessTransform.PUBLIC);
+
+        return RestampContextConfiguration.builder()
+            .executionContext(new InMemoryExecutionContext(t -> Assertions.fail("Failed to run restamp", t)))
+            .accessTransformSet(accessTransformSet)
+            .sourceRoot(this.sourceRoot)
+            .sourceFiles(List.of(source))
+            .incremental(this.stateDirectory.resolve("restamp.state"))
+            .failWithNotApplicableAccessTransformers()
+            .build();
+    }
+
+    private Path createSourceFile(final String path, final String content) throws IOException {
+        final Path sourceFile = this.sourceRoot.resolve(path);
+        Files.createDirectories(sourceFile.getParent());
+        Files.writeString(sourceFile, content);
+        return sourceFile;
+    }
+
+}
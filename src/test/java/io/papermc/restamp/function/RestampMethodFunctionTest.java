@@ -3,6 +3,7 @@ package io.papermc.restamp.function;
 import io.papermc.restamp.Restamp;
 import io.papermc.restamp.RestampFunctionTestHelper;
 import io.papermc.restamp.RestampInput;
+import org.cadixdev.at.AccessChange;
 import org.cadixdev.at.AccessTransform;
 import org.cadixdev.at.AccessTransformSet;
 import org.cadixdev.at.ModifierChange;
@@ -11,6 +12,7 @@ import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ArgumentsSource;
 import org.openrewrite.Result;
@@ -54,6 +56,86 @@ public class RestampMethodFunctionTest {
         ), fileAfterRestamp.printAll());
     }
 
+    @Test
+    public void testAccessTransformerOnInterfaceMethod() {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        accessTransformSet.getOrCreateClass("io.papermc.test.Api").replaceMethod(
+            MethodSignature.of("method", "()V"), AccessTransform.of(AccessChange.PUBLIC, ModifierChange.REMOVE)
+        );
+
+        final RestampInput input = RestampFunctionTestHelper.inputFromSourceString(
+            accessTransformSet,
+            "package io.papermc.test; public interface Api { void method(); }",
+            "package io.papermc.test; public class Impl implements Api { public final void method() {} }"
+        );
+
+        final List<Result> results = Restamp.run(input).getAllResults();
+        Assertions.assertEquals(1, results.size());
+
+        final SourceFile fileAfterRestamp = results.getFirst().getAfter();
+        Assertions.assertNotNull(fileAfterRestamp);
+        Assertions.assertEquals(
+            "package io.papermc.test; public class Impl implements Api { public void method() {} }",
+            fileAfterRestamp.printAll()
+        );
+    }
+
+    @Test
+    public void testWildcardAccessTransformers() {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        final AccessTransformSet.Class testClass = accessTransformSet.getOrCreateClass("io.papermc.test.Test");
+        testClass.mergeAllFields(AccessTransform.PUBLIC);
+        testClass.mergeAllMethods(AccessTransform.of(AccessChange.PROTECTED, ModifierChange.REMOVE));
+
+        final RestampInput input = RestampFunctionTestHelper.inputFromSourceString(
+            accessTransformSet,
+            "package io.papermc.test; public class Test { private int a; private String b; "
+                + "private final void first() {} void second(int value) {} }"
+        );
+
+        final List<Result> results = Restamp.run(input).getAllResults();
+        Assertions.assertEquals(1, results.size());
+
+        final SourceFile fileAfterRestamp = results.getFirst().getAfter();
+        Assertions.assertNotNull(fileAfterRestamp);
+        Assertions.assertEquals(
+            "package io.papermc.test; public class Test { public int a; public String b; "
+                + "protected void first() {} protected void second(int value) {} }",
+            fileAfterRestamp.printAll()
+        );
+    }
+
+    @Test
+    public void testAccessTransformersOnAnonymousClass() {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        accessTransformSet.getOrCreateClass("io.papermc.test.Outer$1").replaceField("value", AccessTransform.PUBLIC);
+        accessTransformSet.getOrCreateClass("io.papermc.test.Base").replaceMethod(MethodSignature.of("run", "()V"), AccessTransform.PUBLIC);
+
+        final RestampInput input = RestampFunctionTestHelper.inputFromSourceString(
+            accessTransformSet,
+            "package io.papermc.test; public class Outer { private int value; "
+                + "Base create() { return new Base() { private int value; protected void run() {} }; } }",
+            "package io.papermc.test; public class Base { protected void run() {} }"
+        );
+
+        // Fails if the access transformer of the anonymous class was not consumed.
+        final RestampInput strictInput = new RestampInput(input.executionContext(), input.sources(), accessTransformSet, true);
+        final List<Result> results = Restamp.run(strictInput).getAllResults();
+        Assertions.assertEquals(2, results.size());
+
+        final SourceFile outerAfterRestamp = results.get(0).getAfter();
+        Assertions.assertNotNull(outerAfterRestamp);
+        Assertions.assertEquals(
+            "package io.papermc.test; public class Outer { private int value; "
+                + "Base create() { return new Base() { public int value; public void run() {} }; } }",
+            outerAfterRestamp.printAll()
+        );
+
+        final SourceFile baseAfterRestamp = results.get(1).getAfter();
+        Assertions.assertNotNull(baseAfterRestamp);
+        Assertions.assertEquals("package io.papermc.test; public class Base { public void run() {} }", baseAfterRestamp.printAll());
+    }
+
     private String constructMethodTest(String modifier, final RestampFunctionTestHelper.TestCodeStyle testCodeStyle) {
         if (!modifier.isEmpty()) modifier = modifier + " ";
         final StringBuilder builder = new StringBuilder();
@@ -0,0 +1,78 @@
+package io.papermc.restamp.parser;
+
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+@NullMarked
+class ClasspathIndexTest {
+
+    @TempDir
+    Path classpathDirectory;
+
+    @TempDir
+    Path indexDirectory;
+
+    @Test
+    public void testLocatesClassesAndPackages() throws IOException {
+        final Path first = createJar("first.jar", "com/example/A.class", "com/example/A$Inner.class", "module-info.class");
+        final Path second = createJar("second.jar", "com/example/B.class", "org/example/C.class");
+
+        final ClasspathIndex index = ClasspathIndex.load(List.of(first, second), null);
+
+        Assertions.assertEquals(first, index.locate("com.example.A$Inner"));
+        Assertions.assertEquals(second, index.locate("org.example.C"));
+        Assertions.assertNull(index.locate("module-info"));
+        Assertions.assertEquals(List.of(first, second), index.packageProviders("com.example"));
+        Assertions.assertEquals(List.of(second), index.packageProviders("org.example"));
+    }
+
+    @Test
+    public void testEffectiveClasspathDropsEmptyAndDuplicateEntries() throws IOException {
+        final Path first = createJar("first.jar", "com/example/A.class");
+        final Path duplicate = createJar("duplicate.jar", "com/example/A.class");
+        final Path resources = createJar("resources.jar", "META-INF/MANIFEST.MF");
+
+        final ClasspathIndex index = ClasspathIndex.load(List.of(first, resources, duplicate), null);
+
+        Assertions.assertEquals(List.of(first), index.deduplicatedClasspath());
+    }
+
+    @Test
+    public void testPersistedIndexIsReused() throws IOException {
+        final Path jar = createJar("first.jar", "com/example/A.class");
+
+        final ClasspathIndex firstIndex = ClasspathIndex.load(List.of(jar), this.indexDirectory);
+        final ClasspathIndex secondIndex = ClasspathIndex.load(List.of(jar), this.indexDirectory);
+
+        Assertions.assertEquals(firstIndex.entries(), secondIndex.entries());
+        Assertions.assertEquals(firstIndex.fingerprint(), secondIndex.fingerprint());
+        Assertions.assertTrue(Files.isRegularFile(
+            this.indexDirectory.resolve("classes").resolve(firstIndex.entries().getFirst().contentHash())
+        ));
+    }
+
+    private Path createJar(final String name, final String... entries) throws IOException {
+        final Path jar = this.classpathDirectory.resolve(name);
+        try (final OutputStream outputStream = Files.newOutputStream(jar); final ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+            for (final String entry : entries) {
+                // Fixed entry times keep the jar content identical for equal entries.
+                final ZipEntry zipEntry = new ZipEntry(entry);
+                zipEntry.setTime(0);
+                zipOutputStream.putNextEntry(zipEntry);
+                zipOutputStream.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+}
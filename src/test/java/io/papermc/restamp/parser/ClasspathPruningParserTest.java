@@ -0,0 +1,156 @@
+package io.papermc.restamp.parser;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.Java21Parser;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+@NullMarked
+class ClasspathPruningParserTest {
+
+    @TempDir
+    Path classpathDirectory;
+
+    @TempDir
+    Path sourceRoot;
+
+    @Test
+    public void testPrunesToReferencedPackages() throws IOException {
+        final Path project = createJar("project.jar", "com/example/Other.class");
+        final Path imported = createJar("imported.jar", "org/example/Imported$Nested.class");
+        final Path wildcard = createJar("wildcard.jar", "net/example/Wildcard.class");
+        final Path statics = createJar("static.jar", "io/example/Constants.class");
+        final Path unused = createJar("unused.jar", "dev/example/Unused.class");
+
+        final Path sourceFile = this.sourceRoot.resolve("Test.java");
+        Files.writeString(sourceFile, """
+            package com.example;
+
+            import org.example.Imported.Nested;
+            import net.example.*;
+            import static io.example.Constants.VALUE;
+
+            class Test {
+                // import dev.example.Unused; is not a declaration
+            }
+            """);
+
+        final ClasspathIndex index = ClasspathIndex.load(List.of(project, imported, wildcard, statics, unused), null);
+        final ClasspathPruningParser parser = new ClasspathPruningParser(index, classpath -> {
+            throw new UnsupportedOperationException();
+        });
+
+        Assertions.assertEquals(List.of(project, imported, wildcard, statics), parser.prunedClasspath(List.of(sourceFile)));
+    }
+
+    @Test
+    public void testEscalatesUnresolvedTransitiveSupertypes() throws IOException {
+        final Path base = compileJar("base.jar", "org/example/base/Base.java", """
+            package org.example.base;
+
+            public class Base {
+                protected void run() {}
+            }
+            """);
+        final Path api = compileJar("api.jar", "org/example/api/Api.java", """
+            package org.example.api;
+
+            public class Api extends org.example.base.Base {}
+            """, base);
+
+        // Only imports the package of the direct supertype, whose own supertype is provided by a jar that is pruned.
+        final Path sourceFile = this.sourceRoot.resolve("com/example/Test.java");
+        Files.createDirectories(sourceFile.getParent());
+        Files.writeString(sourceFile, """
+            package com.example;
+
+            import org.example.api.Api;
+
+            public class Test extends Api {
+                @Override
+                protected void run() {}
+            }
+            """);
+
+        final ClasspathIndex index = ClasspathIndex.load(List.of(api, base), null);
+        final List<List<Path>> parsedClasspaths = new ArrayList<>();
+        final ClasspathPruningParser parser = new ClasspathPruningParser(index, classpath -> {
+            parsedClasspaths.add(classpath);
+            return new ShardedSourceParser(() -> Java21Parser.builder().classpath(classpath).build(), 1);
+        });
+
+        final List<SourceFile> parsed = parser.parse(List.of(sourceFile), this.sourceRoot, new InMemoryExecutionContext());
+        Assertions.assertEquals(List.of(List.of(api), List.of(api, base)), parsedClasspaths);
+
+        final J.CompilationUnit compilationUnit = Assertions.assertInstanceOf(J.CompilationUnit.class, parsed.getFirst());
+        final JavaType.@Nullable FullyQualified type = compilationUnit.getClasses().getFirst().getType();
+        Assertions.assertNotNull(type);
+        Assertions.assertNotNull(type.getSupertype());
+        Assertions.assertEquals(
+            "org.example.base.Base", Objects.requireNonNull(type.getSupertype().getSupertype()).getFullyQualifiedName()
+        );
+    }
+
+    private Path compileJar(final String name, final String sourcePath, final String source, final Path... classpath) throws IOException {
+        final Path sources = Files.createTempDirectory(this.classpathDirectory, "sources");
+        final Path classes = Files.createTempDirectory(this.classpathDirectory, "classes");
+        final Path sourceFile = sources.resolve(sourcePath);
+        Files.createDirectories(sourceFile.getParent());
+        Files.writeString(sourceFile, source);
+
+        final List<String> arguments = new ArrayList<>(List.of("-d", classes.toString()));
+        if (classpath.length > 0) {
+            arguments.add("-classpath");
+            arguments.add(Arrays.stream(classpath).map(Path::toString).collect(Collectors.joining(File.pathSeparator)));
+        }
+        arguments.add(sourceFile.toString());
+        Assertions.assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null, arguments.toArray(String[]::new)));
+
+        final Path jar = this.classpathDirectory.resolve(name);
+        try (
+            final OutputStream outputStream = Files.newOutputStream(jar);
+            final ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream);
+            final Stream<Path> classFiles = Files.walk(classes)
+        ) {
+            for (final Path classFile : (Iterable<Path>) classFiles.filter(Files::isRegularFile)::iterator) {
+                zipOutputStream.putNextEntry(new ZipEntry(classes.relativize(classFile).toString().replace(File.separatorChar, '/')));
+                zipOutputStream.write(Files.readAllBytes(classFile));
+                zipOutputStream.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private Path createJar(final String name, final String... entries) throws IOException {
+        final Path jar = this.classpathDirectory.resolve(name);
+        try (final OutputStream outputStream = Files.newOutputStream(jar); final ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+            for (final String entry : entries) {
+                zipOutputStream.putNextEntry(new ZipEntry(entry));
+                zipOutputStream.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+}
@@ -0,0 +1,61 @@
+package io.papermc.restamp.parser;
+
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+@NullMarked
+class ShardedSourceParserTest {
+
+    @TempDir
+    Path sourceRoot;
+
+    @Test
+    public void testShardsKeepPackagesTogether() throws IOException {
+        final List<Path> sourceFiles = new ArrayList<>();
+        for (final String packageName : List.of("a", "b", "c", "d")) {
+            for (int i = 0; i < 3; i++) sourceFiles.add(createSourceFile(packageName + "/Type" + i + ".java", 100));
+        }
+
+        final List<List<Path>> shards = ShardedSourceParser.shard(sourceFiles, 4);
+        Assertions.assertEquals(4, shards.size());
+        for (final List<Path> shard : shards) {
+            Assertions.assertEquals(1, shard.stream().map(Path::getParent).distinct().count(), "shard spans multiple packages: " + shard);
+        }
+        Assertions.assertEquals(new HashSet<>(sourceFiles), new HashSet<>(shards.stream().flatMap(List::stream).toList()));
+    }
+
+    @Test
+    public void testShardsSplitOversizedPackages() throws IOException {
+        final List<Path> sourceFiles = new ArrayList<>();
+        for (int i = 0; i < 8; i++) sourceFiles.add(createSourceFile("large/Type" + i + ".java", 100));
+
+        final List<List<Path>> shards = ShardedSourceParser.shard(sourceFiles, 4);
+        Assertions.assertEquals(4, shards.size());
+        shards.forEach(shard -> Assertions.assertEquals(2, shard.size()));
+    }
+
+    @Test
+    public void testShardsAreDeterministic() throws IOException {
+        final List<Path> sourceFiles = new ArrayList<>();
+        for (int i = 0; i < 20; i++) sourceFiles.add(createSourceFile("p" + (i % 5) + "/Type" + i + ".java", 50 + i * 10));
+
+        Assertions.assertEquals(ShardedSourceParser.shard(sourceFiles, 3), ShardedSourceParser.shard(sourceFiles, 3));
+    }
+
+    private Path createSourceFile(final String path, final int size) throws IOException {
+        final Path sourceFile = this.sourceRoot.resolve(path);
+        Files.createDirectories(sourceFile.getParent());
+        Files.writeString(sourceFile, "a".repeat(size));
+        return sourceFile;
+    }
+
+}
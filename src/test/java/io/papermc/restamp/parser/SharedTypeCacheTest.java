@@ -0,0 +1,46 @@
+package io.papermc.restamp.parser;
+
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.JavaType;
+
+import java.util.List;
+
+@NullMarked
+class SharedTypeCacheTest {
+
+    @Test
+    public void testEvictsOnlySourceTypes() {
+        final SharedTypeCache typeCache = new SharedTypeCache();
+        final JavaParser parser = JavaParser.fromJavaVersion().typeCache(typeCache).build();
+
+        final List<SourceFile> sources = parser.parse("package com.example; class Test { java.util.List<Test> list; }").toList();
+        Assertions.assertNotNull(typeCache.get("com.example.Test"));
+        Assertions.assertNotNull(typeCache.get("java.util.List"));
+
+        Assertions.assertTrue(typeCache.evictSourceTypes(sources) > 0);
+        Assertions.assertNull(typeCache.<JavaType>get("com.example.Test"));
+        Assertions.assertNotNull(typeCache.get("java.util.List"));
+
+        // Classpath types cached by earlier parses are not evicted later.
+        Assertions.assertEquals(0, typeCache.evictSourceTypes(List.of()));
+        Assertions.assertNotNull(typeCache.get("java.util.List"));
+    }
+
+    @Test
+    public void testParserViewKeepsTypesOnReset() {
+        final SharedTypeCache typeCache = new SharedTypeCache();
+        final JavaParser parser = JavaParser.fromJavaVersion().typeCache(typeCache.parserView()).build();
+
+        parser.parse("package com.example; class Test { java.util.List<Test> list; }").toList();
+        parser.reset();
+        Assertions.assertNotNull(typeCache.get("java.util.List"));
+
+        typeCache.clear();
+        Assertions.assertNull(typeCache.<JavaType>get("java.util.List"));
+    }
+
+}
@@ -0,0 +1,125 @@
+package io.papermc.restamp.parser;
+
+import io.papermc.restamp.at.IndexedAccessTransformSet;
+import org.cadixdev.at.AccessTransform;
+import org.cadixdev.at.AccessTransformSet;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+@NullMarked
+class SourceFileCacheTest {
+
+    @TempDir
+    Path cacheDirectory;
+
+    @TempDir
+    Path sourceRoot;
+
+    private final ClasspathIndex classpathIndex;
+
+    SourceFileCacheTest() throws IOException {
+        this.classpathIndex = ClasspathIndex.load(List.of(), null);
+    }
+
+    @Test
+    public void testRecordedSourceIsUntouchedInNextSession() throws IOException {
+        final Path sourceFile = createSourceFile("Test.java", "class Test {}");
+        final SourceFileCache cache = new SourceFileCache(this.cacheDirectory, SourceFileCache.DEFAULT_MAX_SIZE);
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+
+        final SourceFileCache.Session firstSession = openSession(cache, accessTransformSet);
+        Assertions.assertFalse(firstSession.isUntouched(sourceFile, Path.of("Test.java")));
+        firstSession.recordUntouched(Path.of("Test.java"));
+        firstSession.close();
+
+        Assertions.assertTrue(openSession(cache, accessTransformSet).isUntouched(sourceFile, Path.of("Test.java")));
+    }
+
+    @Test
+    public void testChangedInputsMissCache() throws IOException {
+        final Path sourceFile = createSourceFile("Test.java", "class Test {}");
+        final SourceFileCache cache = new SourceFileCache(this.cacheDirectory, SourceFileCache.DEFAULT_MAX_SIZE);
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+
+        final SourceFileCache.Session firstSession = openSession(cache, accessTransformSet);
+        Assertions.assertFalse(firstSession.isUntouched(sourceFile, Path.of("Test.java")));
+        firstSession.recordUntouched(Path.of("Test.java"));
+        firstSession.close();
+
+        // Different access transformers
+        final AccessTransformSet otherAccessTransformSet = AccessTransformSet.create();
+        otherAccessTransformSet.getOrCreateClass("Other").replace(AccessTransform.PUBLIC);
+        Assertions.assertFalse(openSession(cache, otherAccessTransformSet).isUntouched(sourceFile, Path.of("Test.java")));
+
+        // Different source content
+        Files.writeString(sourceFile, "class Test { int a; }");
+        Assertions.assertFalse(openSession(cache, accessTransformSet).isUntouched(sourceFile, Path.of("Test.java")));
+    }
+
+    @Test
+    public void testChangedSupertypeSourceMissesCache() throws IOException {
+        final Path sourceFile = createSourceFile("Child.java", "class Child extends Parent {}");
+        createSourceFile("Parent.java", "class Parent {}");
+        final SourceFileCache cache = new SourceFileCache(this.cacheDirectory, SourceFileCache.DEFAULT_MAX_SIZE);
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+
+        final SourceFileCache.Session firstSession = openSession(cache, accessTransformSet);
+        Assertions.assertFalse(firstSession.isUntouched(sourceFile, Path.of("Child.java")));
+        firstSession.recordUntouched(Path.of("Child.java"), List.of("Parent", "java.lang.Object"));
+        firstSession.close();
+
+        Assertions.assertTrue(openSession(cache, accessTransformSet).isUntouched(sourceFile, Path.of("Child.java")));
+
+        Files.writeString(this.sourceRoot.resolve("Parent.java"), "class Parent extends Other {}");
+        Assertions.assertFalse(openSession(cache, accessTransformSet).isUntouched(sourceFile, Path.of("Child.java")));
+    }
+
+    @Test
+    public void testUnresolvableSupertypeIsNotRecorded() throws IOException {
+        final Path sourceFile = createSourceFile("Child.java", "class Child extends Missing {}");
+        final SourceFileCache cache = new SourceFileCache(this.cacheDirectory, SourceFileCache.DEFAULT_MAX_SIZE);
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+
+        final SourceFileCache.Session firstSession = openSession(cache, accessTransformSet);
+        Assertions.assertFalse(firstSession.isUntouched(sourceFile, Path.of("Child.java")));
+        firstSession.recordUntouched(Path.of("Child.java"), List.of("Missing"));
+        firstSession.close();
+
+        Assertions.assertFalse(openSession(cache, accessTransformSet).isUntouched(sourceFile, Path.of("Child.java")));
+    }
+
+    @Test
+    public void testEvictionBoundsCacheSize() throws IOException {
+        final SourceFileCache cache = new SourceFileCache(this.cacheDirectory, 1);
+        final SourceFileCache.Session session = openSession(cache, AccessTransformSet.create());
+        for (int i = 0; i < 4; i++) {
+            final Path sourceFile = createSourceFile("Test" + i + ".java", "class Test" + i + " {}");
+            Assertions.assertFalse(session.isUntouched(sourceFile, sourceFile.getFileName()));
+            session.recordUntouched(sourceFile.getFileName());
+        }
+        session.close();
+
+        try (final Stream<Path> entries = Files.walk(this.cacheDirectory.resolve("entries"))) {
+            Assertions.assertEquals(0, entries.filter(Files::isRegularFile).count());
+        }
+    }
+
+    private SourceFileCache.Session openSession(final SourceFileCache cache, final AccessTransformSet accessTransformSet) {
+        return cache.openSession(this.classpathIndex, IndexedAccessTransformSet.of(accessTransformSet), this.sourceRoot);
+    }
+
+    private Path createSourceFile(final String path, final String content) throws IOException {
+        final Path sourceFile = this.sourceRoot.resolve(path);
+        Files.writeString(sourceFile, content);
+        return sourceFile;
+    }
+
+}
@@ -0,0 +1,56 @@
+package io.papermc.restamp.parser;
+
+import io.papermc.restamp.at.IndexedAccessTransformSet;
+import org.cadixdev.at.AccessTransform;
+import org.cadixdev.at.AccessTransformSet;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+@NullMarked
+class SourceFilePrefilterTest {
+
+    @TempDir
+    Path sourceRoot;
+
+    @Test
+    public void testCollectSimpleNames() {
+        final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+        accessTransformSet.getOrCreateClass("io.papermc.test.Outer$Inner$1Local").replace(AccessTransform.PUBLIC);
+        accessTransformSet.getOrCreateClass("io.papermc.test.Other").replaceField("field", AccessTransform.PUBLIC);
+        accessTransformSet.getOrCreateClass("io.papermc.test.Other").replaceMethod(MethodSignature.of("method", "()V"), AccessTransform.PUBLIC);
+        accessTransformSet.getOrCreateClass("io.papermc.test.Other").replaceMethod(MethodSignature.of("<init>", "()V"), AccessTransform.PUBLIC);
+
+        Assertions.assertEquals(
+            Set.of("Outer", "Inner", "Local", "Other", "method"),
+            SourceFilePrefilter.collectSimpleNames(IndexedAccessTransformSet.of(accessTransformSet))
+        );
+    }
+
+    @Test
+    public void testFilterSkipsSourceFilesWithoutMatches() throws IOException {
+        final Path matching = createSourceFile("Matching.java", "public class Matching { void target() {} }");
+        final Path partialMatch = createSourceFile("Partial.java", "public class Partial { void targetButLonger() {} }");
+        final Path noMatch = createSourceFile("None.java", "public class None { void other() {} }");
+        final Path unicode = createSourceFile("Unicode.java", "public class Unicode { void töst() {} void target() {} }");
+
+        final SourceFilePrefilter.Result result = new SourceFilePrefilter(Set.of("target")).filter(List.of(matching, partialMatch, noMatch, unicode));
+        Assertions.assertEquals(List.of(matching, unicode), result.sourceFiles());
+        Assertions.assertEquals(2, result.skipped());
+    }
+
+    private Path createSourceFile(final String path, final String content) throws IOException {
+        final Path sourceFile = this.sourceRoot.resolve(path);
+        Files.writeString(sourceFile, content);
+        return sourceFile;
+    }
+
+}
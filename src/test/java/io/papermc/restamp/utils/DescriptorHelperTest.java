@@ -0,0 +1,29 @@
+package io.papermc.restamp.utils;
+
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+@NullMarked
+class DescriptorHelperTest {
+
+    @Test
+    public void testErasedSimpleParameterNames() {
+        Assertions.assertEquals(
+            List.of("int", "String[]", "Entry", "boolean[][]"),
+            DescriptorHelper.erasedSimpleParameterNames("(I[Ljava/lang/String;Ljava/util/Map$Entry;[[Z)V")
+        );
+        Assertions.assertEquals(List.of(), DescriptorHelper.erasedSimpleParameterNames("()Ljava/lang/Object;"));
+    }
+
+    @Test
+    public void testErasedSimpleName() {
+        Assertions.assertEquals("int", DescriptorHelper.erasedSimpleName("int"));
+        Assertions.assertEquals("Entry[]", DescriptorHelper.erasedSimpleName("java.util.Map.@Nullable Entry<K, List<V>>[]"));
+        Assertions.assertEquals("String", DescriptorHelper.erasedSimpleName("@Deprecated(since = \"1\") /* Other */ String"));
+        Assertions.assertEquals("Map[][]", DescriptorHelper.erasedSimpleName("Map<String, int[]>[] []"));
+    }
+
+}